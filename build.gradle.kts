@@ -3,6 +3,7 @@ plugins {
     id("com.gradleup.shadow") version "8.3.9"
     id("io.micronaut.aot") version "4.6.1"
     id("com.diffplug.spotless") version "8.0.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "io.martinstyk"
@@ -26,6 +27,11 @@ dependencies {
     implementation("io.micronaut.security:micronaut-security-jwt")
     implementation("io.micronaut.validation:micronaut-validation")
     implementation("io.micronaut:micronaut-management")
+    implementation("io.micronaut.cache:micronaut-cache-caffeine")
+    implementation("io.micronaut.micrometer:micronaut-micrometer-core")
+    implementation("io.micronaut.micrometer:micronaut-micrometer-registry-prometheus")
+    implementation("io.micronaut.tracing:micronaut-tracing-opentelemetry-http")
+    implementation("io.opentelemetry:opentelemetry-exporter-otlp")
     implementation("io.projectreactor:reactor-core")
     implementation("io.micronaut.oraclecloud:micronaut-oraclecloud-bmc-generativeaiinference")
     implementation("io.micronaut.openapi:micronaut-openapi")
@@ -83,6 +89,86 @@ tasks.named<io.micronaut.gradle.docker.MicronautDockerfile>("dockerfile") {
     baseImage = "eclipse-temurin:25-jre"
 }
 
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    includes = providers.gradleProperty("jmhIncludes").map { listOf(it) }.orElse(listOf())
+}
+
+tasks.register("jmhCheck") {
+    group = "verification"
+    description = "Fails when a benchmark regressed against the results in -PjmhBaseline"
+    dependsOn("jmh")
+
+    val results = layout.buildDirectory.file("results/jmh/results.json")
+    val baseline = providers.gradleProperty("jmhBaseline").map { file(it) }
+    val threshold =
+        providers.gradleProperty("jmhRegressionThreshold").map { it.toDouble() }.orElse(0.10)
+
+    doLast {
+        // Average time and allocated bytes per operation, keyed by benchmark and parameters
+        fun scores(file: File): Map<String, Map<String, Double>> =
+            (groovy.json.JsonSlurper().parse(file) as List<*>).associate { entry ->
+                val result = entry as Map<*, *>
+                val metrics = mutableMapOf<String, Double>()
+                val primary = result["primaryMetric"] as Map<*, *>
+                metrics["ns/op"] = (primary["score"] as Number).toDouble()
+                val secondary = result["secondaryMetrics"] as Map<*, *>? ?: emptyMap<String, Any>()
+                (secondary["gc.alloc.rate.norm"] as Map<*, *>?)?.let {
+                    metrics["B/op"] = (it["score"] as Number).toDouble()
+                }
+                "${result["benchmark"]}${result["params"] ?: ""}" to metrics
+            }
+
+        if (!baseline.isPresent) {
+            logger.lifecycle("No -PjmhBaseline given, results are in ${results.get().asFile}")
+            return@doLast
+        }
+
+        val current = scores(results.get().asFile)
+        val previous = scores(baseline.get())
+        val regressions =
+            current.flatMap { (benchmark, metrics) ->
+                metrics.mapNotNull { (metric, score) ->
+                    val before = previous[benchmark]?.get(metric)
+                    if (before != null && before > 0 && score > before * (1 + threshold.get())) {
+                        "$benchmark $metric: %.1f -> %.1f".format(before, score)
+                    } else {
+                        null
+                    }
+                }
+            }
+        if (regressions.isNotEmpty()) {
+            throw GradleException(
+                "Benchmarks regressed by more than ${threshold.get() * 100}%:\n" +
+                    regressions.joinToString("\n"),
+            )
+        }
+    }
+}
+
+val loadTest by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += output + compileClasspath + sourceSets.main.get().runtimeClasspath
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Drives the gateway against a local OCI stand-in at a fixed request rate"
+    classpath = loadTest.runtimeClasspath
+    mainClass = "io.martinstyk.loadtest.LoadTest"
+    args(
+        providers
+            .gradleProperty("loadTestArgs")
+            .map { it.split(" ").filter(String::isNotBlank) }
+            .getOrElse(emptyList()),
+    )
+}
+
 spotless {
     java {
         target("src/**/*.java")
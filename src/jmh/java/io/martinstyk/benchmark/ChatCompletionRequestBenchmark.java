@@ -0,0 +1,107 @@
+package io.martinstyk.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.oracle.bmc.generativeaiinference.model.GenericChatRequest;
+import io.martinstyk.mapper.ChatCompletionMapper;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.micronaut.serde.ObjectMapper;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChatCompletionRequestBenchmark {
+
+    private static final String CONVERSATION =
+            """
+            {
+              "model": "gpt-5",
+              "messages": [
+                {"role": "system", "content": "You are a helpful assistant."},
+                {"role": "developer", "content": "Answer in one short paragraph."},
+                {"role": "user", "content": "What is the capital of France?"},
+                {"role": "assistant", "content": "The capital of France is Paris."},
+                {"role": "user", "content": "And what is its population?"}
+              ],
+              "temperature": 0.7,
+              "max_completion_tokens": 256
+            }
+            """;
+
+    private static final String TOOLS =
+            """
+            {
+              "model": "gpt-5",
+              "messages": [
+                {"role": "system", "content": "You are a helpful assistant."},
+                {"role": "user", "content": "What is the weather like in Paris today?"}
+              ],
+              "tools": [
+                {
+                  "type": "function",
+                  "name": "get_weather",
+                  "description": "Get the current weather for a location",
+                  "parameters": {
+                    "type": "object",
+                    "properties": {
+                      "location": {"type": "string", "description": "City name"},
+                      "unit": {"type": "string", "enum": ["celsius", "fahrenheit"]}
+                    },
+                    "required": ["location"]
+                  }
+                },
+                {
+                  "type": "function",
+                  "name": "get_forecast",
+                  "description": "Get the weather forecast for the next days",
+                  "parameters": {
+                    "type": "object",
+                    "properties": {
+                      "location": {"type": "string"},
+                      "days": {"type": "integer", "minimum": 1, "maximum": 7}
+                    },
+                    "required": ["location", "days"]
+                  }
+                }
+              ],
+              "tool_choice": "auto"
+            }
+            """;
+
+    @Param({"conversation", "tools"})
+    private String payload;
+
+    private ObjectMapper objectMapper;
+    private ChatCompletionMapper mapper;
+    private byte[] body;
+    private CreateChatCompletionRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = ObjectMapper.getDefault();
+        mapper = Mappers.getMapper(ChatCompletionMapper.class);
+        body = ("tools".equals(payload) ? TOOLS : CONVERSATION).getBytes(UTF_8);
+        request = objectMapper.readValue(body, CreateChatCompletionRequest.class);
+    }
+
+    @Benchmark
+    public CreateChatCompletionRequest deserialize() throws IOException {
+        return objectMapper.readValue(body, CreateChatCompletionRequest.class);
+    }
+
+    @Benchmark
+    public GenericChatRequest toGenericChatRequest() {
+        return mapper.toGenericChatRequest(request);
+    }
+}
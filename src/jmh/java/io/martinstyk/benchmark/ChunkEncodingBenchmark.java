@@ -0,0 +1,51 @@
+package io.martinstyk.benchmark;
+
+import io.martinstyk.model.FinishReason;
+import io.martinstyk.model.Usage;
+import io.martinstyk.streaming.ChatCompletionChunkWriter;
+import io.martinstyk.streaming.ChatCompletionEventEncoder;
+import io.micronaut.http.sse.Event;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Thread scope because a chunk writer belongs to a single stream
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChunkEncodingBenchmark {
+
+    private static final String TOKEN = " capital";
+    private static final String ESCAPED_TOKEN = "\"quoted\"\n\tline";
+
+    private ChatCompletionChunkWriter writer;
+    private Usage usage;
+
+    @Setup
+    public void setUp() {
+        writer =
+                new ChatCompletionEventEncoder()
+                        .newChunkWriter("chatcmpl-benchmark", 1700000000L, "gpt-5");
+        usage = new Usage(120, 48, 168);
+    }
+
+    @Benchmark
+    public Event<String> content() {
+        return writer.content(0, TOKEN);
+    }
+
+    @Benchmark
+    public Event<String> escapedContent() {
+        return writer.content(0, ESCAPED_TOKEN);
+    }
+
+    @Benchmark
+    public Event<String> finishWithUsage() {
+        return writer.write(0, null, null, FinishReason.STOP, usage);
+    }
+}
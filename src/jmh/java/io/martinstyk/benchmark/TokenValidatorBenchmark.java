@@ -0,0 +1,46 @@
+package io.martinstyk.benchmark;
+
+import io.martinstyk.config.ApiKeyCacheProperties;
+import io.martinstyk.security.OpenAiFormatTokenValidator;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.security.authentication.Authentication;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Mono;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenValidatorBenchmark {
+
+    private static final String KEY = "sk-proj-abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJ";
+    private static final String MALFORMED_KEY = "sk-proj-abc def@#$%123456789012345678901234567890";
+
+    private OpenAiFormatTokenValidator<HttpRequest<?>> validator;
+    private HttpRequest<?> request;
+
+    @Setup
+    public void setUp() {
+        validator = new OpenAiFormatTokenValidator<>(new ApiKeyCacheProperties(), null);
+        request =
+                HttpRequest.POST("/v1/chat/completions", "")
+                        .header("OpenAI-Organization", "org-benchmark")
+                        .header("OpenAI-Project", "proj-benchmark");
+    }
+
+    @Benchmark
+    public Authentication validateKnownKey() {
+        return Mono.from(validator.validateToken(KEY, request)).block();
+    }
+
+    @Benchmark
+    public Authentication rejectMalformedKey() {
+        return Mono.from(validator.validateToken(MALFORMED_KEY, request)).block();
+    }
+}
@@ -0,0 +1,147 @@
+package io.martinstyk.loadtest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator. Requests start on a fixed schedule whatever the gateway's response
+ * times, and latencies are measured from the scheduled start so that a stalled gateway shows up
+ * in the percentiles instead of slowing the generator down.
+ */
+public class LoadDriver {
+
+    private static final String CONTENT_DELTA = "\"delta\":{\"content\":";
+    private static final String DONE = "data: [DONE]";
+
+    private final URI uri;
+    private final String apiKey;
+    private final LoadTestOptions options;
+    private final byte[] body;
+    private final HttpClient client;
+
+    public LoadDriver(String gatewayUrl, String apiKey, LoadTestOptions options) {
+        this.uri = URI.create(gatewayUrl + "/v1/chat/completions");
+        this.apiKey = apiKey;
+        this.options = options;
+        this.body = requestBody(options).getBytes(UTF_8);
+        this.client =
+                HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                        .build();
+    }
+
+    public Result run(Duration duration) throws InterruptedException {
+        Result result = new Result();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.requestsPerSecond());
+        long durationNanos = duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; ; i++) {
+                long scheduled = start + i * intervalNanos;
+                if (scheduled - start >= durationNanos) {
+                    break;
+                }
+                long delay = scheduled - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                executor.execute(() -> send(scheduled, result));
+            }
+        }
+        return result;
+    }
+
+    private void send(long scheduled, Result result) {
+        HttpRequest request =
+                HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofMinutes(2))
+                        .header("Authorization", "Bearer " + apiKey)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build();
+        try {
+            HttpResponse<InputStream> response =
+                    client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream responseBody = response.body()) {
+                if (response.statusCode() != 200) {
+                    responseBody.transferTo(OutputStream.nullOutputStream());
+                    result.count(response.statusCode());
+                    return;
+                }
+                if (options.streaming()) {
+                    readStream(responseBody, scheduled, result);
+                } else {
+                    responseBody.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            result.count(response.statusCode());
+            result.latency.record(System.nanoTime() - scheduled);
+        } catch (IOException e) {
+            result.failures.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void readStream(InputStream responseBody, long scheduled, Result result)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(responseBody, UTF_8));
+        long previousToken = 0;
+        String line;
+        while ((line = reader.readLine()) != null && !line.equals(DONE)) {
+            if (!line.contains(CONTENT_DELTA)) {
+                continue;
+            }
+            long now = System.nanoTime();
+            if (previousToken == 0) {
+                result.timeToFirstToken.record(now - scheduled);
+            } else {
+                result.interTokenLatency.record(now - previousToken);
+            }
+            previousToken = now;
+        }
+    }
+
+    private static String requestBody(LoadTestOptions options) {
+        String prompt = "word ".repeat(options.promptWords()).trim();
+        return "{\"model\":\""
+                + options.model()
+                + "\",\"stream\":"
+                + options.streaming()
+                + ",\"messages\":[{\"role\":\"user\",\"content\":\""
+                + prompt
+                + "\"}]}";
+    }
+
+    public static class Result {
+        final LatencyRecorder latency = new LatencyRecorder();
+        final LatencyRecorder timeToFirstToken = new LatencyRecorder();
+        final LatencyRecorder interTokenLatency = new LatencyRecorder();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder failures = new LongAdder();
+
+        private void count(int status) {
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+    }
+}
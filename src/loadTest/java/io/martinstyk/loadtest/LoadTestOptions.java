@@ -0,0 +1,80 @@
+package io.martinstyk.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public record LoadTestOptions(
+        double requestsPerSecond,
+        Duration duration,
+        Duration warmUp,
+        boolean streaming,
+        String model,
+        int promptWords,
+        Duration upstreamLatency,
+        double tokensPerSecond,
+        int tokensPerChunk,
+        int completionTokens,
+        double errorRate,
+        double throttleRate) {
+
+    private static final Set<String> KNOWN_OPTIONS =
+            Set.of(
+                    "rate",
+                    "duration",
+                    "warm-up",
+                    "stream",
+                    "model",
+                    "prompt-words",
+                    "upstream-latency",
+                    "tokens-per-second",
+                    "tokens-per-chunk",
+                    "completion-tokens",
+                    "error-rate",
+                    "throttle-rate");
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options =
+                new LoadTestOptions(
+                        Double.parseDouble(values.getOrDefault("rate", "20")),
+                        duration(values.getOrDefault("duration", "60s")),
+                        duration(values.getOrDefault("warm-up", "10s")),
+                        Boolean.parseBoolean(values.getOrDefault("stream", "false")),
+                        values.getOrDefault("model", "gpt-5"),
+                        Integer.parseInt(values.getOrDefault("prompt-words", "200")),
+                        duration(values.getOrDefault("upstream-latency", "300ms")),
+                        Double.parseDouble(values.getOrDefault("tokens-per-second", "80")),
+                        Integer.parseInt(values.getOrDefault("tokens-per-chunk", "1")),
+                        Integer.parseInt(values.getOrDefault("completion-tokens", "150")),
+                        Double.parseDouble(values.getOrDefault("error-rate", "0")),
+                        Double.parseDouble(values.getOrDefault("throttle-rate", "0")));
+        values.keySet().removeAll(KNOWN_OPTIONS);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet());
+        }
+        return options;
+    }
+
+    // Accepts the same 500ms, 30s and 2m forms as the gateway configuration
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + value);
+        };
+    }
+}
@@ -0,0 +1,165 @@
+package io.martinstyk.loadtest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for the OCI Generative AI inference API that answers chat calls with a configurable
+ * time to first token, token rate, chunk size and share of 429 and 500 responses.
+ */
+public class MockOciServer implements AutoCloseable {
+
+    private static final String CHAT_PATH = "/actions/chat";
+    private static final String TOKEN = "lorem ";
+
+    private final LoadTestOptions options;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public MockOciServer(LoadTestOptions options) throws IOException {
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())
+                    || !exchange.getRequestURI().getPath().endsWith(CHAT_PATH)) {
+                exchange.sendResponseHeaders(
+                        "HEAD".equals(exchange.getRequestMethod()) ? 200 : 404, -1);
+                return;
+            }
+
+            String body;
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                body = new String(requestBody.readAllBytes(), UTF_8);
+            }
+
+            double outcome = ThreadLocalRandom.current().nextDouble();
+            if (outcome < options.throttleRate()) {
+                sendError(exchange, 429, "TooManyRequests", "Request was throttled");
+                return;
+            }
+            if (outcome < options.throttleRate() + options.errorRate()) {
+                sendError(exchange, 500, "InternalServerError", "Injected failure");
+                return;
+            }
+
+            sleep(options.upstreamLatency());
+            if (body.contains("\"isStream\":true")) {
+                stream(exchange);
+            } else {
+                complete(exchange);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void complete(HttpExchange exchange) throws IOException, InterruptedException {
+        sleep(tokenTime(options.completionTokens()));
+        String text = TOKEN.repeat(options.completionTokens());
+        byte[] response =
+                ("{\"modelId\":\"openai.mock\",\"modelVersion\":\"1\",\"chatResponse\":{"
+                                + "\"apiFormat\":\"GENERIC\",\"timeCreated\":\""
+                                + Instant.now()
+                                + "\",\"choices\":[{\"index\":0,\"message\":{\"role\":"
+                                + "\"ASSISTANT\",\"content\":[{\"type\":\"TEXT\",\"text\":\""
+                                + text
+                                + "\"}]},\"finishReason\":\"stop\"}],"
+                                + usage()
+                                + "}}")
+                        .getBytes(UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private void stream(HttpExchange exchange) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            int sent = 0;
+            while (sent < options.completionTokens()) {
+                int tokens = Math.min(options.tokensPerChunk(), options.completionTokens() - sent);
+                if (sent > 0) {
+                    sleep(tokenTime(tokens));
+                }
+                write(
+                        out,
+                        "{\"index\":0,\"message\":{\"role\":\"ASSISTANT\",\"content\":"
+                                + "[{\"type\":\"TEXT\",\"text\":\""
+                                + TOKEN.repeat(tokens)
+                                + "\"}]}}");
+                sent += tokens;
+            }
+            write(out, "{\"index\":0,\"finishReason\":\"stop\"}");
+            write(out, "{" + usage() + "}");
+        }
+    }
+
+    private String usage() {
+        return "\"usage\":{\"promptTokens\":"
+                + options.promptWords()
+                + ",\"completionTokens\":"
+                + options.completionTokens()
+                + ",\"totalTokens\":"
+                + (options.promptWords() + options.completionTokens())
+                + "}";
+    }
+
+    private Duration tokenTime(int tokens) {
+        return Duration.ofNanos((long) (tokens * 1_000_000_000L / options.tokensPerSecond()));
+    }
+
+    private static void write(OutputStream out, String event) throws IOException {
+        out.write(("data: " + event + "\n\n").getBytes(UTF_8));
+        out.flush();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code, String message)
+            throws IOException {
+        byte[] response =
+                ("{\"code\":\"" + code + "\",\"message\":\"" + message + "\"}").getBytes(UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static void sleep(Duration duration) throws InterruptedException {
+        if (!duration.isZero()) {
+            Thread.sleep(duration);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package io.martinstyk.batch;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+/** One request of a batch input file. */
+@Serdeable
+public record BatchInputLine(
+        @JsonProperty("custom_id") @Nullable String customId,
+        @JsonProperty("method") @Nullable String method,
+        @JsonProperty("url") @Nullable String url,
+        @JsonProperty("body") @Nullable CreateChatCompletionRequest body) {}
@@ -0,0 +1,72 @@
+package io.martinstyk.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** Buffered JSON lines file that is only forced to disk at checkpoints. */
+final class BatchOutput implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte NEWLINE = '\n';
+
+    private final FileChannel channel;
+    private final OutputStream out;
+
+    BatchOutput(Path file) throws IOException {
+        this.channel =
+                FileChannel.open(
+                        file,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        dropTornLine(channel);
+        channel.position(channel.size());
+        this.out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+    }
+
+    void write(byte[] line) throws IOException {
+        out.write(line);
+        out.write(NEWLINE);
+    }
+
+    /** Flushes and syncs everything written so far, returning the size of the file. */
+    long checkpoint() throws IOException {
+        out.flush();
+        channel.force(false);
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        checkpoint();
+        out.close();
+    }
+
+    /** Cuts off a last line that a crash left without its newline. */
+    private static void dropTornLine(FileChannel channel) throws IOException {
+        long end = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()
+                    && channel.read(buffer, start + buffer.position()) >= 0) {
+                // Positional reads may return fewer bytes than asked for
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == NEWLINE) {
+                    channel.truncate(start + i + 1);
+                    return;
+                }
+            }
+            end = start;
+        }
+        channel.truncate(0);
+    }
+}
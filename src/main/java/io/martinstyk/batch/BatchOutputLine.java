@@ -0,0 +1,53 @@
+package io.martinstyk.batch;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * One line of a batch output or error file. The id ends with the line number of the request in
+ * the input file, which is how a resumed batch knows what has already run.
+ */
+@Serdeable
+public record BatchOutputLine(
+        @JsonProperty("id") String id,
+        @JsonProperty("custom_id") @Nullable String customId,
+        @JsonProperty("response") @Nullable Response response,
+        @JsonProperty("error") @Nullable Failure error) {
+
+    private static final String ID_PREFIX = "batch_req_";
+
+    static BatchOutputLine success(
+            long line, @Nullable String customId, CreateChatCompletionResponse body) {
+        return new BatchOutputLine(
+                ID_PREFIX + line, customId, new Response(200, body.getId(), body), null);
+    }
+
+    static BatchOutputLine failure(
+            long line, @Nullable String customId, String code, String message) {
+        return new BatchOutputLine(ID_PREFIX + line, customId, null, new Failure(code, message));
+    }
+
+    /** The input line number, or -1 for an id that was not written by this gateway. */
+    long line() {
+        if (id == null || !id.startsWith(ID_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id, ID_PREFIX.length(), id.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Serdeable
+    public record Response(
+            @JsonProperty("status_code") int statusCode,
+            @JsonProperty("request_id") @Nullable String requestId,
+            @JsonProperty("body") CreateChatCompletionResponse body) {}
+
+    @Serdeable
+    public record Failure(
+            @JsonProperty("code") String code, @JsonProperty("message") String message) {}
+}
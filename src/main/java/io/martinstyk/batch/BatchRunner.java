@@ -0,0 +1,423 @@
+package io.martinstyk.batch;
+
+import io.martinstyk.config.BatchProperties;
+import io.martinstyk.config.RequestLimitProperties;
+import io.martinstyk.limit.ConcurrencyLimitExceededException;
+import io.martinstyk.limit.RequestTooLargeException;
+import io.martinstyk.model.Batch;
+import io.martinstyk.model.BatchRequestCounts;
+import io.martinstyk.model.BatchStatus;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.model.FileObject;
+import io.martinstyk.model.ServiceTier;
+import io.martinstyk.ratelimit.RateLimitDecision;
+import io.martinstyk.ratelimit.RateLimitExceededException;
+import io.martinstyk.ratelimit.RateLimiter;
+import io.martinstyk.service.ChatCompletion;
+import io.martinstyk.service.UnrecognizedModelException;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.type.Argument;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.validation.validator.Validator;
+import jakarta.inject.Singleton;
+import jakarta.validation.ConstraintViolation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
+
+/**
+ * Runs batches in the background. Each batch streams its input file through the chat completion
+ * service with bounded parallelism and appends every result to its output or error file as soon
+ * as it arrives. Progress is checkpointed periodically, and a batch interrupted by a restart
+ * resumes with the lines that are not in its output yet.
+ */
+@Singleton
+@Requires(property = "genai.batch.enabled", value = "true")
+public class BatchRunner implements ApplicationEventListener<StartupEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchRunner.class);
+
+    private static final Argument<BatchInputLine> INPUT_TYPE = Argument.of(BatchInputLine.class);
+    private static final Argument<BatchOutputLine> OUTPUT_TYPE =
+            Argument.of(BatchOutputLine.class);
+    private static final String OUTPUT_PURPOSE = "batch_output";
+    private static final String METHOD = "POST";
+
+    // A batch waits out a full upstream queue instead of failing the line
+    private static final int MAX_RETRIES = 10;
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final BatchStore store;
+    private final ChatCompletion chatCompletion;
+    private final RateLimiter rateLimiter;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final long maxPromptTokens;
+    private final int parallelism;
+    private final long checkpointIntervalNanos;
+    private final Sinks.Many<String> submitted = Sinks.many().unicast().onBackpressureBuffer();
+
+    public BatchRunner(
+            BatchProperties properties,
+            RequestLimitProperties requestLimitProperties,
+            BatchStore store,
+            ChatCompletion chatCompletion,
+            RateLimiter rateLimiter,
+            Validator validator,
+            JsonMapper jsonMapper) {
+        this.store = store;
+        this.chatCompletion = chatCompletion;
+        this.rateLimiter = rateLimiter;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.maxPromptTokens = requestLimitProperties.getMaxPromptTokens();
+        this.parallelism = properties.getParallelism();
+        this.checkpointIntervalNanos = properties.getCheckpointInterval().toNanos();
+        // Every batch blocks a thread while it writes its results, so they run off the event loop
+        submitted
+                .asFlux()
+                .flatMap(
+                        batchId ->
+                                Mono.fromRunnable(() -> run(batchId))
+                                        .subscribeOn(Schedulers.boundedElastic())
+                                        .onErrorResume(
+                                                error -> {
+                                                    logger.warn(
+                                                            "Batch {} stopped", batchId, error);
+                                                    return Mono.empty();
+                                                }),
+                        properties.getMaxRunningBatches())
+                .subscribe();
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        for (StoredBatch batch : store.getBatches()) {
+            if (!batch.batch().getStatus().isTerminal()) {
+                logger.info("Resuming batch {}", batch.batch().getId());
+                submit(batch.batch().getId());
+            }
+        }
+    }
+
+    public void submit(String batchId) {
+        submitted.emitNext(batchId, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+    }
+
+    void run(String batchId) {
+        StoredBatch batch = store.findBatch(batchId);
+        try {
+            if (batch.batch().getStatus() == BatchStatus.VALIDATING) {
+                batch = start(batch);
+            }
+            if (batch.batch().getStatus() == BatchStatus.IN_PROGRESS) {
+                process(batch);
+            }
+            store.update(batchId, BatchRunner::finish);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Batch {} failed", batchId, e);
+            try {
+                store.update(
+                        batchId,
+                        failed -> {
+                            failed.setStatus(BatchStatus.FAILED);
+                            failed.setFailedAt(now());
+                        });
+            } catch (IOException suppressed) {
+                logger.warn("Failed to mark batch {} as failed", batchId, suppressed);
+            }
+        }
+    }
+
+    private StoredBatch start(StoredBatch batch) throws IOException {
+        Batch pending = batch.batch();
+        long total;
+        try (Stream<String> lines = Files.lines(store.getContent(pending.getInputFileId()))) {
+            total = lines.filter(line -> !line.isBlank()).count();
+        }
+        // The result files exist from the start so that clients can read them during the run
+        FileObject output = newOutputFile(pending, "output");
+        FileObject errors = newOutputFile(pending, "errors");
+        store.saveFile(output, batch.owner());
+        store.saveFile(errors, batch.owner());
+        return store.update(
+                pending.getId(),
+                started -> {
+                    started.setOutputFileId(output.id());
+                    started.setErrorFileId(errors.id());
+                    started.setRequestCounts(new BatchRequestCounts(total, 0, 0));
+                    // A batch cancelled before it started is only finished
+                    if (started.getStatus() == BatchStatus.VALIDATING) {
+                        started.setStatus(BatchStatus.IN_PROGRESS);
+                        started.setInProgressAt(now());
+                    }
+                });
+    }
+
+    private void process(StoredBatch batch) throws IOException {
+        String batchId = batch.batch().getId();
+        Path outputPath = store.getContent(batch.batch().getOutputFileId());
+        Path errorsPath = store.getContent(batch.batch().getErrorFileId());
+        try (BatchOutput output = new BatchOutput(outputPath);
+                BatchOutput errors = new BatchOutput(errorsPath)) {
+            BitSet done = new BitSet();
+            long completed = resume(outputPath, done);
+            long failed = resume(errorsPath, done);
+
+            Path inputPath = store.getContent(batch.batch().getInputFileId());
+            Authentication owner = batch.authentication();
+            Flux<BatchResult> results =
+                    Flux.using(() -> Files.lines(inputPath), Flux::fromStream, Stream::close)
+                            .filter(line -> !line.isBlank())
+                            .index()
+                            .filter(line -> !done.get(Math.toIntExact(line.getT1())))
+                            .takeWhile(line -> !isCancelling(batchId))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .flatMap(line -> execute(batch, owner, line), parallelism);
+
+            long lastCheckpoint = System.nanoTime();
+            // Results are consumed on this thread, so the files are only ever written by it.
+            // Closing the stream cancels the requests still running if a write fails.
+            try (Stream<BatchResult> stream = results.toStream(parallelism)) {
+                for (BatchResult result : (Iterable<BatchResult>) stream::iterator) {
+                    if (result.failed()) {
+                        errors.write(result.json());
+                        failed++;
+                    } else {
+                        output.write(result.json());
+                        completed++;
+                    }
+                    if (System.nanoTime() - lastCheckpoint >= checkpointIntervalNanos) {
+                        checkpoint(batch, output, errors, completed, failed);
+                        lastCheckpoint = System.nanoTime();
+                    }
+                }
+            }
+            checkpoint(batch, output, errors, completed, failed);
+        }
+    }
+
+    private Mono<BatchResult> execute(
+            StoredBatch batch, @Nullable Authentication owner, Tuple2<Long, String> line) {
+        long index = line.getT1();
+        BatchInputLine input;
+        try {
+            input = jsonMapper.readValue(line.getT2(), INPUT_TYPE);
+        } catch (IOException | RuntimeException e) {
+            return Mono.just(
+                    failure(index, null, "invalid_request", String.valueOf(e.getMessage())));
+        }
+
+        String invalid = validate(batch, input);
+        if (invalid != null) {
+            return Mono.just(failure(index, input.customId(), "invalid_request", invalid));
+        }
+        CreateChatCompletionRequest request = input.body();
+        if (!batch.isModelAllowed(request.getModel())) {
+            return Mono.just(
+                    failure(
+                            index,
+                            input.customId(),
+                            "model_not_found",
+                            "The model " + request.getModel() + " is not allowed for this key"));
+        }
+        long promptTokens = RateLimiter.estimatePromptTokens(request);
+        if (promptTokens > maxPromptTokens) {
+            return Mono.just(
+                    failure(
+                            index,
+                            input.customId(),
+                            "request_too_large",
+                            new RequestTooLargeException(promptTokens, maxPromptTokens)
+                                    .getMessage()));
+        }
+        // Batch work waits behind interactive requests unless a line asks for a tier
+        request.setStream(false);
+        if (request.getServiceTier() == null || request.getServiceTier() == ServiceTier.AUTO) {
+            request.setServiceTier(ServiceTier.FLEX);
+        }
+
+        return acquire(owner, request)
+                .flatMap(rateLimit -> call(request, rateLimit))
+                .map(
+                        response ->
+                                result(
+                                        false,
+                                        BatchOutputLine.success(
+                                                index, input.customId(), response)))
+                .onErrorResume(
+                        error ->
+                                Mono.just(
+                                        failure(
+                                                index,
+                                                input.customId(),
+                                                errorCode(error),
+                                                String.valueOf(error.getMessage()))));
+    }
+
+    private Mono<CreateChatCompletionResponse> call(
+            CreateChatCompletionRequest request, RateLimitDecision rateLimit) {
+        return chatCompletion
+                .processChatCompletion(request)
+                .retryWhen(
+                        Retry.backoff(MAX_RETRIES, MIN_BACKOFF)
+                                .maxBackoff(MAX_BACKOFF)
+                                .filter(ConcurrencyLimitExceededException.class::isInstance)
+                                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnNext(response -> rateLimiter.reconcile(rateLimit, response.getUsage()));
+    }
+
+    /** Charges a line to the owner's rate limits, waiting until it fits like a client would. */
+    private Mono<RateLimitDecision> acquire(
+            @Nullable Authentication owner, CreateChatCompletionRequest request) {
+        return Mono.defer(
+                        () -> {
+                            RateLimitDecision decision = rateLimiter.tryAcquire(owner, request);
+                            return decision.allowed()
+                                    ? Mono.just(decision)
+                                    : Mono.error(new RateLimitExceededException(decision));
+                        })
+                .retryWhen(
+                        Retry.from(
+                                signals ->
+                                        signals.concatMap(
+                                                signal -> waitForBudget(signal.failure()))));
+    }
+
+    private static Mono<Long> waitForBudget(Throwable error) {
+        // A line larger than the whole budget would never fit, so it fails instead
+        if (error instanceof RateLimitExceededException e
+                && e.getDecision().retryAfterNanos() >= 0) {
+            return Mono.delay(Duration.ofNanos(e.getDecision().retryAfterNanos()));
+        }
+        return Mono.error(error);
+    }
+
+    private String validate(StoredBatch batch, BatchInputLine input) {
+        if (!METHOD.equals(input.method())) {
+            return "Only the " + METHOD + " method is supported";
+        }
+        if (!batch.batch().getEndpoint().equals(input.url())) {
+            return "The url must match the batch endpoint " + batch.batch().getEndpoint();
+        }
+        if (input.body() == null) {
+            return "The body cannot be empty";
+        }
+        Set<ConstraintViolation<CreateChatCompletionRequest>> violations =
+                validator.validate(input.body());
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        return null;
+    }
+
+    /** Marks the lines already in a result file as done and returns how many there are. */
+    private long resume(Path file, BitSet done) throws IOException {
+        long count = 0;
+        try (Stream<String> lines = Files.lines(file)) {
+            for (String line : (Iterable<String>) lines::iterator) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                long index = jsonMapper.readValue(line, OUTPUT_TYPE).line();
+                if (index >= 0) {
+                    done.set(Math.toIntExact(index));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void checkpoint(
+            StoredBatch batch,
+            BatchOutput output,
+            BatchOutput errors,
+            long completed,
+            long failed)
+            throws IOException {
+        long outputBytes = output.checkpoint();
+        long errorBytes = errors.checkpoint();
+        StoredFile outputFile = store.findFile(batch.batch().getOutputFileId());
+        StoredFile errorFile = store.findFile(batch.batch().getErrorFileId());
+        store.saveFile(outputFile.file().withBytes(outputBytes), outputFile.owner());
+        store.saveFile(errorFile.file().withBytes(errorBytes), errorFile.owner());
+        store.update(
+                batch.batch().getId(),
+                updated ->
+                        updated.setRequestCounts(
+                                new BatchRequestCounts(
+                                        updated.getRequestCounts().total(), completed, failed)));
+    }
+
+    private boolean isCancelling(String batchId) {
+        StoredBatch batch = store.findBatch(batchId);
+        return batch != null && batch.batch().getStatus() == BatchStatus.CANCELLING;
+    }
+
+    private BatchResult failure(long index, String customId, String code, String message) {
+        return result(true, BatchOutputLine.failure(index, customId, code, message));
+    }
+
+    private BatchResult result(boolean failed, BatchOutputLine line) {
+        try {
+            return new BatchResult(failed, jsonMapper.writeValueAsBytes(line));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FileObject newOutputFile(Batch batch, String suffix) {
+        return store.newFile(batch.getId() + "_" + suffix + ".jsonl", OUTPUT_PURPOSE);
+    }
+
+    private static void finish(Batch batch) {
+        if (batch.getStatus() == BatchStatus.CANCELLING) {
+            batch.setStatus(BatchStatus.CANCELLED);
+            batch.setCancelledAt(now());
+        } else if (!batch.getStatus().isTerminal()) {
+            batch.setStatus(BatchStatus.COMPLETED);
+            batch.setCompletedAt(now());
+        }
+    }
+
+    private static String errorCode(Throwable error) {
+        if (error instanceof ConcurrencyLimitExceededException
+                || error instanceof RateLimitExceededException) {
+            return "rate_limit_exceeded";
+        }
+        if (error instanceof UnrecognizedModelException) {
+            return "model_not_found";
+        }
+        return "server_error";
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private record BatchResult(boolean failed, byte[] json) {}
+}
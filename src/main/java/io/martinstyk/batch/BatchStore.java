@@ -0,0 +1,166 @@
+package io.martinstyk.batch;
+
+import io.martinstyk.config.BatchProperties;
+import io.martinstyk.model.Batch;
+import io.martinstyk.model.FileObject;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.type.Argument;
+import io.micronaut.json.JsonMapper;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps files and batches on the local disk. File contents are stored next to their metadata, and
+ * metadata is replaced atomically so that a crash never leaves a half written document behind.
+ */
+@Singleton
+@Requires(property = "genai.batch.enabled", value = "true")
+public class BatchStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchStore.class);
+
+    private static final Argument<StoredFile> FILE_TYPE = Argument.of(StoredFile.class);
+    private static final Argument<StoredBatch> BATCH_TYPE = Argument.of(StoredBatch.class);
+    private static final String FILE_ID_PREFIX = "file-";
+    private static final String BATCH_ID_PREFIX = "batch_";
+    private static final String CONTENT_SUFFIX = ".jsonl";
+    private static final String METADATA_SUFFIX = ".json";
+
+    private final JsonMapper jsonMapper;
+    private final Path filesDirectory;
+    private final Path batchesDirectory;
+    private final Map<String, StoredFile> files = new ConcurrentHashMap<>();
+    private final Map<String, StoredBatch> batches = new ConcurrentHashMap<>();
+
+    public BatchStore(BatchProperties properties, JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        Path directory = Path.of(properties.getDirectory());
+        this.filesDirectory = directory.resolve("files");
+        this.batchesDirectory = directory.resolve("batches");
+        try {
+            Files.createDirectories(filesDirectory);
+            Files.createDirectories(batchesDirectory);
+            load(filesDirectory, FILE_TYPE, file -> files.put(file.file().id(), file));
+            load(batchesDirectory, BATCH_TYPE, batch -> batches.put(batch.batch().getId(), batch));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the batch directory " + directory, e);
+        }
+    }
+
+    /** Creates the metadata of a new file, which is only stored once its content is written. */
+    public FileObject newFile(String filename, String purpose) {
+        return new FileObject(
+                FILE_ID_PREFIX + randomId(),
+                FileObject.OBJECT,
+                0,
+                System.currentTimeMillis() / 1000,
+                filename,
+                purpose);
+    }
+
+    public String newBatchId() {
+        return BATCH_ID_PREFIX + randomId();
+    }
+
+    public Path getContent(String fileId) {
+        return filesDirectory.resolve(fileId + CONTENT_SUFFIX);
+    }
+
+    public @Nullable StoredFile findFile(String fileId) {
+        return files.get(fileId);
+    }
+
+    public @Nullable StoredBatch findBatch(String batchId) {
+        return batches.get(batchId);
+    }
+
+    public List<StoredBatch> getBatches() {
+        return List.copyOf(batches.values());
+    }
+
+    public synchronized StoredFile saveFile(FileObject file, @Nullable String owner)
+            throws IOException {
+        StoredFile stored = new StoredFile(file, owner);
+        write(
+                filesDirectory.resolve(file.id() + METADATA_SUFFIX),
+                jsonMapper.writeValueAsBytes(stored));
+        files.put(file.id(), stored);
+        return stored;
+    }
+
+    public synchronized StoredBatch saveBatch(StoredBatch batch) throws IOException {
+        byte[] json = jsonMapper.writeValueAsBytes(batch);
+        write(batchesDirectory.resolve(batch.batch().getId() + METADATA_SUFFIX), json);
+        // Callers only ever see a copy, so a batch is never changed while it is being serialized
+        StoredBatch snapshot = jsonMapper.readValue(json, BATCH_TYPE);
+        batches.put(batch.batch().getId(), snapshot);
+        return snapshot;
+    }
+
+    /** Applies the change to a copy of the batch and stores the result. */
+    public synchronized StoredBatch update(String batchId, Consumer<Batch> change)
+            throws IOException {
+        StoredBatch current = batches.get(batchId);
+        if (current == null) {
+            throw new IllegalArgumentException("Unknown batch " + batchId);
+        }
+        StoredBatch copy = jsonMapper.readValue(jsonMapper.writeValueAsBytes(current), BATCH_TYPE);
+        change.accept(copy.batch());
+        return saveBatch(copy);
+    }
+
+    private <T> void load(Path directory, Argument<T> type, Consumer<T> loaded)
+            throws IOException {
+        try (DirectoryStream<Path> paths =
+                Files.newDirectoryStream(directory, "*" + METADATA_SUFFIX)) {
+            for (Path path : paths) {
+                try {
+                    loaded.accept(jsonMapper.readValue(Files.readAllBytes(path), type));
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable batch metadata {}", path, e);
+                }
+            }
+        }
+    }
+
+    private static void write(Path path, byte[] content) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel =
+                FileChannel.open(
+                        temporary,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(
+                temporary,
+                path,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String randomId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
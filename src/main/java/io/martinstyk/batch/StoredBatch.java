@@ -0,0 +1,34 @@
+package io.martinstyk.batch;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.martinstyk.model.Batch;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A batch together with the key that created it. The models the key was allowed to use and the
+ * attributes its rate limits are keyed by are kept, so that they still apply when the batch runs
+ * without a request.
+ */
+@Serdeable
+public record StoredBatch(
+        @JsonProperty("batch") Batch batch,
+        @JsonProperty("owner") @Nullable String owner,
+        @JsonProperty("allowed_models") @Nullable Set<String> allowedModels,
+        @JsonProperty("owner_attributes") @Nullable Map<String, String> ownerAttributes) {
+
+    boolean isModelAllowed(String model) {
+        return allowedModels == null || allowedModels.contains(model);
+    }
+
+    /** The key that created the batch, for charging its lines to the key's rate limits. */
+    @Nullable Authentication authentication() {
+        if (owner == null || ownerAttributes == null) {
+            return null;
+        }
+        return Authentication.build(owner, Map.<String, Object>copyOf(ownerAttributes));
+    }
+}
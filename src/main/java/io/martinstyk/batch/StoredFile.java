@@ -0,0 +1,11 @@
+package io.martinstyk.batch;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.martinstyk.model.FileObject;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+/** Metadata of an uploaded or generated file together with the key that owns it. */
+@Serdeable
+public record StoredFile(
+        @JsonProperty("file") FileObject file, @JsonProperty("owner") @Nullable String owner) {}
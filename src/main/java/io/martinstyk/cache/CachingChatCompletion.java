@@ -0,0 +1,47 @@
+package io.martinstyk.cache;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.service.ChatCompletion;
+import io.micronaut.http.sse.Event;
+import java.time.Instant;
+import java.util.UUID;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+public class CachingChatCompletion implements ChatCompletion {
+
+    private final ChatCompletion delegate;
+    private final ChatCompletionResponseCache cache;
+
+    public CachingChatCompletion(ChatCompletion delegate, ChatCompletionResponseCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Mono<CreateChatCompletionResponse> processChatCompletion(
+            CreateChatCompletionRequest request) {
+        if (Boolean.TRUE.equals(request.getStream())
+                || !RequestFingerprint.isDeterministic(request)) {
+            return delegate.processChatCompletion(request);
+        }
+
+        String key = RequestFingerprint.of(request);
+        CreateChatCompletionResponse cached = cache.get(key);
+        if (cached != null) {
+            // Every hit is a completion of its own, like an upstream call would be
+            cached.setId("chatcmpl-" + UUID.randomUUID());
+            cached.setCreated(Instant.now().getEpochSecond());
+            return Mono.just(cached);
+        }
+        return delegate.processChatCompletion(request)
+                .doOnNext(response -> cache.put(key, response));
+    }
+
+    @Override
+    public Publisher<Event<String>> processStreamingChatCompletion(
+            CreateChatCompletionRequest request) {
+        return delegate.processStreamingChatCompletion(request);
+    }
+}
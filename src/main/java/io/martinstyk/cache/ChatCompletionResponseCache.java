@@ -0,0 +1,77 @@
+package io.martinstyk.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.martinstyk.config.ResponseCacheProperties;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.type.Argument;
+import io.micronaut.json.JsonMapper;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps responses as JSON, so every hit decodes a response of its own and nothing a caller does
+ * to it reaches the cached entry.
+ */
+@Singleton
+@Requires(property = "genai.cache.enabled", value = "true")
+public class ChatCompletionResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatCompletionResponseCache.class);
+
+    private static final Argument<CreateChatCompletionResponse> RESPONSE_TYPE =
+            Argument.of(CreateChatCompletionResponse.class);
+
+    private final JsonMapper jsonMapper;
+    private final Cache<String, byte[]> cache;
+
+    public ChatCompletionResponseCache(ResponseCacheProperties properties, JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        this.cache =
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumSize())
+                        .expireAfterWrite(properties.getExpireAfterWrite())
+                        .recordStats()
+                        .build();
+    }
+
+    public @Nullable CreateChatCompletionResponse get(String key) {
+        byte[] json = cache.getIfPresent(key);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return jsonMapper.readValue(json, RESPONSE_TYPE);
+        } catch (IOException e) {
+            logger.warn("Dropping a cached response that could not be read", e);
+            cache.invalidate(key);
+            return null;
+        }
+    }
+
+    public void put(String key, CreateChatCompletionResponse response) {
+        try {
+            cache.put(key, jsonMapper.writeValueAsBytes(response));
+        } catch (IOException e) {
+            // The response is still returned, it is only not cached
+            logger.warn("Failed to cache a chat completion response", e);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
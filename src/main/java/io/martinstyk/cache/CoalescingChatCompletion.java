@@ -0,0 +1,85 @@
+package io.martinstyk.cache;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.service.ChatCompletion;
+import io.micronaut.http.sse.Event;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shares one upstream call between concurrent identical deterministic requests.
+ *
+ * <p>The shared call runs in the Reactor context of the request that started it, so coalesced
+ * requests are attributed to that leader: the upstream latency, token usage and trace spans of
+ * the call are recorded against the leader's metrics and trace only. Each follower still records
+ * its own request duration and outcome. A streaming follower is charged just its rate limit
+ * estimate, since it causes no upstream tokens of its own.
+ */
+public class CoalescingChatCompletion implements ChatCompletion {
+
+    private final ChatCompletion delegate;
+    private final Map<String, Mono<CreateChatCompletionResponse>> inFlightCompletions =
+            new ConcurrentHashMap<>();
+    private final Map<String, Flux<Event<String>>> inFlightStreams = new ConcurrentHashMap<>();
+
+    public CoalescingChatCompletion(ChatCompletion delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<CreateChatCompletionResponse> processChatCompletion(
+            CreateChatCompletionRequest request) {
+        if (!RequestFingerprint.isDeterministic(request)) {
+            return delegate.processChatCompletion(request);
+        }
+
+        String key = RequestFingerprint.of(request);
+        return Mono.defer(
+                () -> inFlightCompletions.computeIfAbsent(key, k -> sharedCompletion(k, request)));
+    }
+
+    @Override
+    public Publisher<Event<String>> processStreamingChatCompletion(
+            CreateChatCompletionRequest request) {
+        if (!RequestFingerprint.isDeterministic(request)) {
+            return delegate.processStreamingChatCompletion(request);
+        }
+
+        String key = RequestFingerprint.of(request);
+        return Flux.defer(
+                () -> inFlightStreams.computeIfAbsent(key, k -> sharedStream(k, request)));
+    }
+
+    private Mono<CreateChatCompletionResponse> sharedCompletion(
+            String key, CreateChatCompletionRequest request) {
+        AtomicReference<Mono<CreateChatCompletionResponse>> self = new AtomicReference<>();
+        Mono<CreateChatCompletionResponse> shared =
+                delegate.processChatCompletion(request)
+                        .doFinally(signal -> inFlightCompletions.remove(key, self.get()))
+                        .flux()
+                        // refCount() cancels the upstream call once the last waiting client is
+                        // gone, which share() never does
+                        .replay(1)
+                        .refCount()
+                        .singleOrEmpty();
+        self.set(shared);
+        return shared;
+    }
+
+    private Flux<Event<String>> sharedStream(String key, CreateChatCompletionRequest request) {
+        AtomicReference<Flux<Event<String>>> self = new AtomicReference<>();
+        // replay() keeps the chunks emitted so far, so late joiners start from the first token
+        Flux<Event<String>> shared =
+                Flux.from(delegate.processStreamingChatCompletion(request))
+                        .doFinally(signal -> inFlightStreams.remove(key, self.get()))
+                        .replay()
+                        .refCount();
+        self.set(shared);
+        return shared;
+    }
+}
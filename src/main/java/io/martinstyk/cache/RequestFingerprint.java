@@ -0,0 +1,137 @@
+package io.martinstyk.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.StreamOptions;
+import io.martinstyk.model.message.ChatCompletionRequestMessage;
+import io.martinstyk.model.tools.FunctionTool;
+import io.martinstyk.model.tools.Tool;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+public final class RequestFingerprint {
+
+    private static final byte NULL_MARKER = 0;
+    private static final byte VALUE_MARKER = 1;
+    private static final byte LIST_MARKER = 2;
+    private static final byte MAP_MARKER = 3;
+
+    private RequestFingerprint() {}
+
+    public static boolean isDeterministic(CreateChatCompletionRequest request) {
+        if (request.getN() != null && request.getN() != 1) {
+            return false;
+        }
+        Double temperature = request.getTemperature();
+        return (temperature != null && temperature == 0.0) || request.getSeed() != null;
+    }
+
+    /**
+     * Hashes every field that shapes the response. The service tier is left out, as it only
+     * decides how the request is scheduled.
+     */
+    public static String of(CreateChatCompletionRequest request) {
+        MessageDigest digest = newDigest();
+        update(digest, request.getModel());
+        update(digest, request.getStream());
+
+        List<ChatCompletionRequestMessage> messages = request.getMessages();
+        update(digest, messages.size());
+        for (ChatCompletionRequestMessage message : messages) {
+            update(digest, message.getRole().toLowerCase(Locale.ROOT));
+            update(digest, message.getContent());
+        }
+
+        update(digest, normalize(request.getTemperature()));
+        update(digest, normalize(request.getTopP()));
+        update(digest, normalize(request.getFrequencyPenalty()));
+        update(digest, normalize(request.getPresencePenalty()));
+        update(digest, request.getMaxCompletionTokens());
+        update(digest, request.getN());
+        update(digest, request.getSeed());
+        update(digest, request.getLogprobs());
+        update(digest, request.getToolChoice());
+        update(digest, request.getStop());
+        update(digest, request.getTruncation());
+        StreamOptions streamOptions = request.getStreamOptions();
+        update(digest, streamOptions == null ? null : streamOptions.getIncludeObfuscation());
+
+        List<Tool> tools = request.getTools();
+        update(digest, tools == null ? null : tools.size());
+        if (tools != null) {
+            for (Tool tool : tools) {
+                update(digest, tool.getType());
+                if (tool instanceof FunctionTool functionTool) {
+                    update(digest, functionTool.getName());
+                    update(digest, functionTool.getDescription());
+                    update(digest, functionTool.isStrict());
+                    update(digest, functionTool.getParameters());
+                }
+            }
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static Double normalize(Double value) {
+        // -0.0 and 0.0 describe the same sampling setting
+        return value != null && value == 0.0 ? Double.valueOf(0.0) : value;
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        if (value == null) {
+            digest.update(NULL_MARKER);
+            return;
+        }
+
+        // Lists and maps are hashed element by element, since their text forms are ambiguous
+        if (value instanceof Collection<?> elements) {
+            digest.update(LIST_MARKER);
+            updateLength(digest, elements.size());
+            for (Object element : elements) {
+                update(digest, element);
+            }
+            return;
+        }
+        if (value instanceof Map<?, ?> map) {
+            // Keys in sorted order, so the same JSON object hashes the same in any key order
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((key, entry) -> sorted.put(String.valueOf(key), entry));
+            digest.update(MAP_MARKER);
+            updateLength(digest, sorted.size());
+            sorted.forEach(
+                    (key, entry) -> {
+                        update(digest, key);
+                        update(digest, entry);
+                    });
+            return;
+        }
+
+        byte[] bytes = String.valueOf(value).getBytes(UTF_8);
+        digest.update(VALUE_MARKER);
+        updateLength(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void updateLength(MessageDigest digest, int length) {
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
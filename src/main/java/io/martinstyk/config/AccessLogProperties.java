@@ -0,0 +1,55 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+@ConfigurationProperties("genai.access-log")
+@Validated
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    @DecimalMin(value = "0.0", message = "Sample rate must be at least 0")
+    @DecimalMax(value = "1.0", message = "Sample rate must be at most 1")
+    private double sampleRate = 1.0;
+
+    private boolean logPrompts = false;
+
+    @Min(value = 0, message = "Maximum prompt length cannot be negative")
+    private int maxPromptLength = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public boolean isLogPrompts() {
+        return logPrompts;
+    }
+
+    public void setLogPrompts(boolean logPrompts) {
+        this.logPrompts = logPrompts;
+    }
+
+    public int getMaxPromptLength() {
+        return maxPromptLength;
+    }
+
+    public void setMaxPromptLength(int maxPromptLength) {
+        this.maxPromptLength = maxPromptLength;
+    }
+}
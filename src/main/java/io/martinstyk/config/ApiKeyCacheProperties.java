@@ -0,0 +1,34 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("genai.auth.cache")
+@Validated
+public class ApiKeyCacheProperties {
+
+    @Min(value = 1, message = "Maximum cache size must be at least 1")
+    private long maximumSize = 100_000;
+
+    @NotNull(message = "Cache expiry cannot be null")
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+}
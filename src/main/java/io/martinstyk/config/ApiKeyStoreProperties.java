@@ -0,0 +1,32 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("genai.auth")
+@Validated
+public class ApiKeyStoreProperties {
+
+    private String keysFile;
+
+    @NotNull(message = "Reload interval cannot be null")
+    private Duration reloadInterval = Duration.ofSeconds(10);
+
+    public String getKeysFile() {
+        return keysFile;
+    }
+
+    public void setKeysFile(String keysFile) {
+        this.keysFile = keysFile;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+}
@@ -0,0 +1,67 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("genai.batch")
+@Validated
+public class BatchProperties {
+
+    private boolean enabled = false;
+
+    @NotBlank(message = "Batch directory cannot be blank")
+    private String directory = "batches";
+
+    @Min(value = 1, message = "Parallelism must be at least 1")
+    private int parallelism = 16;
+
+    @Min(value = 1, message = "Max running batches must be at least 1")
+    private int maxRunningBatches = 2;
+
+    @NotNull(message = "Checkpoint interval cannot be null")
+    private Duration checkpointInterval = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getMaxRunningBatches() {
+        return maxRunningBatches;
+    }
+
+    public void setMaxRunningBatches(int maxRunningBatches) {
+        this.maxRunningBatches = maxRunningBatches;
+    }
+
+    public Duration getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(Duration checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+}
@@ -0,0 +1,152 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("genai.concurrency-limit")
+@Validated
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = false;
+
+    @Min(value = 1, message = "Initial limit must be at least 1")
+    private int initialLimit = 20;
+
+    @Min(value = 1, message = "Min limit must be at least 1")
+    private int minLimit = 1;
+
+    @Min(value = 1, message = "Max limit must be at least 1")
+    private int maxLimit = 200;
+
+    @DecimalMin(value = "0.1", message = "Backoff ratio must be at least 0.1")
+    @DecimalMax(value = "0.99", message = "Backoff ratio must be at most 0.99")
+    private double backoffRatio = 0.9;
+
+    @DecimalMin(value = "1.0", message = "Latency tolerance must be at least 1.0")
+    private double latencyTolerance = 2.0;
+
+    @Min(value = 1, message = "Min RTT window must be at least 1")
+    private int minRttWindow = 250;
+
+    @Min(value = 0, message = "Max queue size cannot be negative")
+    private int maxQueueSize = 50;
+
+    @NotNull(message = "Max queue time cannot be null")
+    private Duration maxQueueTime = Duration.ofMillis(500);
+
+    @Min(value = 0, message = "Flex max queue size cannot be negative")
+    private int flexMaxQueueSize = 1000;
+
+    @NotNull(message = "Flex max queue time cannot be null")
+    private Duration flexMaxQueueTime = Duration.ofMinutes(1);
+
+    @Min(value = 1, message = "Priority weight must be at least 1")
+    private int priorityWeight = 3;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public int getMinRttWindow() {
+        return minRttWindow;
+    }
+
+    public void setMinRttWindow(int minRttWindow) {
+        this.minRttWindow = minRttWindow;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public Duration getMaxQueueTime() {
+        return maxQueueTime;
+    }
+
+    public void setMaxQueueTime(Duration maxQueueTime) {
+        this.maxQueueTime = maxQueueTime;
+    }
+
+    public int getFlexMaxQueueSize() {
+        return flexMaxQueueSize;
+    }
+
+    public void setFlexMaxQueueSize(int flexMaxQueueSize) {
+        this.flexMaxQueueSize = flexMaxQueueSize;
+    }
+
+    public Duration getFlexMaxQueueTime() {
+        return flexMaxQueueTime;
+    }
+
+    public void setFlexMaxQueueTime(Duration flexMaxQueueTime) {
+        this.flexMaxQueueTime = flexMaxQueueTime;
+    }
+
+    public int getPriorityWeight() {
+        return priorityWeight;
+    }
+
+    public void setPriorityWeight(int priorityWeight) {
+        this.priorityWeight = priorityWeight;
+    }
+
+    @AssertTrue(message = "Limits must satisfy min-limit <= initial-limit <= max-limit")
+    public boolean isLimitRangeValid() {
+        return minLimit <= initialLimit && initialLimit <= maxLimit;
+    }
+}
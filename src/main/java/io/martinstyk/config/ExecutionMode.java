@@ -0,0 +1,6 @@
+package io.martinstyk.config;
+
+public enum ExecutionMode {
+    ASYNC_CLIENT,
+    VIRTUAL_THREAD
+}
@@ -0,0 +1,45 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.util.Set;
+
+@ConfigurationProperties("genai.fan-out")
+@Validated
+public class FanOutProperties {
+
+    private boolean enabled = false;
+
+    // OCI model ids that cannot return several generations from one call, empty means all models
+    @NotNull(message = "Fan-out models cannot be null")
+    private Set<String> models = Set.of();
+
+    @Min(value = 1, message = "Fan-out max concurrency must be at least 1")
+    private int maxConcurrency = 4;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<String> getModels() {
+        return models;
+    }
+
+    public void setModels(Set<String> models) {
+        this.models = models;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+}
@@ -0,0 +1,114 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("genai.flex-queue")
+@Validated
+public class FlexQueueProperties {
+
+    private boolean enabled = false;
+
+    @NotBlank(message = "Flex queue directory cannot be blank")
+    private String directory = "flex-queue";
+
+    @Min(value = 1, message = "Max queue size must be at least 1")
+    private int maxQueueSize = 10_000;
+
+    @NotNull(message = "Drain interval cannot be null")
+    private Duration drainInterval = Duration.ofSeconds(1);
+
+    @Min(value = 1, message = "Max drain per interval must be at least 1")
+    private int maxDrainPerInterval = 10;
+
+    @Min(value = 1, message = "Max in-flight must be at least 1")
+    private int maxInFlight = 16;
+
+    @DecimalMin(value = "0.0", message = "Watermark must be at least 0")
+    @DecimalMax(value = "1.0", message = "Watermark must be at most 1")
+    private double watermark = 0.7;
+
+    @NotNull(message = "Wait time cannot be null")
+    private Duration waitTime = Duration.ofSeconds(30);
+
+    @NotNull(message = "Retention cannot be null")
+    private Duration retention = Duration.ofHours(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public Duration getDrainInterval() {
+        return drainInterval;
+    }
+
+    public void setDrainInterval(Duration drainInterval) {
+        this.drainInterval = drainInterval;
+    }
+
+    public int getMaxDrainPerInterval() {
+        return maxDrainPerInterval;
+    }
+
+    public void setMaxDrainPerInterval(int maxDrainPerInterval) {
+        this.maxDrainPerInterval = maxDrainPerInterval;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public double getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(double watermark) {
+        this.watermark = watermark;
+    }
+
+    public Duration getWaitTime() {
+        return waitTime;
+    }
+
+    public void setWaitTime(Duration waitTime) {
+        this.waitTime = waitTime;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
@@ -14,6 +14,7 @@ public class GenAiProperties {
 
     private ServingModeType servingMode = ServingModeType.ON_DEMAND;
     private String endpointId;
+    private ExecutionMode executionMode = ExecutionMode.ASYNC_CLIENT;
 
     public String getCompartmentId() {
         return compartmentId;
@@ -39,6 +40,14 @@ public class GenAiProperties {
         this.endpointId = endpointId;
     }
 
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
     @AssertTrue(message = "Endpoint ID is required when serving mode is DEDICATED")
     public boolean isEndpointIdValidForDedicatedMode() {
         if (servingMode == ServingModeType.DEDICATED) {
@@ -0,0 +1,70 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("genai.hedging")
+@Validated
+public class HedgingProperties {
+
+    private boolean enabled = false;
+
+    @DecimalMin(value = "0.5", message = "Hedging percentile must be at least 0.5")
+    @DecimalMax(value = "0.999", message = "Hedging percentile must be at most 0.999")
+    private double percentile = 0.95;
+
+    @DecimalMin(value = "0.0", message = "Hedging budget must be at least 0")
+    @DecimalMax(value = "1.0", message = "Hedging budget must be at most 1")
+    private double budget = 0.02;
+
+    @NotNull(message = "Hedging min delay cannot be null")
+    private Duration minDelay = Duration.ofMillis(100);
+
+    @Min(value = 1, message = "Hedging min samples must be at least 1")
+    private int minSamples = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    public void setBudget(double budget) {
+        this.budget = budget;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+}
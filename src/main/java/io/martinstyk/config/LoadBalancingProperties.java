@@ -0,0 +1,68 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("genai.load-balancing")
+@Validated
+public class LoadBalancingProperties {
+
+    @NotNull(message = "Load balancing strategy cannot be null")
+    private LoadBalancingStrategyType strategy = LoadBalancingStrategyType.LEAST_OUTSTANDING;
+
+    @NotNull(message = "EWMA decay cannot be null")
+    private Duration ewmaDecay = Duration.ofSeconds(10);
+
+    @Min(value = 1, message = "Failure threshold must be at least 1")
+    private int failureThreshold = 3;
+
+    @NotNull(message = "Ejection time cannot be null")
+    private Duration ejectionTime = Duration.ofSeconds(30);
+
+    @DecimalMin(value = "1.0", message = "Prefix load factor must be at least 1")
+    private double prefixLoadFactor = 1.25;
+
+    public LoadBalancingStrategyType getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(LoadBalancingStrategyType strategy) {
+        this.strategy = strategy;
+    }
+
+    public Duration getEwmaDecay() {
+        return ewmaDecay;
+    }
+
+    public void setEwmaDecay(Duration ewmaDecay) {
+        this.ewmaDecay = ewmaDecay;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public Duration getEjectionTime() {
+        return ejectionTime;
+    }
+
+    public void setEjectionTime(Duration ejectionTime) {
+        this.ejectionTime = ejectionTime;
+    }
+
+    public double getPrefixLoadFactor() {
+        return prefixLoadFactor;
+    }
+
+    public void setPrefixLoadFactor(double prefixLoadFactor) {
+        this.prefixLoadFactor = prefixLoadFactor;
+    }
+}
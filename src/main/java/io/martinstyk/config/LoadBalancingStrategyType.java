@@ -0,0 +1,8 @@
+package io.martinstyk.config;
+
+public enum LoadBalancingStrategyType {
+    LEAST_OUTSTANDING,
+    EWMA_LATENCY,
+    WEIGHTED_ROUND_ROBIN,
+    PREFIX_AFFINITY
+}
@@ -0,0 +1,42 @@
+package io.martinstyk.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.core.annotation.NonNull;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+@Factory
+public class MetricsConfiguration {
+
+    private static final String METER_PREFIX = "gateway";
+
+    // ChatMetrics folds excess values into "other" itself; these limits also cover meters that
+    // tag the model a client asked for, and keep a client from creating unbounded time series
+    @Singleton
+    @Named("model")
+    public MeterFilter modelTagLimit(@NonNull MetricsProperties metricsProperties) {
+        return MeterFilter.maximumAllowableTags(
+                METER_PREFIX, "model", metricsProperties.getMaximumTagValues(), MeterFilter.deny());
+    }
+
+    @Singleton
+    @Named("organization")
+    public MeterFilter organizationTagLimit(@NonNull MetricsProperties metricsProperties) {
+        return MeterFilter.maximumAllowableTags(
+                METER_PREFIX,
+                "organization",
+                metricsProperties.getMaximumTagValues(),
+                MeterFilter.deny());
+    }
+
+    @Singleton
+    @Named("project")
+    public MeterFilter projectTagLimit(@NonNull MetricsProperties metricsProperties) {
+        return MeterFilter.maximumAllowableTags(
+                METER_PREFIX,
+                "project",
+                metricsProperties.getMaximumTagValues(),
+                MeterFilter.deny());
+    }
+}
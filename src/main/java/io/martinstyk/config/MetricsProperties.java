@@ -0,0 +1,21 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+
+@ConfigurationProperties("genai.metrics")
+@Validated
+public class MetricsProperties {
+
+    @Min(value = 1, message = "Maximum tag values must be at least 1")
+    private int maximumTagValues = 1000;
+
+    public int getMaximumTagValues() {
+        return maximumTagValues;
+    }
+
+    public void setMaximumTagValues(int maximumTagValues) {
+        this.maximumTagValues = maximumTagValues;
+    }
+}
@@ -1,21 +1,93 @@
 package io.martinstyk.config;
 
+import com.oracle.bmc.generativeaiinference.GenerativeAiInferenceAsyncClient;
 import com.oracle.bmc.generativeaiinference.GenerativeAiInferenceClient;
-import com.oracle.bmc.generativeaiinference.model.ChatDetails;
+import io.martinstyk.cache.CachingChatCompletion;
+import io.martinstyk.cache.ChatCompletionResponseCache;
+import io.martinstyk.cache.CoalescingChatCompletion;
+import io.martinstyk.limit.ConcurrencyLimiter;
 import io.martinstyk.mapper.ChatCompletionMapper;
+import io.martinstyk.metrics.ChatMetrics;
+import io.martinstyk.service.AsyncClientChatInvoker;
+import io.martinstyk.service.ChatCompletion;
+import io.martinstyk.service.ChatInvoker;
+import io.martinstyk.service.ModelResolver;
 import io.martinstyk.service.OciChatCompletion;
+import io.martinstyk.service.ModelPermits;
+import io.martinstyk.service.VirtualThreadChatInvoker;
+import io.martinstyk.streaming.ChatCompletionEventEncoder;
+import io.martinstyk.streaming.OciEventStreamReader;
+import io.martinstyk.tracing.ChatTracing;
+import io.martinstyk.upstream.HedgingPolicy;
+import io.martinstyk.upstream.UpstreamPool;
+import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
 import jakarta.inject.Singleton;
 
 @Factory
 public class OciChatCompletionConfiguration {
     @Singleton
+    public ChatCompletion chatCompletion(
+            @NonNull OciChatCompletion ociChatCompletion,
+            @NonNull CoalescingProperties coalescingProperties,
+            @Nullable ChatCompletionResponseCache responseCache) {
+        ChatCompletion chatCompletion = ociChatCompletion;
+        if (coalescingProperties.isEnabled()) {
+            chatCompletion = new CoalescingChatCompletion(chatCompletion);
+        }
+        if (responseCache != null) {
+            chatCompletion = new CachingChatCompletion(chatCompletion, responseCache);
+        }
+        return chatCompletion;
+    }
+
+    @Singleton
+    @Bean(typed = OciChatCompletion.class)
     public OciChatCompletion ociChatCompletion(
-            @NonNull GenerativeAiInferenceClient generativeAiInferenceClient,
-            @NonNull ChatDetails chatDetails,
-            @NonNull ChatCompletionMapper chatCompletionMapper) {
+            @NonNull UpstreamPool upstreamPool,
+            @NonNull ConcurrencyLimiter concurrencyLimiter,
+            @NonNull ChatCompletionMapper chatCompletionMapper,
+            @NonNull ModelResolver modelResolver,
+            @NonNull OciEventStreamReader eventStreamReader,
+            @NonNull ChatCompletionEventEncoder eventEncoder,
+            @NonNull ChatMetrics chatMetrics,
+            @NonNull ChatTracing chatTracing,
+            @NonNull FanOutProperties fanOutProperties,
+            @Nullable HedgingPolicy hedgingPolicy) {
         return new OciChatCompletion(
-                generativeAiInferenceClient, chatDetails, chatCompletionMapper);
+                upstreamPool,
+                concurrencyLimiter,
+                chatCompletionMapper,
+                modelResolver,
+                eventStreamReader,
+                eventEncoder,
+                chatMetrics,
+                chatTracing,
+                fanOutProperties,
+                hedgingPolicy);
+    }
+
+    @Singleton
+    @Requires(property = "genai.execution-mode", notEquals = "VIRTUAL_THREAD")
+    public ChatInvoker asyncClientChatInvoker(
+            @NonNull GenerativeAiInferenceAsyncClient generativeAiInferenceAsyncClient) {
+        return new AsyncClientChatInvoker(generativeAiInferenceAsyncClient);
+    }
+
+    @Singleton
+    @Bean(preDestroy = "close")
+    @Requires(property = "genai.execution-mode", value = "VIRTUAL_THREAD")
+    public VirtualThreadChatInvoker virtualThreadChatInvoker(
+            @NonNull GenerativeAiInferenceClient generativeAiInferenceClient,
+            @NonNull ModelPermits modelPermits) {
+        return new VirtualThreadChatInvoker(generativeAiInferenceClient, modelPermits);
+    }
+
+    @Singleton
+    public ModelPermits modelPermits(@NonNull VirtualThreadProperties virtualThreadProperties) {
+        return new ModelPermits(virtualThreadProperties.getMaxConcurrencyPerModel());
     }
 }
@@ -0,0 +1,25 @@
+package io.martinstyk.config;
+
+import com.oracle.bmc.common.ClientBuilderBase;
+import io.martinstyk.tracing.OciTraceContextConfigurator;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class OciClientTracingCustomizer
+        implements BeanCreatedEventListener<ClientBuilderBase<?, ?>> {
+
+    private final OciTraceContextConfigurator traceContextConfigurator;
+
+    public OciClientTracingCustomizer(OciTraceContextConfigurator traceContextConfigurator) {
+        this.traceContextConfigurator = traceContextConfigurator;
+    }
+
+    @Override
+    public ClientBuilderBase<?, ?> onCreated(BeanCreatedEvent<ClientBuilderBase<?, ?>> event) {
+        ClientBuilderBase<?, ?> builder = event.getBean();
+        builder.additionalClientConfigurator(traceContextConfigurator);
+        return builder;
+    }
+}
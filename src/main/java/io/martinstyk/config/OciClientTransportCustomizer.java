@@ -0,0 +1,59 @@
+package io.martinstyk.config;
+
+import com.oracle.bmc.common.ClientBuilderBase;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.http.client.HttpClientConfiguration;
+import io.micronaut.http.client.ServiceHttpClientConfiguration;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class OciClientTransportCustomizer
+        implements BeanCreatedEventListener<ClientBuilderBase<?, ?>> {
+
+    // The HTTP client service the OCI SDK's Netty provider connects through
+    static final String OCI_SERVICE = "oci";
+
+    private final TransportProperties transportProperties;
+
+    public OciClientTransportCustomizer(TransportProperties transportProperties) {
+        this.transportProperties = transportProperties;
+    }
+
+    @Override
+    public ClientBuilderBase<?, ?> onCreated(BeanCreatedEvent<ClientBuilderBase<?, ?>> event) {
+        // The SDK passes these to the HTTP provider and they take precedence over the
+        // micronaut.http.services.oci timeouts, so they are set on every client builder
+        ClientBuilderBase<?, ?> builder = event.getBean();
+        builder.configuration(transportProperties.toClientConfiguration());
+        return builder;
+    }
+
+    /** Applies the connection pool and protocol settings to the OCI HTTP client service. */
+    @Singleton
+    static class ConnectionPoolCustomizer
+            implements BeanCreatedEventListener<ServiceHttpClientConfiguration> {
+
+        private final TransportProperties transportProperties;
+
+        ConnectionPoolCustomizer(TransportProperties transportProperties) {
+            this.transportProperties = transportProperties;
+        }
+
+        @Override
+        public ServiceHttpClientConfiguration onCreated(
+                BeanCreatedEvent<ServiceHttpClientConfiguration> event) {
+            ServiceHttpClientConfiguration configuration = event.getBean();
+            if (!OCI_SERVICE.equals(configuration.getServiceId())) {
+                return configuration;
+            }
+            HttpClientConfiguration.ConnectionPoolConfiguration pool =
+                    configuration.getConnectionPoolConfiguration();
+            pool.setEnabled(transportProperties.isKeepAlive());
+            pool.setMaxConcurrentHttp1Connections(transportProperties.getMaxConnectionsPerRoute());
+            configuration.setConnectionPoolIdleTimeout(transportProperties.getIdleTimeout());
+            configuration.setAlpnModes(transportProperties.getAlpnModes());
+            return configuration;
+        }
+    }
+}
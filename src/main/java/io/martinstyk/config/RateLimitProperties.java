@@ -0,0 +1,65 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+@ConfigurationProperties("genai.rate-limit")
+@Validated
+public class RateLimitProperties {
+
+    private boolean enabled = false;
+
+    @NotBlank(message = "Default tier cannot be blank")
+    private String defaultTier = "default";
+
+    @Min(value = 1, message = "Requests per minute must be at least 1")
+    private long requestsPerMinute = 500;
+
+    @Min(value = 1, message = "Tokens per minute must be at least 1")
+    private long tokensPerMinute = 200_000;
+
+    @Min(value = 1, message = "Maximum keys must be at least 1")
+    private long maximumKeys = 500_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDefaultTier() {
+        return defaultTier;
+    }
+
+    public void setDefaultTier(String defaultTier) {
+        this.defaultTier = defaultTier;
+    }
+
+    public long getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(long requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public long getTokensPerMinute() {
+        return tokensPerMinute;
+    }
+
+    public void setTokensPerMinute(long tokensPerMinute) {
+        this.tokensPerMinute = tokensPerMinute;
+    }
+
+    public long getMaximumKeys() {
+        return maximumKeys;
+    }
+
+    public void setMaximumKeys(long maximumKeys) {
+        this.maximumKeys = maximumKeys;
+    }
+}
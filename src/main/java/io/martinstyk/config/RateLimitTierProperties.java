@@ -0,0 +1,43 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+
+@EachProperty("genai.rate-limit.tiers")
+@Validated
+public class RateLimitTierProperties {
+
+    private final String name;
+
+    @Min(value = 1, message = "Requests per minute must be at least 1")
+    private long requestsPerMinute = 500;
+
+    @Min(value = 1, message = "Tokens per minute must be at least 1")
+    private long tokensPerMinute = 200_000;
+
+    public RateLimitTierProperties(@Parameter String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(long requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public long getTokensPerMinute() {
+        return tokensPerMinute;
+    }
+
+    public void setTokensPerMinute(long tokensPerMinute) {
+        this.tokensPerMinute = tokensPerMinute;
+    }
+}
@@ -0,0 +1,105 @@
+package io.martinstyk.config;
+
+import com.oracle.bmc.ClientConfiguration;
+import com.oracle.bmc.Region;
+import com.oracle.bmc.auth.AbstractAuthenticationDetailsProvider;
+import com.oracle.bmc.generativeaiinference.GenerativeAiInferenceAsyncClient;
+import com.oracle.bmc.generativeaiinference.GenerativeAiInferenceClient;
+import io.martinstyk.service.AsyncClientChatInvoker;
+import io.martinstyk.service.ChatInvoker;
+import io.martinstyk.service.ModelPermits;
+import io.martinstyk.service.VirtualThreadChatInvoker;
+import io.martinstyk.tracing.OciTraceContextConfigurator;
+import io.micronaut.context.BeanProvider;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Singleton
+public class RegionalChatInvokers {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionalChatInvokers.class);
+
+    private final BeanProvider<AbstractAuthenticationDetailsProvider> authenticationProvider;
+    private final GenAiProperties genAiProperties;
+    private final TransportProperties transportProperties;
+    private final ModelPermits modelPermits;
+    private final OciTraceContextConfigurator traceContextConfigurator;
+    private final Map<String, ChatInvoker> chatInvokers = new ConcurrentHashMap<>();
+    private final List<AutoCloseable> closeables = new CopyOnWriteArrayList<>();
+
+    public RegionalChatInvokers(
+            BeanProvider<AbstractAuthenticationDetailsProvider> authenticationProvider,
+            GenAiProperties genAiProperties,
+            TransportProperties transportProperties,
+            ModelPermits modelPermits,
+            OciTraceContextConfigurator traceContextConfigurator) {
+        this.authenticationProvider = authenticationProvider;
+        this.genAiProperties = genAiProperties;
+        this.transportProperties = transportProperties;
+        this.modelPermits = modelPermits;
+        this.traceContextConfigurator = traceContextConfigurator;
+    }
+
+    public ChatInvoker forTarget(@Nullable String region, @Nullable String endpoint) {
+        return chatInvokers.computeIfAbsent(
+                region + "|" + endpoint, key -> createChatInvoker(region, endpoint));
+    }
+
+    private ChatInvoker createChatInvoker(@Nullable String regionId, @Nullable String endpoint) {
+        ClientConfiguration clientConfiguration = transportProperties.toClientConfiguration();
+        AbstractAuthenticationDetailsProvider authentication = authenticationProvider.get();
+
+        if (genAiProperties.getExecutionMode() == ExecutionMode.VIRTUAL_THREAD) {
+            GenerativeAiInferenceClient.Builder builder =
+                    GenerativeAiInferenceClient.builder()
+                            .configuration(clientConfiguration)
+                            .additionalClientConfigurator(traceContextConfigurator);
+            if (regionId != null) {
+                builder.region(Region.fromRegionCodeOrId(regionId));
+            }
+            if (endpoint != null) {
+                builder.endpoint(endpoint);
+            }
+            GenerativeAiInferenceClient client = builder.build(authentication);
+            // The permits are shared with the other targets, so a model's limit is not
+            // multiplied by the number of regions serving it
+            VirtualThreadChatInvoker chatInvoker =
+                    new VirtualThreadChatInvoker(client, modelPermits);
+            closeables.add(chatInvoker);
+            closeables.add(client);
+            return chatInvoker;
+        }
+
+        GenerativeAiInferenceAsyncClient.Builder builder =
+                GenerativeAiInferenceAsyncClient.builder()
+                        .configuration(clientConfiguration)
+                        .additionalClientConfigurator(traceContextConfigurator);
+        if (regionId != null) {
+            builder.region(Region.fromRegionCodeOrId(regionId));
+        }
+        if (endpoint != null) {
+            builder.endpoint(endpoint);
+        }
+        GenerativeAiInferenceAsyncClient client = builder.build(authentication);
+        closeables.add(client);
+        return new AsyncClientChatInvoker(client);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (AutoCloseable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close regional OCI client", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.convert.format.ReadableBytes;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+
+@ConfigurationProperties("genai.request-limits")
+@Validated
+public class RequestLimitProperties {
+
+    @Min(value = 1, message = "Maximum number of messages must be at least 1")
+    private int maxMessages = 2048;
+
+    @Min(value = 1, message = "Maximum content length must be at least 1")
+    private long maxContentLength = 2_000_000;
+
+    @Min(value = 1, message = "Maximum prompt tokens must be at least 1")
+    private long maxPromptTokens = 500_000;
+
+    @Min(value = 1, message = "Maximum body size must be at least 1 byte")
+    private long maxBodySize = 10 * 1024 * 1024;
+
+    @Min(value = 1, message = "Maximum in-flight bytes must be at least 1 byte")
+    private long maxInFlightBytes = 256 * 1024 * 1024;
+
+    public int getMaxMessages() {
+        return maxMessages;
+    }
+
+    public void setMaxMessages(int maxMessages) {
+        this.maxMessages = maxMessages;
+    }
+
+    public long getMaxContentLength() {
+        return maxContentLength;
+    }
+
+    public void setMaxContentLength(long maxContentLength) {
+        this.maxContentLength = maxContentLength;
+    }
+
+    public long getMaxPromptTokens() {
+        return maxPromptTokens;
+    }
+
+    public void setMaxPromptTokens(long maxPromptTokens) {
+        this.maxPromptTokens = maxPromptTokens;
+    }
+
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(@ReadableBytes long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    public void setMaxInFlightBytes(@ReadableBytes long maxInFlightBytes) {
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+}
@@ -0,0 +1,113 @@
+package io.martinstyk.config;
+
+import com.oracle.bmc.ClientConfiguration;
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("genai.transport")
+@Validated
+public class TransportProperties {
+
+    // The protocols the Netty client can offer
+    private static final String ALPN_MODES = "h2|http/1\\.1";
+
+    @NotNull(message = "Connect timeout cannot be null")
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    @NotNull(message = "Read timeout cannot be null")
+    private Duration readTimeout = Duration.ofSeconds(60);
+
+    private boolean keepAlive = true;
+
+    @Min(value = 1, message = "Max connections per route must be at least 1")
+    private int maxConnectionsPerRoute = 64;
+
+    @NotNull(message = "Idle timeout cannot be null")
+    private Duration idleTimeout = Duration.ofSeconds(60);
+
+    @NotEmpty(message = "ALPN modes cannot be empty")
+    private List<@Pattern(regexp = ALPN_MODES, message = "Unknown ALPN mode") String> alpnModes =
+            List.of("h2", "http/1.1");
+
+    private boolean warmUp = false;
+
+    @Min(value = 1, message = "Warm-up connections must be at least 1")
+    private int warmUpConnections = 4;
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public List<String> getAlpnModes() {
+        return alpnModes;
+    }
+
+    public void setAlpnModes(List<String> alpnModes) {
+        this.alpnModes = alpnModes;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public int getWarmUpConnections() {
+        return warmUpConnections;
+    }
+
+    public void setWarmUpConnections(int warmUpConnections) {
+        this.warmUpConnections = warmUpConnections;
+    }
+
+    public ClientConfiguration toClientConfiguration() {
+        return ClientConfiguration.builder()
+                .connectionTimeoutMillis((int) connectTimeout.toMillis())
+                .readTimeoutMillis((int) readTimeout.toMillis())
+                .build();
+    }
+}
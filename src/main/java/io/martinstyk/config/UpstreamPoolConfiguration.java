@@ -0,0 +1,105 @@
+package io.martinstyk.config;
+
+import com.oracle.bmc.generativeaiinference.model.ChatDetails;
+import com.oracle.bmc.generativeaiinference.model.DedicatedServingMode;
+import com.oracle.bmc.generativeaiinference.model.OnDemandServingMode;
+import com.oracle.bmc.generativeaiinference.model.ServingMode;
+import io.martinstyk.service.ChatInvoker;
+import io.martinstyk.upstream.EwmaLatencyStrategy;
+import io.martinstyk.upstream.HedgingPolicy;
+import io.martinstyk.upstream.LeastOutstandingStrategy;
+import io.martinstyk.upstream.LoadBalancingStrategy;
+import io.martinstyk.upstream.PrefixAffinityStrategy;
+import io.martinstyk.upstream.UpstreamPool;
+import io.martinstyk.upstream.UpstreamTarget;
+import io.martinstyk.upstream.WeightedRoundRobinStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.NonNull;
+import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+
+@Factory
+public class UpstreamPoolConfiguration {
+
+    private static final String DEFAULT_TARGET = "default";
+
+    @Singleton
+    public LoadBalancingStrategy loadBalancingStrategy(
+            @NonNull LoadBalancingProperties loadBalancingProperties) {
+        return switch (loadBalancingProperties.getStrategy()) {
+            case LEAST_OUTSTANDING -> new LeastOutstandingStrategy();
+            case EWMA_LATENCY -> new EwmaLatencyStrategy();
+            case WEIGHTED_ROUND_ROBIN -> new WeightedRoundRobinStrategy();
+            case PREFIX_AFFINITY ->
+                    new PrefixAffinityStrategy(
+                            loadBalancingProperties.getPrefixLoadFactor(),
+                            new LeastOutstandingStrategy());
+        };
+    }
+
+    @Singleton
+    @Requires(property = "genai.hedging.enabled", value = "true")
+    public HedgingPolicy hedgingPolicy(
+            @NonNull HedgingProperties hedgingProperties, @NonNull MeterRegistry meterRegistry) {
+        return new HedgingPolicy(hedgingProperties, meterRegistry);
+    }
+
+    @Singleton
+    public UpstreamPool upstreamPool(
+            @NonNull List<UpstreamTargetProperties> targetProperties,
+            @NonNull ChatInvoker chatInvoker,
+            @NonNull ChatDetails chatDetails,
+            @NonNull GenAiProperties genAiProperties,
+            @NonNull RegionalChatInvokers regionalChatInvokers,
+            @NonNull LoadBalancingStrategy loadBalancingStrategy,
+            @NonNull LoadBalancingProperties loadBalancingProperties) {
+        // Without genai.targets the pool holds the single target described by genai.*
+        if (targetProperties.isEmpty()) {
+            return new UpstreamPool(
+                    List.of(
+                            new UpstreamTarget(
+                                    DEFAULT_TARGET,
+                                    chatInvoker,
+                                    chatDetails,
+                                    1,
+                                    loadBalancingProperties)),
+                    loadBalancingStrategy);
+        }
+
+        List<UpstreamTarget> targets = new ArrayList<>(targetProperties.size());
+        for (UpstreamTargetProperties properties : targetProperties) {
+            ChatInvoker targetChatInvoker =
+                    properties.getRegion() == null && properties.getEndpoint() == null
+                            ? chatInvoker
+                            : regionalChatInvokers.forTarget(
+                                    properties.getRegion(), properties.getEndpoint());
+            String compartmentId =
+                    properties.getCompartmentId() == null
+                            ? genAiProperties.getCompartmentId()
+                            : properties.getCompartmentId();
+            ChatDetails targetChatDetails =
+                    ChatDetails.builder()
+                            .servingMode(servingMode(properties))
+                            .compartmentId(compartmentId)
+                            .build();
+            targets.add(
+                    new UpstreamTarget(
+                            properties.getName(),
+                            targetChatInvoker,
+                            targetChatDetails,
+                            properties.getWeight(),
+                            loadBalancingProperties));
+        }
+        return new UpstreamPool(targets, loadBalancingStrategy);
+    }
+
+    private static ServingMode servingMode(UpstreamTargetProperties properties) {
+        if (properties.getServingMode() == ServingModeType.DEDICATED) {
+            return DedicatedServingMode.builder().endpointId(properties.getEndpointId()).build();
+        }
+        return OnDemandServingMode.builder().build();
+    }
+}
@@ -0,0 +1,87 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+
+@EachProperty("genai.targets")
+@Validated
+public class UpstreamTargetProperties {
+
+    private final String name;
+
+    private String region;
+    private String endpoint;
+    private String compartmentId;
+    private ServingModeType servingMode = ServingModeType.ON_DEMAND;
+    private String endpointId;
+
+    @Min(value = 1, message = "Target weight must be at least 1")
+    private int weight = 1;
+
+    public UpstreamTargetProperties(@Parameter String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getCompartmentId() {
+        return compartmentId;
+    }
+
+    public void setCompartmentId(String compartmentId) {
+        this.compartmentId = compartmentId;
+    }
+
+    public ServingModeType getServingMode() {
+        return servingMode;
+    }
+
+    public void setServingMode(ServingModeType servingMode) {
+        this.servingMode = servingMode;
+    }
+
+    public String getEndpointId() {
+        return endpointId;
+    }
+
+    public void setEndpointId(String endpointId) {
+        this.endpointId = endpointId;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    @AssertTrue(message = "Endpoint ID is required when serving mode is DEDICATED")
+    public boolean isEndpointIdValidForDedicatedMode() {
+        if (servingMode == ServingModeType.DEDICATED) {
+            return endpointId != null && !endpointId.trim().isEmpty();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package io.martinstyk.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.validation.Validated;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("genai.virtual-threads")
+@Validated
+public class VirtualThreadProperties {
+
+    @Min(value = 1, message = "Max concurrency per model must be at least 1")
+    private int maxConcurrencyPerModel = 64;
+
+    @NotNull(message = "Pinned threshold cannot be null")
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+
+    public int getMaxConcurrencyPerModel() {
+        return maxConcurrencyPerModel;
+    }
+
+    public void setMaxConcurrencyPerModel(int maxConcurrencyPerModel) {
+        this.maxConcurrencyPerModel = maxConcurrencyPerModel;
+    }
+
+    public Duration getPinnedThreshold() {
+        return pinnedThreshold;
+    }
+
+    public void setPinnedThreshold(Duration pinnedThreshold) {
+        this.pinnedThreshold = pinnedThreshold;
+    }
+}
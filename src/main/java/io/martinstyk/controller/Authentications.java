@@ -0,0 +1,45 @@
+package io.martinstyk.controller;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.security.authentication.Authentication;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/** Reads the attributes that the token validator puts on an authentication. */
+final class Authentications {
+
+    private Authentications() {}
+
+    static @Nullable String keyId(@Nullable Authentication authentication) {
+        return authentication == null ? null : (String) authentication.getAttributes().get("keyId");
+    }
+
+    static @Nullable Set<String> allowedModels(@Nullable Authentication authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        if (!(authentication.getAttributes().get("allowedModels") instanceof Set<?> allowed)) {
+            return null;
+        }
+        return allowed.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /** The text attributes, such as the key, tier, organization and project. */
+    static @Nullable Map<String, String> textAttributes(@Nullable Authentication authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        Map<String, String> attributes = new HashMap<>();
+        authentication
+                .getAttributes()
+                .forEach(
+                        (name, value) -> {
+                            if (value instanceof String text) {
+                                attributes.put(name, text);
+                            }
+                        });
+        return Map.copyOf(attributes);
+    }
+}
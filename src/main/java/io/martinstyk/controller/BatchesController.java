@@ -0,0 +1,159 @@
+package io.martinstyk.controller;
+
+import io.martinstyk.batch.BatchRunner;
+import io.martinstyk.batch.BatchStore;
+import io.martinstyk.batch.StoredBatch;
+import io.martinstyk.batch.StoredFile;
+import io.martinstyk.model.ApiError;
+import io.martinstyk.model.Batch;
+import io.martinstyk.model.BatchRequestCounts;
+import io.martinstyk.model.BatchStatus;
+import io.martinstyk.model.CreateBatchRequest;
+import io.martinstyk.model.ErrorResponse;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.security.annotation.Secured;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.rules.SecurityRule;
+import io.micronaut.validation.Validated;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.util.Objects;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Controller("/v1/batches")
+@Secured(SecurityRule.IS_AUTHENTICATED)
+@Requires(beans = BatchRunner.class)
+@Validated
+@Tag(name = "Batches", description = "OpenAI-compatible batch endpoints")
+public class BatchesController {
+
+    private static final String CHAT_COMPLETIONS_ENDPOINT = "/v1/chat/completions";
+    private static final String COMPLETION_WINDOW = "24h";
+    private static final String BATCH_PURPOSE = "batch";
+
+    private final BatchStore store;
+    private final BatchRunner runner;
+
+    public BatchesController(BatchStore store, BatchRunner runner) {
+        this.store = store;
+        this.runner = runner;
+    }
+
+    @Post(consumes = MediaType.APPLICATION_JSON, produces = MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Create batch",
+            description = "Runs the chat completion requests of an uploaded file in the background")
+    public Mono<HttpResponse<?>> createBatch(
+            @Valid @Body CreateBatchRequest request, @Nullable Authentication authentication) {
+        if (!CHAT_COMPLETIONS_ENDPOINT.equals(request.endpoint())) {
+            return Mono.just(
+                    badRequest(
+                            "Only the " + CHAT_COMPLETIONS_ENDPOINT + " endpoint is supported",
+                            "endpoint"));
+        }
+        if (!COMPLETION_WINDOW.equals(request.completionWindow())) {
+            return Mono.just(
+                    badRequest(
+                            "Only a completion window of " + COMPLETION_WINDOW + " is supported",
+                            "completion_window"));
+        }
+        String owner = Authentications.keyId(authentication);
+        StoredFile input = store.findFile(request.inputFileId());
+        if (input == null || !Objects.equals(input.owner(), owner)) {
+            return Mono.just(
+                    notFound(
+                            "No file found with id " + request.inputFileId(), "input_file_id"));
+        }
+        if (!BATCH_PURPOSE.equals(input.file().purpose())) {
+            return Mono.just(
+                    badRequest(
+                            "The input file must have the purpose " + BATCH_PURPOSE,
+                            "input_file_id"));
+        }
+
+        Batch batch = new Batch();
+        batch.setId(store.newBatchId());
+        batch.setEndpoint(request.endpoint());
+        batch.setInputFileId(request.inputFileId());
+        batch.setCompletionWindow(request.completionWindow());
+        batch.setStatus(BatchStatus.VALIDATING);
+        batch.setCreatedAt(System.currentTimeMillis() / 1000);
+        batch.setRequestCounts(new BatchRequestCounts(0, 0, 0));
+        batch.setMetadata(request.metadata());
+        StoredBatch stored =
+                new StoredBatch(
+                        batch,
+                        owner,
+                        Authentications.allowedModels(authentication),
+                        Authentications.textAttributes(authentication));
+        return Mono.fromCallable(() -> store.saveBatch(stored))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(saved -> runner.submit(saved.batch().getId()))
+                .<HttpResponse<?>>map(saved -> HttpResponse.ok(saved.batch()));
+    }
+
+    @Get(value = "/{batchId}", produces = MediaType.APPLICATION_JSON)
+    @Operation(summary = "Retrieve batch", description = "Returns the status of a batch")
+    public HttpResponse<?> getBatch(String batchId, @Nullable Authentication authentication) {
+        StoredBatch batch = find(batchId, authentication);
+        return batch == null ? batchNotFound(batchId) : HttpResponse.ok(batch.batch());
+    }
+
+    @Post(value = "/{batchId}/cancel", produces = MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Cancel batch",
+            description =
+                    "Stops a batch. Requests already running are finished and kept in the output.")
+    public Mono<HttpResponse<?>> cancelBatch(
+            String batchId, @Nullable Authentication authentication) {
+        StoredBatch batch = find(batchId, authentication);
+        if (batch == null) {
+            return Mono.just(batchNotFound(batchId));
+        }
+        return Mono.fromCallable(
+                        () ->
+                                store.update(
+                                        batchId,
+                                        cancelled -> {
+                                            if (!cancelled.getStatus().isTerminal()) {
+                                                cancelled.setStatus(BatchStatus.CANCELLING);
+                                            }
+                                        }))
+                .subscribeOn(Schedulers.boundedElastic())
+                .<HttpResponse<?>>map(updated -> HttpResponse.ok(updated.batch()));
+    }
+
+    private StoredBatch find(String batchId, @Nullable Authentication authentication) {
+        StoredBatch batch = store.findBatch(batchId);
+        // Batches are only visible to the key that created them
+        if (batch == null
+                || !Objects.equals(batch.owner(), Authentications.keyId(authentication))) {
+            return null;
+        }
+        return batch;
+    }
+
+    private static HttpResponse<?> batchNotFound(String batchId) {
+        return notFound("No batch found with id " + batchId, "batch_id");
+    }
+
+    private static HttpResponse<?> notFound(String message, String param) {
+        return HttpResponse.notFound(
+                new ErrorResponse(
+                        new ApiError(message, "invalid_request_error", param, "not_found")));
+    }
+
+    private static HttpResponse<?> badRequest(String message, String param) {
+        return HttpResponse.badRequest(
+                new ErrorResponse(new ApiError(message, "invalid_request_error", param, null)));
+    }
+}
@@ -1,17 +1,37 @@
 package io.martinstyk.controller;
 
+import io.martinstyk.config.RequestLimitProperties;
+import io.martinstyk.flex.FlexJob;
+import io.martinstyk.flex.FlexQueue;
+import io.martinstyk.limit.RequestAdmissionFilter;
+import io.martinstyk.limit.RequestTooLargeException;
+import io.martinstyk.metrics.ChatMetrics;
+import io.martinstyk.metrics.MeteredRequest;
+import io.martinstyk.model.ApiError;
 import io.martinstyk.model.CreateChatCompletionRequest;
 import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.model.CreateChatCompletionStreamResponse;
+import io.martinstyk.model.DeferredChatCompletion;
+import io.martinstyk.model.ErrorResponse;
+import io.martinstyk.model.ServiceTier;
+import io.martinstyk.ratelimit.RateLimitDecision;
+import io.martinstyk.ratelimit.RateLimitExceededException;
+import io.martinstyk.ratelimit.RateLimiter;
+import io.martinstyk.security.ModelNotAllowedException;
 import io.martinstyk.service.ChatCompletion;
+import io.martinstyk.tracing.ChatTracing;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
 import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
 import io.micronaut.http.annotation.Post;
 import io.micronaut.http.sse.Event;
-import io.micronaut.scheduling.TaskExecutors;
-import io.micronaut.scheduling.annotation.ExecuteOn;
 import io.micronaut.security.annotation.Secured;
+import io.micronaut.security.authentication.Authentication;
 import io.micronaut.security.rules.SecurityRule;
 import io.micronaut.validation.Validated;
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,9 +42,15 @@ import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.net.URI;
+import java.util.Objects;
+import java.util.Set;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Controller("/v1")
 @Secured(SecurityRule.IS_AUTHENTICATED)
@@ -35,9 +61,25 @@ public class ChatCompletionsController {
     private static final Logger logger = LoggerFactory.getLogger(ChatCompletionsController.class);
 
     private final ChatCompletion chatCompletion;
+    private final RateLimiter rateLimiter;
+    private final ChatMetrics chatMetrics;
+    private final ChatTracing chatTracing;
+    private final long maxPromptTokens;
+    private final FlexQueue flexQueue;
 
-    public ChatCompletionsController(ChatCompletion chatCompletion) {
+    public ChatCompletionsController(
+            ChatCompletion chatCompletion,
+            RateLimiter rateLimiter,
+            ChatMetrics chatMetrics,
+            ChatTracing chatTracing,
+            RequestLimitProperties requestLimitProperties,
+            @Nullable FlexQueue flexQueue) {
         this.chatCompletion = chatCompletion;
+        this.rateLimiter = rateLimiter;
+        this.chatMetrics = chatMetrics;
+        this.chatTracing = chatTracing;
+        this.maxPromptTokens = requestLimitProperties.getMaxPromptTokens();
+        this.flexQueue = flexQueue;
     }
 
     @Post(
@@ -135,6 +177,7 @@ public class ChatCompletionsController {
                 """)),
                 @Content(
                         mediaType = "text/event-stream",
+                        schema = @Schema(implementation = CreateChatCompletionStreamResponse.class),
                         examples =
                                 @ExampleObject(
                                         name = "Streaming Response",
@@ -147,25 +190,162 @@ public class ChatCompletionsController {
                 data: [DONE]
                 """))
             })
-    @ExecuteOn(TaskExecutors.BLOCKING)
-    public HttpResponse<?> createChatCompletion(@Valid @Body CreateChatCompletionRequest request) {
+    public Mono<HttpResponse<?>> createChatCompletion(
+            @Valid @Body CreateChatCompletionRequest request,
+            HttpRequest<?> httpRequest,
+            @Nullable Authentication authentication) {
+        // The body is bound, so streams and slow calls do not hold its bytes in the budget
+        RequestAdmissionFilter.bodyRead(httpRequest);
 
-        logger.info(
+        logger.debug(
                 "Received chat completion request for model: {} (stream={})",
                 request.getModel(),
                 request.getStream());
-        logger.debug("Request details: {}", request);
+
+        // Completed requests are written to the access log by the metered request
+        MeteredRequest metered = chatMetrics.start(request, authentication);
+        return process(request, authentication, metered)
+                .doOnError(metered::failure)
+                .doOnCancel(metered::cancel)
+                .contextWrite(metered::addTo)
+                .contextWrite(
+                        chatTracing.captureCurrent(
+                                request.getModel(), Boolean.TRUE.equals(request.getStream())));
+    }
+
+    private Mono<HttpResponse<?>> process(
+            CreateChatCompletionRequest request,
+            @Nullable Authentication authentication,
+            MeteredRequest metered) {
+        if (!isModelAllowed(authentication, request.getModel())) {
+            return Mono.error(new ModelNotAllowedException(request.getModel()));
+        }
+
+        long promptTokens = RateLimiter.estimatePromptTokens(request);
+        if (promptTokens > maxPromptTokens) {
+            return Mono.error(new RequestTooLargeException(promptTokens, maxPromptTokens));
+        }
+
+        RateLimitDecision rateLimit = rateLimiter.tryAcquire(authentication, request);
+        if (!rateLimit.allowed()) {
+            return Mono.error(new RateLimitExceededException(rateLimit));
+        }
+
+        if (flexQueue != null
+                && request.getServiceTier() == ServiceTier.FLEX
+                && !Boolean.TRUE.equals(request.getStream())) {
+            return deferred(request, authentication, rateLimit, metered);
+        }
 
         if (Boolean.TRUE.equals(request.getStream())) {
-            logger.info("Processing streaming chat completion request");
             Publisher<Event<String>> stream =
                     chatCompletion.processStreamingChatCompletion(request);
-            return HttpResponse.ok(stream).contentType(MediaType.TEXT_EVENT_STREAM_TYPE);
+            // Wait for the first event so that failures before the stream starts, such as a
+            // rejected concurrency permit, are still returned as an error status
+            return Flux.from(stream)
+                    .<HttpResponse<?>>switchOnFirst(
+                            (first, events) ->
+                                    first.hasError()
+                                            ? Flux.error(first.getThrowable())
+                                            : Flux.just(
+                                                    eventStreamResponse(
+                                                            events, rateLimit, metered)),
+                            false)
+                    .single();
         } else {
-            logger.info("Processing non-streaming chat completion request");
-            CreateChatCompletionResponse response = chatCompletion.processChatCompletion(request);
-            logger.info("Chat completion request processed successfully");
-            return HttpResponse.ok(response).contentType(MediaType.APPLICATION_JSON_TYPE);
+            return chatCompletion
+                    .processChatCompletion(request)
+                    .doOnSuccess(response -> metered.success())
+                    .doOnNext(response -> rateLimiter.reconcile(rateLimit, response.getUsage()))
+                    .map(
+                            response ->
+                                    RateLimitHeaders.apply(
+                                            HttpResponse.ok(response)
+                                                    .contentType(MediaType.APPLICATION_JSON_TYPE),
+                                            rateLimit));
+        }
+    }
+
+    @Get(value = "/chat/completions/{completionId}", produces = MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Get deferred chat completion",
+            description = "Returns the result of a flex request that was queued with a 202")
+    public Mono<HttpResponse<?>> getChatCompletion(
+            String completionId, @Nullable Authentication authentication) {
+        FlexJob job = flexQueue == null ? null : flexQueue.find(completionId);
+        // Results are only visible to the key that submitted the request
+        String owner = Authentications.keyId(authentication);
+        if (job == null || !Objects.equals(job.getOwner(), owner)) {
+            return Mono.just(
+                    HttpResponse.notFound(
+                            new ErrorResponse(
+                                    new ApiError(
+                                            "No chat completion found with id " + completionId,
+                                            "invalid_request_error",
+                                            "completion_id",
+                                            "not_found"))));
+        }
+        if (!job.isCompleted()) {
+            return Mono.just(accepted(job));
+        }
+        return job.result().map(HttpResponse::ok);
+    }
+
+    private Mono<HttpResponse<?>> deferred(
+            CreateChatCompletionRequest request,
+            @Nullable Authentication authentication,
+            RateLimitDecision rateLimit,
+            MeteredRequest metered) {
+        // Submitting writes to the queue log, which must not block the event loop. The queue
+        // settles the usage when the job completes, whether or not the client still waits.
+        String owner = Authentications.keyId(authentication);
+        return Mono.fromCallable(() -> flexQueue.submit(request, owner, rateLimit))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(
+                        job ->
+                                job.result()
+                                        .timeout(flexQueue.getWaitTime(), Mono.empty())
+                                        .<HttpResponse<?>>map(
+                                                response ->
+                                                        RateLimitHeaders.apply(
+                                                                HttpResponse.ok(response),
+                                                                rateLimit))
+                                        .defaultIfEmpty(accepted(job)))
+                .doOnSuccess(
+                        response -> {
+                            if (response.getStatus() == HttpStatus.ACCEPTED) {
+                                metered.accepted();
+                            } else {
+                                metered.success();
+                            }
+                        });
+    }
+
+    private static HttpResponse<?> accepted(FlexJob job) {
+        return HttpResponse.accepted(URI.create("/v1/chat/completions/" + job.getId()))
+                .body(new DeferredChatCompletion(job.getId(), job.getCreatedAt() / 1000));
+    }
+
+    private static boolean isModelAllowed(@Nullable Authentication authentication, String model) {
+        if (authentication == null) {
+            return true;
         }
+        return !(authentication.getAttributes().get("allowedModels") instanceof Set<?> allowed)
+                || allowed.contains(model);
+    }
+
+    private HttpResponse<?> eventStreamResponse(
+            Flux<Event<String>> events, RateLimitDecision rateLimit, MeteredRequest metered) {
+        // The usage of a stream is only known once its last event is sent, so the completion
+        // tokens are charged then
+        Flux<Event<String>> meteredEvents =
+                events
+                        .doOnComplete(() -> rateLimiter.reconcile(rateLimit, metered.getUsage()))
+                        .doOnComplete(metered::success)
+                        .doOnError(metered::failure)
+                        .doOnCancel(metered::cancel);
+        return RateLimitHeaders.apply(
+                HttpResponse.ok(meteredEvents).contentType(MediaType.TEXT_EVENT_STREAM_TYPE),
+                rateLimit);
     }
 }
@@ -0,0 +1,31 @@
+package io.martinstyk.controller;
+
+import io.martinstyk.limit.ConcurrencyLimitExceededException;
+import io.martinstyk.model.ApiError;
+import io.martinstyk.model.ErrorResponse;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+public class ConcurrencyLimitExceededHandler
+        implements ExceptionHandler<
+                ConcurrencyLimitExceededException, HttpResponse<ErrorResponse>> {
+
+    @Override
+    public HttpResponse<ErrorResponse> handle(
+            HttpRequest request, ConcurrencyLimitExceededException exception) {
+        return HttpResponse.<ErrorResponse>status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(
+                        new ErrorResponse(
+                                new ApiError(
+                                        exception.getMessage(),
+                                        "requests",
+                                        null,
+                                        "rate_limit_exceeded")));
+    }
+}
@@ -0,0 +1,124 @@
+package io.martinstyk.controller;
+
+import io.martinstyk.batch.BatchStore;
+import io.martinstyk.batch.StoredFile;
+import io.martinstyk.model.ApiError;
+import io.martinstyk.model.ErrorResponse;
+import io.martinstyk.model.FileObject;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Part;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.multipart.StreamingFileUpload;
+import io.micronaut.http.server.types.files.SystemFile;
+import io.micronaut.security.annotation.Secured;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.rules.SecurityRule;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Controller("/v1/files")
+@Secured(SecurityRule.IS_AUTHENTICATED)
+@Requires(beans = BatchStore.class)
+@Tag(name = "Files", description = "OpenAI-compatible file endpoints for batch input and output")
+public class FilesController {
+
+    private static final String BATCH_PURPOSE = "batch";
+
+    private final BatchStore store;
+
+    public FilesController(BatchStore store) {
+        this.store = store;
+    }
+
+    @Post(consumes = MediaType.MULTIPART_FORM_DATA, produces = MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Upload file",
+            description = "Uploads a JSONL file of chat completion requests for the batch API")
+    public Mono<HttpResponse<?>> createFile(
+            @Part("file") StreamingFileUpload file,
+            @Part("purpose") String purpose,
+            @Nullable Authentication authentication) {
+        if (!BATCH_PURPOSE.equals(purpose)) {
+            file.discard();
+            return Mono.just(
+                    HttpResponse.badRequest(
+                            error(
+                                    "Only files with the purpose "
+                                            + BATCH_PURPOSE
+                                            + " are supported",
+                                    "purpose",
+                                    null)));
+        }
+
+        FileObject created = store.newFile(file.getFilename(), purpose);
+        Path content = store.getContent(created.id());
+        String owner = Authentications.keyId(authentication);
+        // The upload is streamed to disk, so files larger than memory can be accepted
+        return Mono.from(file.transferTo(content.toFile()))
+                .flatMap(
+                        transferred ->
+                                transferred
+                                        ? save(created, content, owner)
+                                        : Mono.<StoredFile>error(
+                                                new IOException(
+                                                        "Failed to store the uploaded file")))
+                .<HttpResponse<?>>map(stored -> HttpResponse.ok(stored.file()));
+    }
+
+    @Get(value = "/{fileId}", produces = MediaType.APPLICATION_JSON)
+    @Operation(summary = "Retrieve file", description = "Returns the metadata of a file")
+    public HttpResponse<?> getFile(String fileId, @Nullable Authentication authentication) {
+        StoredFile file = find(fileId, authentication);
+        return file == null ? notFound(fileId) : HttpResponse.ok(file.file());
+    }
+
+    @Get(value = "/{fileId}/content", produces = MediaType.APPLICATION_OCTET_STREAM)
+    @Operation(
+            summary = "Retrieve file content",
+            description =
+                    "Returns the content of a file. The output of a running batch can be read while"
+                            + " it grows.")
+    public HttpResponse<?> getFileContent(
+            String fileId, @Nullable Authentication authentication) {
+        StoredFile file = find(fileId, authentication);
+        if (file == null) {
+            return notFound(fileId);
+        }
+        return HttpResponse.ok(new SystemFile(store.getContent(fileId).toFile()));
+    }
+
+    private Mono<StoredFile> save(FileObject created, Path content, @Nullable String owner) {
+        return Mono.fromCallable(
+                        () -> store.saveFile(created.withBytes(Files.size(content)), owner))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private StoredFile find(String fileId, @Nullable Authentication authentication) {
+        StoredFile file = store.findFile(fileId);
+        // Files are only visible to the key that uploaded them
+        if (file == null || !Objects.equals(file.owner(), Authentications.keyId(authentication))) {
+            return null;
+        }
+        return file;
+    }
+
+    private static HttpResponse<?> notFound(String fileId) {
+        return HttpResponse.notFound(
+                error("No file found with id " + fileId, "file_id", "not_found"));
+    }
+
+    private static ErrorResponse error(String message, String param, @Nullable String code) {
+        return new ErrorResponse(new ApiError(message, "invalid_request_error", param, code));
+    }
+}
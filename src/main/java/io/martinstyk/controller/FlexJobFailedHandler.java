@@ -0,0 +1,27 @@
+package io.martinstyk.controller;
+
+import io.martinstyk.flex.FlexJobFailedException;
+import io.martinstyk.model.ApiError;
+import io.martinstyk.model.ErrorResponse;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+public class FlexJobFailedHandler
+        implements ExceptionHandler<FlexJobFailedException, HttpResponse<ErrorResponse>> {
+
+    @Override
+    public HttpResponse<ErrorResponse> handle(
+            HttpRequest request, FlexJobFailedException exception) {
+        return HttpResponse.<ErrorResponse>status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(
+                        new ErrorResponse(
+                                new ApiError(
+                                        exception.getMessage(), "server_error", null, null)));
+    }
+}
@@ -0,0 +1,30 @@
+package io.martinstyk.controller;
+
+import io.martinstyk.model.ApiError;
+import io.martinstyk.model.ErrorResponse;
+import io.martinstyk.security.ModelNotAllowedException;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+public class ModelNotAllowedHandler
+        implements ExceptionHandler<ModelNotAllowedException, HttpResponse<ErrorResponse>> {
+
+    @Override
+    public HttpResponse<ErrorResponse> handle(
+            HttpRequest request, ModelNotAllowedException exception) {
+        return HttpResponse.<ErrorResponse>status(HttpStatus.NOT_FOUND)
+                .body(
+                        new ErrorResponse(
+                                new ApiError(
+                                        exception.getMessage(),
+                                        "invalid_request_error",
+                                        "model",
+                                        "model_not_found")));
+    }
+}
@@ -0,0 +1,32 @@
+package io.martinstyk.controller;
+
+import io.martinstyk.model.ApiError;
+import io.martinstyk.model.ErrorResponse;
+import io.martinstyk.ratelimit.RateLimitExceededException;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+public class RateLimitExceededHandler
+        implements ExceptionHandler<RateLimitExceededException, HttpResponse<ErrorResponse>> {
+
+    @Override
+    public HttpResponse<ErrorResponse> handle(
+            HttpRequest request, RateLimitExceededException exception) {
+        return RateLimitHeaders.apply(
+                HttpResponse.<ErrorResponse>status(HttpStatus.TOO_MANY_REQUESTS)
+                        .body(
+                                new ErrorResponse(
+                                        new ApiError(
+                                                exception.getMessage(),
+                                                "requests",
+                                                null,
+                                                "rate_limit_exceeded"))),
+                exception.getDecision());
+    }
+}
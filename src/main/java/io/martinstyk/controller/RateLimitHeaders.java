@@ -0,0 +1,41 @@
+package io.martinstyk.controller;
+
+import io.martinstyk.ratelimit.RateLimitDecision;
+import io.martinstyk.ratelimit.RateLimitTier;
+import io.micronaut.http.MutableHttpResponse;
+import java.util.concurrent.TimeUnit;
+
+final class RateLimitHeaders {
+
+    private RateLimitHeaders() {}
+
+    static <T> MutableHttpResponse<T> apply(
+            MutableHttpResponse<T> response, RateLimitDecision decision) {
+        if (!decision.isLimited()) {
+            return response;
+        }
+        RateLimitTier tier = decision.tier();
+        return response
+                .header("x-ratelimit-limit-requests", Long.toString(tier.requestsPerMinute()))
+                .header("x-ratelimit-limit-tokens", Long.toString(tier.tokensPerMinute()))
+                .header(
+                        "x-ratelimit-remaining-requests",
+                        Long.toString(decision.remainingRequests()))
+                .header("x-ratelimit-remaining-tokens", Long.toString(decision.remainingTokens()))
+                .header("x-ratelimit-reset-requests", formatDuration(decision.resetRequestsNanos()))
+                .header("x-ratelimit-reset-tokens", formatDuration(decision.resetTokensNanos()));
+    }
+
+    // Same shape as OpenAI's values, e.g. "120ms", "17s" or "6m0s"
+    static String formatDuration(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis < 1000) {
+            return millis + "ms";
+        }
+        long seconds = (millis + 999) / 1000;
+        if (seconds < 60) {
+            return seconds + "s";
+        }
+        return seconds / 60 + "m" + seconds % 60 + "s";
+    }
+}
@@ -0,0 +1,30 @@
+package io.martinstyk.controller;
+
+import io.martinstyk.limit.RequestTooLargeException;
+import io.martinstyk.model.ApiError;
+import io.martinstyk.model.ErrorResponse;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Produces;
+import io.micronaut.http.server.exceptions.ExceptionHandler;
+import jakarta.inject.Singleton;
+
+@Produces
+@Singleton
+public class RequestTooLargeHandler
+        implements ExceptionHandler<RequestTooLargeException, HttpResponse<ErrorResponse>> {
+
+    @Override
+    public HttpResponse<ErrorResponse> handle(
+            HttpRequest request, RequestTooLargeException exception) {
+        return HttpResponse.<ErrorResponse>status(HttpStatus.REQUEST_ENTITY_TOO_LARGE)
+                .body(
+                        new ErrorResponse(
+                                new ApiError(
+                                        exception.getMessage(),
+                                        "invalid_request_error",
+                                        "messages",
+                                        "request_too_large")));
+    }
+}
@@ -0,0 +1,93 @@
+package io.martinstyk.flex;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.ratelimit.RateLimitDecision;
+import io.micronaut.core.annotation.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+public final class FlexJob {
+
+    private final String id;
+    private final String owner;
+    private final long createdAt;
+    private final Sinks.One<CreateChatCompletionResponse> result = Sinks.one();
+    private volatile CreateChatCompletionRequest request;
+    private volatile RateLimitDecision rateLimit;
+    private volatile CreateChatCompletionResponse response;
+    private volatile String error;
+    private volatile long completedAt;
+
+    FlexJob(
+            String id,
+            @Nullable String owner,
+            long createdAt,
+            @Nullable CreateChatCompletionRequest request,
+            @Nullable RateLimitDecision rateLimit) {
+        this.id = id;
+        this.owner = owner;
+        this.createdAt = createdAt;
+        this.request = request;
+        this.rateLimit = rateLimit;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isCompleted() {
+        return completedAt != 0;
+    }
+
+    public CreateChatCompletionResponse getResponse() {
+        return response;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /** Emits the response once the job completes, or the error the job failed with. */
+    public Mono<CreateChatCompletionResponse> result() {
+        return result.asMono();
+    }
+
+    CreateChatCompletionRequest getRequest() {
+        return request;
+    }
+
+    /** The budget charged on submit, which is not kept across restarts. */
+    @Nullable RateLimitDecision getRateLimit() {
+        return rateLimit;
+    }
+
+    long getCompletedAt() {
+        return completedAt;
+    }
+
+    void complete(
+            @Nullable CreateChatCompletionResponse response,
+            @Nullable String error,
+            long completedAt) {
+        this.response = response;
+        this.error = error;
+        this.completedAt = completedAt;
+        // The prompt and the budget are no longer needed once the result is known
+        this.request = null;
+        this.rateLimit = null;
+        if (response != null) {
+            result.tryEmitValue(response);
+        } else {
+            result.tryEmitError(new FlexJobFailedException(id, error));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package io.martinstyk.flex;
+
+public class FlexJobFailedException extends RuntimeException {
+
+    public FlexJobFailedException(String id, String error) {
+        super("Deferred chat completion " + id + " failed: " + error);
+    }
+}
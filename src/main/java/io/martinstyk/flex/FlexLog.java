@@ -0,0 +1,112 @@
+package io.martinstyk.flex;
+
+import io.micronaut.core.type.Argument;
+import io.micronaut.json.JsonMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Append-only log of JSON lines that survives restarts of the gateway. */
+final class FlexLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlexLog.class);
+
+    private static final Argument<FlexLogEntry> ENTRY_TYPE = Argument.of(FlexLogEntry.class);
+    private static final byte NEWLINE = '\n';
+
+    private final Path file;
+    private final JsonMapper jsonMapper;
+    private FileChannel channel;
+
+    FlexLog(Path file, JsonMapper jsonMapper) throws IOException {
+        this.file = file;
+        this.jsonMapper = jsonMapper;
+        Files.createDirectories(file.getParent());
+        this.channel = open(file);
+    }
+
+    synchronized List<FlexLogEntry> read() throws IOException {
+        List<FlexLogEntry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                entries.add(jsonMapper.readValue(line, ENTRY_TYPE));
+            } catch (IOException e) {
+                // Only the last line can be torn by a crash during a write
+                logger.warn("Skipping unreadable entry in flex queue log {}", file, e);
+            }
+        }
+        return entries;
+    }
+
+    synchronized void append(FlexLogEntry entry, boolean sync) throws IOException {
+        write(channel, line(entry));
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Replaces the log with the supplied entries, dropping everything no longer needed. The entries
+     * are taken under the lock, so an entry appended meanwhile is either in them or written after.
+     */
+    synchronized void rewrite(Supplier<Collection<FlexLogEntry>> entries) throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel out =
+                FileChannel.open(
+                        compacted,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            for (FlexLogEntry entry : entries.get()) {
+                write(out, line(entry));
+            }
+            out.force(false);
+        }
+        channel.close();
+        Files.move(
+                compacted,
+                file,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel = open(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer line(FlexLogEntry entry) throws IOException {
+        byte[] json = jsonMapper.writeValueAsBytes(entry);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put(NEWLINE).flip();
+        return buffer;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND,
+                StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,40 @@
+package io.martinstyk.flex;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * One line of the flex queue log: a submitted request, or the outcome of an earlier one with
+ * either a response or an error.
+ */
+@Serdeable
+public record FlexLogEntry(
+        @JsonProperty("id") String id,
+        @JsonProperty("owner") @Nullable String owner,
+        @JsonProperty("created_at") long createdAt,
+        @JsonProperty("request") @Nullable CreateChatCompletionRequest request,
+        @JsonProperty("response") @Nullable CreateChatCompletionResponse response,
+        @JsonProperty("error") @Nullable String error) {
+
+    static FlexLogEntry submitted(FlexJob job) {
+        return new FlexLogEntry(
+                job.getId(), job.getOwner(), job.getCreatedAt(), job.getRequest(), null, null);
+    }
+
+    static FlexLogEntry completed(FlexJob job) {
+        return new FlexLogEntry(
+                job.getId(),
+                job.getOwner(),
+                job.getCreatedAt(),
+                null,
+                job.getResponse(),
+                job.getError());
+    }
+
+    boolean isCompleted() {
+        return response != null || error != null;
+    }
+}
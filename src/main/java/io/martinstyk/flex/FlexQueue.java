@@ -0,0 +1,274 @@
+package io.martinstyk.flex;
+
+import io.martinstyk.config.FlexQueueProperties;
+import io.martinstyk.limit.ConcurrencyLimitExceededException;
+import io.martinstyk.limit.ConcurrencyLimiter;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.ratelimit.RateLimitDecision;
+import io.martinstyk.ratelimit.RateLimiter;
+import io.martinstyk.service.ChatCompletion;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.ConfigurationException;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable queue of latency tolerant flex requests. Requests are drained at a bounded rate while
+ * the upstream concurrency is below the watermark, and their results are kept for pickup.
+ */
+@Singleton
+@Requires(property = "genai.flex-queue.enabled", value = "true")
+public class FlexQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlexQueue.class);
+
+    private static final String LOG_FILE = "flex-queue.log";
+    private static final String ID_PREFIX = "chatcmpl-flex-";
+
+    private final ChatCompletion chatCompletion;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final RateLimiter rateLimiter;
+    private final FlexLog log;
+    private final int maxQueueSize;
+    private final int maxDrainPerInterval;
+    private final int maxInFlight;
+    private final double watermark;
+    private final Duration waitTime;
+    private final long retentionMillis;
+
+    private final Map<String, FlexJob> jobs = new ConcurrentHashMap<>();
+    private final Deque<FlexJob> pending = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean shed;
+
+    public FlexQueue(
+            FlexQueueProperties properties,
+            ChatCompletion chatCompletion,
+            ConcurrencyLimiter concurrencyLimiter,
+            RateLimiter rateLimiter,
+            JsonMapper jsonMapper) {
+        // Without the limiter the utilization is always 0 and the queue would drain at full rate
+        if (!concurrencyLimiter.isEnabled()) {
+            throw new ConfigurationException(
+                    "genai.flex-queue.enabled requires genai.concurrency-limit.enabled");
+        }
+        this.chatCompletion = chatCompletion;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimiter = rateLimiter;
+        this.maxQueueSize = properties.getMaxQueueSize();
+        this.maxDrainPerInterval = properties.getMaxDrainPerInterval();
+        this.maxInFlight = properties.getMaxInFlight();
+        this.watermark = properties.getWatermark();
+        this.waitTime = properties.getWaitTime();
+        this.retentionMillis = properties.getRetention().toMillis();
+        Path file = Path.of(properties.getDirectory()).resolve(LOG_FILE);
+        try {
+            this.log = new FlexLog(file, jsonMapper);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the flex queue log " + file, e);
+        }
+    }
+
+    /**
+     * Durably records the request before it is queued, so it is not lost on a restart. The
+     * budget charged for the request is settled with its usage once the job completes.
+     */
+    public FlexJob submit(
+            CreateChatCompletionRequest request,
+            @Nullable String owner,
+            RateLimitDecision rateLimit)
+            throws IOException {
+        if (pendingCount.incrementAndGet() > maxQueueSize) {
+            pendingCount.decrementAndGet();
+            throw new ConcurrencyLimitExceededException(request.getModel());
+        }
+        FlexJob job =
+                new FlexJob(
+                        ID_PREFIX + UUID.randomUUID(),
+                        owner,
+                        System.currentTimeMillis(),
+                        request,
+                        rateLimit);
+        // Known before it is logged, so a compaction running meanwhile keeps the entry
+        jobs.put(job.getId(), job);
+        try {
+            log.append(FlexLogEntry.submitted(job), true);
+        } catch (IOException e) {
+            jobs.remove(job.getId());
+            pendingCount.decrementAndGet();
+            throw e;
+        }
+        pending.add(job);
+        return job;
+    }
+
+    public @Nullable FlexJob find(String id) {
+        return jobs.get(id);
+    }
+
+    /** How long a client waits for its result before getting an id to pick it up later. */
+    public Duration getWaitTime() {
+        return waitTime;
+    }
+
+    public int getPending() {
+        return pendingCount.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Scheduled(
+            fixedDelay = "${genai.flex-queue.drain-interval:1s}",
+            initialDelay = "${genai.flex-queue.drain-interval:1s}")
+    void drain() {
+        expire();
+        // Flex work only uses capacity that interactive traffic leaves idle. A shed request means
+        // the upstream is full, so the rest waits for the next drain.
+        shed = false;
+        int started = 0;
+        while (started < maxDrainPerInterval
+                && !shed
+                && inFlight.get() < maxInFlight
+                && concurrencyLimiter.getUtilization() < watermark) {
+            FlexJob job = pending.poll();
+            if (job == null) {
+                return;
+            }
+            pendingCount.decrementAndGet();
+            inFlight.incrementAndGet();
+            started++;
+            chatCompletion
+                    .processChatCompletion(job.getRequest())
+                    .subscribe(
+                            response -> complete(job, response, null),
+                            error -> {
+                                if (error instanceof ConcurrencyLimitExceededException) {
+                                    requeue(job);
+                                } else {
+                                    complete(job, null, String.valueOf(error.getMessage()));
+                                }
+                            });
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        log.close();
+    }
+
+    /** Puts a job that was shed upstream back at the head of the queue for the next drain. */
+    private void requeue(FlexJob job) {
+        shed = true;
+        inFlight.decrementAndGet();
+        pendingCount.incrementAndGet();
+        pending.addFirst(job);
+    }
+
+    private void complete(
+            FlexJob job, @Nullable CreateChatCompletionResponse response, @Nullable String error) {
+        inFlight.decrementAndGet();
+        RateLimitDecision rateLimit = job.getRateLimit();
+        if (response != null && rateLimit != null) {
+            rateLimiter.reconcile(rateLimit, response.getUsage());
+        }
+        job.complete(response, error, System.currentTimeMillis());
+        try {
+            // A lost result only means the request runs again after a restart
+            log.append(FlexLogEntry.completed(job), false);
+        } catch (IOException e) {
+            logger.warn("Failed to record the result of flex request {}", job.getId(), e);
+        }
+    }
+
+    private void expire() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        boolean expired =
+                jobs.values()
+                        .removeIf(job -> job.isCompleted() && job.getCompletedAt() < cutoff);
+        if (expired) {
+            compact();
+        }
+    }
+
+    void compact() {
+        try {
+            log.rewrite(this::snapshot);
+        } catch (IOException e) {
+            logger.warn("Failed to compact the flex queue log", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        Map<String, FlexLogEntry> submitted = new LinkedHashMap<>();
+        Map<String, FlexLogEntry> completed = new LinkedHashMap<>();
+        for (FlexLogEntry entry : log.read()) {
+            (entry.isCompleted() ? completed : submitted).put(entry.id(), entry);
+        }
+
+        long now = System.currentTimeMillis();
+        List<FlexJob> recovered = new ArrayList<>();
+        for (FlexLogEntry entry : completed.values()) {
+            FlexJob job = new FlexJob(entry.id(), entry.owner(), entry.createdAt(), null, null);
+            // The log has no completion time, so recovered results are kept for a full period
+            job.complete(entry.response(), entry.error(), now);
+            jobs.put(job.getId(), job);
+        }
+        for (FlexLogEntry entry : submitted.values()) {
+            if (!completed.containsKey(entry.id()) && entry.request() != null) {
+                recovered.add(
+                        new FlexJob(
+                                entry.id(),
+                                entry.owner(),
+                                entry.createdAt(),
+                                entry.request(),
+                                null));
+            }
+        }
+        recovered.sort(Comparator.comparingLong(FlexJob::getCreatedAt));
+        for (FlexJob job : recovered) {
+            jobs.put(job.getId(), job);
+            pending.add(job);
+            pendingCount.incrementAndGet();
+        }
+        log.rewrite(this::snapshot);
+        if (!jobs.isEmpty()) {
+            logger.info(
+                    "Recovered {} pending and {} completed flex requests",
+                    recovered.size(),
+                    completed.size());
+        }
+    }
+
+    private List<FlexLogEntry> snapshot() {
+        List<FlexLogEntry> entries = new ArrayList<>(jobs.size());
+        for (FlexJob job : jobs.values()) {
+            entries.add(
+                    job.isCompleted() ? FlexLogEntry.completed(job) : FlexLogEntry.submitted(job));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,216 @@
+package io.martinstyk.limit;
+
+import com.oracle.bmc.model.BmcException;
+import io.martinstyk.config.ConcurrencyLimitProperties;
+import io.martinstyk.model.ServiceTier;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+public class AdaptiveConcurrencyLimit {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final String model;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final int minRttWindow;
+    private final int maxQueueSize;
+    private final Duration maxQueueTime;
+    private final int flexMaxQueueSize;
+    private final Duration flexMaxQueueTime;
+    private final int priorityWeight;
+
+    private final Deque<Waiter> priorityWaiters = new ArrayDeque<>();
+    private final Deque<Waiter> defaultWaiters = new ArrayDeque<>();
+    private final Deque<Waiter> flexWaiters = new ArrayDeque<>();
+    private int priorityStreak;
+    private double limit;
+    private int inFlight;
+    private long minRttNanos;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    public AdaptiveConcurrencyLimit(String model, ConcurrencyLimitProperties properties) {
+        this.model = model;
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.latencyTolerance = properties.getLatencyTolerance();
+        this.minRttWindow = properties.getMinRttWindow();
+        this.maxQueueSize = properties.getMaxQueueSize();
+        this.maxQueueTime = properties.getMaxQueueTime();
+        this.flexMaxQueueSize = properties.getFlexMaxQueueSize();
+        this.flexMaxQueueTime = properties.getFlexMaxQueueTime();
+        this.priorityWeight = properties.getPriorityWeight();
+        this.limit = properties.getInitialLimit();
+    }
+
+    public Mono<Permit> acquire(ServiceTier serviceTier) {
+        return Mono.defer(
+                () -> {
+                    Deque<Waiter> queue = queue(serviceTier);
+                    Waiter waiter;
+                    synchronized (this) {
+                        if (inFlight < getLimit()) {
+                            inFlight++;
+                            return Mono.just(new LimitPermit());
+                        }
+                        int queueSize = queue == flexWaiters ? flexMaxQueueSize : maxQueueSize;
+                        if (queue.size() >= queueSize) {
+                            return Mono.error(new ConcurrencyLimitExceededException(model));
+                        }
+                        waiter = new Waiter(queue);
+                        queue.add(waiter);
+                    }
+                    // Flex requests trade latency for throughput and may wait much longer
+                    Duration queueTime = queue == flexWaiters ? flexMaxQueueTime : maxQueueTime;
+                    return waiter.sink
+                            .asMono()
+                            .doOnCancel(() -> cancel(waiter))
+                            .timeout(
+                                    queueTime,
+                                    Mono.error(() -> new ConcurrencyLimitExceededException(model)));
+                });
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return priorityWaiters.size() + defaultWaiters.size() + flexWaiters.size();
+    }
+
+    public synchronized int getQueued(ServiceTier serviceTier) {
+        return queue(serviceTier).size();
+    }
+
+    public synchronized Duration getMinRtt() {
+        return Duration.ofNanos(minRttNanos);
+    }
+
+    private void cancel(Waiter waiter) {
+        Permit granted;
+        synchronized (this) {
+            if (waiter.queue.remove(waiter)) {
+                return;
+            }
+            granted = waiter.permit;
+        }
+        // The permit was handed over concurrently with the cancellation
+        if (granted != null) {
+            granted.release();
+        }
+    }
+
+    private void release() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            Waiter waiter;
+            while (inFlight < getLimit() && (waiter = nextWaiter()) != null) {
+                waiter.permit = new LimitPermit();
+                inFlight++;
+                granted.add(waiter);
+            }
+        }
+        for (Waiter waiter : granted) {
+            waiter.sink.tryEmitValue(waiter.permit);
+        }
+    }
+
+    private Deque<Waiter> queue(ServiceTier serviceTier) {
+        return switch (serviceTier == null ? ServiceTier.AUTO : serviceTier) {
+            case PRIORITY -> priorityWaiters;
+            case FLEX -> flexWaiters;
+            case AUTO, DEFAULT -> defaultWaiters;
+        };
+    }
+
+    private Waiter nextWaiter() {
+        // Priority and default requests share freed permits by weight, so neither starves the
+        // other; flex requests only get permits that no interactive request is waiting for
+        if (!priorityWaiters.isEmpty()
+                && (priorityStreak < priorityWeight || defaultWaiters.isEmpty())) {
+            priorityStreak++;
+            return priorityWaiters.poll();
+        }
+        priorityStreak = 0;
+        if (!defaultWaiters.isEmpty()) {
+            return defaultWaiters.poll();
+        }
+        return flexWaiters.poll();
+    }
+
+    private synchronized void onSample(long rttNanos) {
+        if (minRttNanos == 0 || rttNanos < minRttNanos) {
+            minRttNanos = rttNanos;
+        }
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        // Restart the baseline periodically so it can follow a model that got slower
+        if (++windowSamples >= minRttWindow) {
+            minRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+
+        if (rttNanos > minRttNanos * latencyTolerance) {
+            decrease();
+        } else if (inFlight * 2 >= limit) {
+            // Only grow while the limit is actually being used
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    private synchronized void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    private static final class Waiter {
+        private final Sinks.One<Permit> sink = Sinks.one();
+        private final Deque<Waiter> queue;
+        private Permit permit;
+
+        private Waiter(Deque<Waiter> queue) {
+            this.queue = queue;
+        }
+    }
+
+    private final class LimitPermit implements Permit {
+
+        private final long grantedAtNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onResponse() {
+            onSample(System.nanoTime() - grantedAtNanos);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            if (error instanceof BmcException bmcException
+                    && bmcException.getStatusCode() == TOO_MANY_REQUESTS) {
+                decrease();
+            }
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveConcurrencyLimit.this.release();
+            }
+        }
+    }
+}
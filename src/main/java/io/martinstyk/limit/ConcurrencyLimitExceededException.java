@@ -0,0 +1,8 @@
+package io.martinstyk.limit;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String model) {
+        super("Too many concurrent requests for model " + model + ", please retry shortly");
+    }
+}
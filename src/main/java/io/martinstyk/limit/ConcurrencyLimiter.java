@@ -0,0 +1,45 @@
+package io.martinstyk.limit;
+
+import io.martinstyk.config.ConcurrencyLimitProperties;
+import io.martinstyk.model.ServiceTier;
+import jakarta.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import reactor.core.publisher.Mono;
+
+@Singleton
+public class ConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties properties;
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    public Mono<Permit> acquire(String model, ServiceTier serviceTier) {
+        if (!properties.isEnabled()) {
+            return Mono.just(Permit.UNLIMITED);
+        }
+        return limits
+                .computeIfAbsent(model, key -> new AdaptiveConcurrencyLimit(key, properties))
+                .acquire(serviceTier);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /** Share of the limit in use by the busiest model, 0 when limiting is disabled. */
+    public double getUtilization() {
+        double utilization = 0;
+        for (AdaptiveConcurrencyLimit limit : limits.values()) {
+            utilization = Math.max(utilization, (double) limit.getInFlight() / limit.getLimit());
+        }
+        return utilization;
+    }
+
+    public Map<String, AdaptiveConcurrencyLimit> getLimits() {
+        return Map.copyOf(limits);
+    }
+}
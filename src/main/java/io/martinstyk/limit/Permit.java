@@ -0,0 +1,22 @@
+package io.martinstyk.limit;
+
+public interface Permit {
+
+    Permit UNLIMITED =
+            new Permit() {
+                @Override
+                public void onResponse() {}
+
+                @Override
+                public void onError(Throwable error) {}
+
+                @Override
+                public void release() {}
+            };
+
+    void onResponse();
+
+    void onError(Throwable error);
+
+    void release();
+}
@@ -0,0 +1,126 @@
+package io.martinstyk.limit;
+
+import io.martinstyk.config.RequestLimitProperties;
+import io.martinstyk.model.ApiError;
+import io.martinstyk.model.ErrorResponse;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.HttpServerFilter;
+import io.micronaut.http.filter.ServerFilterChain;
+import io.micronaut.http.filter.ServerFilterPhase;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Admits chat completion requests by their declared body size before the body is read, and
+ * bounds the bytes of all bodies being read at once. A body without a declared size is refused,
+ * so the limit does not depend on the server-wide request size.
+ */
+@Filter("/v1/chat/completions")
+public class RequestAdmissionFilter implements HttpServerFilter {
+
+    private static final ErrorResponse BODY_TOO_LARGE =
+            new ErrorResponse(
+                    new ApiError(
+                            "Request body is too large",
+                            "invalid_request_error",
+                            null,
+                            "request_too_large"));
+    private static final ErrorResponse LENGTH_REQUIRED =
+            new ErrorResponse(
+                    new ApiError(
+                            "Request body must have a Content-Length",
+                            "invalid_request_error",
+                            null,
+                            "length_required"));
+    private static final ErrorResponse OVERLOADED =
+            new ErrorResponse(
+                    new ApiError(
+                            "The gateway is processing too many requests, please retry shortly",
+                            "requests",
+                            null,
+                            "rate_limit_exceeded"));
+
+    private static final String RESERVATION = "genai.admission.reservation";
+
+    private final long maxBodySize;
+    private final long maxInFlightBytes;
+    private final AtomicLong inFlightBytes = new AtomicLong();
+
+    public RequestAdmissionFilter(RequestLimitProperties properties) {
+        this.maxBodySize = properties.getMaxBodySize();
+        this.maxInFlightBytes = properties.getMaxInFlightBytes();
+    }
+
+    @Override
+    public Publisher<MutableHttpResponse<?>> doFilter(
+            HttpRequest<?> request, ServerFilterChain chain) {
+        long contentLength = request.getContentLength();
+        if (contentLength < 0) {
+            return Mono.just(HttpResponse.status(HttpStatus.LENGTH_REQUIRED).body(LENGTH_REQUIRED));
+        }
+        if (contentLength > maxBodySize) {
+            return Mono.just(
+                    HttpResponse.status(HttpStatus.REQUEST_ENTITY_TOO_LARGE).body(BODY_TOO_LARGE));
+        }
+
+        if (!tryReserve(contentLength)) {
+            return Mono.just(HttpResponse.status(HttpStatus.TOO_MANY_REQUESTS).body(OVERLOADED));
+        }
+        Reservation reservation = new Reservation(contentLength);
+        request.setAttribute(RESERVATION, reservation);
+        // Requests that fail before their body is bound give the bytes back with the response
+        return Flux.from(chain.proceed(request)).doFinally(signal -> reservation.release());
+    }
+
+    /** Gives back the bytes reserved for a body once it has been read, while the call goes on. */
+    public static void bodyRead(HttpRequest<?> request) {
+        request.getAttribute(RESERVATION, Reservation.class).ifPresent(Reservation::release);
+    }
+
+    @Override
+    public int getOrder() {
+        // Unauthenticated requests are rejected by the security filter without using the budget
+        return ServerFilterPhase.SECURITY.after();
+    }
+
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    boolean tryReserve(long bytes) {
+        long current;
+        do {
+            current = inFlightBytes.get();
+            if (current + bytes > maxInFlightBytes) {
+                return false;
+            }
+        } while (!inFlightBytes.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    void release(long bytes) {
+        inFlightBytes.addAndGet(-bytes);
+    }
+
+    private final class Reservation {
+
+        private final AtomicLong bytes;
+
+        Reservation(long bytes) {
+            this.bytes = new AtomicLong(bytes);
+        }
+
+        void release() {
+            long released = bytes.getAndSet(0);
+            if (released > 0) {
+                RequestAdmissionFilter.this.release(released);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.martinstyk.limit;
+
+public class RequestTooLargeException extends RuntimeException {
+
+    public RequestTooLargeException(long estimatedTokens, long maxTokens) {
+        super(
+                "Request has an estimated "
+                        + estimatedTokens
+                        + " prompt tokens, more than the limit of "
+                        + maxTokens);
+    }
+}
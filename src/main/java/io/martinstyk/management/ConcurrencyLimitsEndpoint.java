@@ -0,0 +1,36 @@
+package io.martinstyk.management;
+
+import io.martinstyk.limit.ConcurrencyLimiter;
+import io.martinstyk.model.ServiceTier;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import java.util.HashMap;
+import java.util.Map;
+
+@Endpoint(id = "concurrencylimits")
+public class ConcurrencyLimitsEndpoint {
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitsEndpoint(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Read
+    public Map<String, Object> concurrencyLimits() {
+        Map<String, Object> concurrencyLimits = new HashMap<>();
+        concurrencyLimiter
+                .getLimits()
+                .forEach(
+                        (model, limit) ->
+                                concurrencyLimits.put(
+                                        model,
+                                        Map.of(
+                                                "limit", limit.getLimit(),
+                                                "inFlight", limit.getInFlight(),
+                                                "queued", limit.getQueued(),
+                                                "queuedFlex", limit.getQueued(ServiceTier.FLEX),
+                                                "minRttMillis", limit.getMinRtt().toMillis())));
+        return concurrencyLimits;
+    }
+}
@@ -0,0 +1,36 @@
+package io.martinstyk.management;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.martinstyk.cache.ChatCompletionResponseCache;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.management.endpoint.annotation.Delete;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import java.util.Map;
+
+@Endpoint(id = "responsecache")
+@Requires(beans = ChatCompletionResponseCache.class)
+public class ResponseCacheEndpoint {
+
+    private final ChatCompletionResponseCache cache;
+
+    public ResponseCacheEndpoint(ChatCompletionResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        return Map.of(
+                "size", cache.estimatedSize(),
+                "hitCount", stats.hitCount(),
+                "missCount", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictionCount", stats.evictionCount());
+    }
+
+    @Delete
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
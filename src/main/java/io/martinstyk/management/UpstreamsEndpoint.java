@@ -0,0 +1,36 @@
+package io.martinstyk.management;
+
+import io.martinstyk.upstream.UpstreamPool;
+import io.martinstyk.upstream.UpstreamTarget;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Endpoint(id = "upstreams")
+@Requires(beans = UpstreamPool.class)
+public class UpstreamsEndpoint {
+
+    private final UpstreamPool upstreamPool;
+
+    public UpstreamsEndpoint(UpstreamPool upstreamPool) {
+        this.upstreamPool = upstreamPool;
+    }
+
+    @Read
+    public Map<String, Object> upstreams() {
+        Map<String, Object> upstreams = new LinkedHashMap<>();
+        for (UpstreamTarget target : upstreamPool.getTargets()) {
+            upstreams.put(
+                    target.getName(),
+                    Map.of(
+                            "available", target.isAvailable(),
+                            "weight", target.getWeight(),
+                            "outstandingRequests", target.getOutstandingRequests(),
+                            "consecutiveFailures", target.getConsecutiveFailures(),
+                            "ewmaLatencyMillis", target.getEwmaLatency().toMillis()));
+        }
+        return upstreams;
+    }
+}
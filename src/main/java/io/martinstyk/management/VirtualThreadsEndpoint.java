@@ -0,0 +1,31 @@
+package io.martinstyk.management;
+
+import io.martinstyk.service.ModelPermits;
+import io.martinstyk.service.VirtualThreadChatInvoker;
+import io.martinstyk.service.VirtualThreadPinningMonitor;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import java.util.Map;
+
+@Endpoint(id = "virtualthreads")
+@Requires(beans = {VirtualThreadChatInvoker.class, VirtualThreadPinningMonitor.class})
+public class VirtualThreadsEndpoint {
+
+    private final ModelPermits modelPermits;
+    private final VirtualThreadPinningMonitor pinningMonitor;
+
+    public VirtualThreadsEndpoint(
+            ModelPermits modelPermits, VirtualThreadPinningMonitor pinningMonitor) {
+        this.modelPermits = modelPermits;
+        this.pinningMonitor = pinningMonitor;
+    }
+
+    @Read
+    public Map<String, Object> virtualThreads() {
+        return Map.of(
+                "pinnedEvents", pinningMonitor.getPinnedEvents(),
+                "pinnedTimeMillis", pinningMonitor.getPinnedTime().toMillis(),
+                "availablePermitsPerModel", modelPermits.getAvailablePermits());
+    }
+}
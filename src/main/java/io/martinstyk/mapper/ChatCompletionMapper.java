@@ -1,9 +1,13 @@
 package io.martinstyk.mapper;
 
 import com.oracle.bmc.generativeaiinference.model.AssistantMessage;
+import com.oracle.bmc.generativeaiinference.model.BaseChatResponse;
+import com.oracle.bmc.generativeaiinference.model.ChatChoice;
 import com.oracle.bmc.generativeaiinference.model.ChatContent;
+import com.oracle.bmc.generativeaiinference.model.ChatResult;
 import com.oracle.bmc.generativeaiinference.model.FunctionDefinition;
 import com.oracle.bmc.generativeaiinference.model.GenericChatRequest;
+import com.oracle.bmc.generativeaiinference.model.GenericChatResponse;
 import com.oracle.bmc.generativeaiinference.model.Message;
 import com.oracle.bmc.generativeaiinference.model.SystemMessage;
 import com.oracle.bmc.generativeaiinference.model.TextContent;
@@ -13,13 +17,24 @@ import com.oracle.bmc.generativeaiinference.model.ToolChoiceNone;
 import com.oracle.bmc.generativeaiinference.model.ToolChoiceRequired;
 import com.oracle.bmc.generativeaiinference.model.ToolDefinition;
 import com.oracle.bmc.generativeaiinference.model.UserMessage;
+import io.martinstyk.model.ChatCompletionChoice;
+import io.martinstyk.model.ChatCompletionResponseMessage;
 import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.model.FinishReason;
+import io.martinstyk.model.ResponseObject;
+import io.martinstyk.model.Usage;
 import io.martinstyk.model.message.ChatCompletionRequestMessage;
 import io.martinstyk.model.tools.FunctionTool;
 import io.martinstyk.model.tools.Tool;
+import io.martinstyk.streaming.ChatCompletionChunkWriter;
+import io.martinstyk.streaming.OciStreamEvent;
+import io.micronaut.http.sse.Event;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
@@ -39,7 +54,6 @@ public interface ChatCompletionMapper {
     @Mapping(target = "isStream", source = "stream")
     @Mapping(target = "numGenerations", source = "n")
     @Mapping(target = "logProbs", source = "logprobs")
-    @Mapping(target = "seed", ignore = true)
     @Mapping(target = "isEcho", ignore = true)
     @Mapping(target = "topK", ignore = true)
     @Mapping(target = "copy", ignore = true)
@@ -115,4 +129,116 @@ public interface ChatCompletionMapper {
 
         return tools;
     }
+
+    default CreateChatCompletionResponse toCreateChatCompletionResponse(
+            ChatResult chatResult, String model) {
+        BaseChatResponse chatResponse = chatResult.getChatResponse();
+        if (!(chatResponse instanceof GenericChatResponse genericChatResponse)) {
+            throw new IllegalStateException(
+                    "Unsupported OCI chat response format: " + chatResponse.getClass().getName());
+        }
+
+        CreateChatCompletionResponse response = new CreateChatCompletionResponse();
+        response.setId("chatcmpl-" + UUID.randomUUID());
+        response.setObject(ResponseObject.CHAT_COMPLETION);
+        response.setCreated(
+                genericChatResponse.getTimeCreated() != null
+                        ? genericChatResponse.getTimeCreated().toInstant().getEpochSecond()
+                        : Instant.now().getEpochSecond());
+        response.setModel(model);
+        response.setChoices(mapChoices(genericChatResponse.getChoices()));
+        response.setUsage(mapUsage(genericChatResponse.getUsage()));
+        return response;
+    }
+
+    default List<ChatCompletionChoice> mapChoices(List<ChatChoice> ociChoices) {
+        if (ociChoices == null) {
+            return List.of();
+        }
+
+        List<ChatCompletionChoice> choices = new ArrayList<>(ociChoices.size());
+        for (int i = 0; i < ociChoices.size(); i++) {
+            ChatChoice ociChoice = ociChoices.get(i);
+            ChatCompletionResponseMessage message =
+                    new ChatCompletionResponseMessage(
+                            "assistant", extractText(ociChoice.getMessage()));
+            int index = ociChoice.getIndex() != null ? ociChoice.getIndex() : i;
+            choices.add(
+                    new ChatCompletionChoice(
+                            index, message, mapFinishReason(ociChoice.getFinishReason())));
+        }
+        return choices;
+    }
+
+    default String extractText(Message ociMessage) {
+        if (ociMessage == null || ociMessage.getContent() == null) {
+            return "";
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (ChatContent content : ociMessage.getContent()) {
+            if (content instanceof TextContent textContent && textContent.getText() != null) {
+                text.append(textContent.getText());
+            }
+        }
+        return text.toString();
+    }
+
+    default FinishReason mapFinishReason(String ociFinishReason) {
+        if (ociFinishReason == null) {
+            return FinishReason.STOP;
+        }
+
+        return switch (ociFinishReason.toLowerCase()) {
+            case "length", "max_tokens" -> FinishReason.LENGTH;
+            case "tool_calls" -> FinishReason.TOOL_CALLS;
+            case "content_filter", "error_toxic" -> FinishReason.CONTENT_FILTER;
+            default -> FinishReason.STOP;
+        };
+    }
+
+    default Usage mapUsage(com.oracle.bmc.generativeaiinference.model.Usage ociUsage) {
+        if (ociUsage == null) {
+            return null;
+        }
+
+        return new Usage(
+                ociUsage.getPromptTokens(),
+                ociUsage.getCompletionTokens(),
+                ociUsage.getTotalTokens());
+    }
+
+    default Event<String> toChatCompletionChunk(
+            ChatCompletionChunkWriter chunkWriter, OciStreamEvent event) {
+        int index = event.getIndex() != null ? event.getIndex() : 0;
+        FinishReason finishReason =
+                event.getFinishReason() != null ? mapFinishReason(event.getFinishReason()) : null;
+        return chunkWriter.write(
+                index, null, extractText(event), finishReason, mapUsage(event.getUsage()));
+    }
+
+    default Usage mapUsage(OciStreamEvent.Usage ociUsage) {
+        if (ociUsage == null) {
+            return null;
+        }
+
+        return new Usage(
+                ociUsage.getPromptTokens(),
+                ociUsage.getCompletionTokens(),
+                ociUsage.getTotalTokens());
+    }
+
+    default String extractText(OciStreamEvent event) {
+        if (event.getMessage() == null || event.getMessage().getContent() == null) {
+            return null;
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (OciStreamEvent.Content content : event.getMessage().getContent()) {
+            if (content.getText() != null) {
+                text.append(content.getText());
+            }
+        }
+        return text.toString();
+    }
 }
@@ -0,0 +1,117 @@
+package io.martinstyk.metrics;
+
+import io.martinstyk.config.AccessLogProperties;
+import io.martinstyk.limit.ConcurrencyLimitExceededException;
+import io.martinstyk.limit.RequestTooLargeException;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.message.ChatCompletionRequestMessage;
+import io.martinstyk.ratelimit.RateLimitExceededException;
+import io.martinstyk.security.ModelNotAllowedException;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+
+/**
+ * Writes one structured event per chat completion to the {@code io.martinstyk.access} logger,
+ * which logback sends through a bounded asynchronous appender.
+ */
+@Singleton
+public class AccessLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger("io.martinstyk.access");
+
+    private static final Pattern SECRETS =
+            Pattern.compile("sk-[A-Za-z0-9_-]{8,}|[\\w.+-]+@[\\w-]+\\.[\\w.-]+");
+    private static final String REDACTED = "[redacted]";
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final boolean logPrompts;
+    private final int maxPromptLength;
+
+    public AccessLogger(AccessLogProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.sampleRate = properties.getSampleRate();
+        this.logPrompts = properties.isLogPrompts();
+        this.maxPromptLength = properties.getMaxPromptLength();
+    }
+
+    void log(
+            MeteredRequest request,
+            String outcome,
+            @Nullable Throwable error,
+            boolean cancelled,
+            long nanos) {
+        // Failures are always logged, successful requests only when sampled
+        if (!enabled
+                || !logger.isInfoEnabled()
+                || (error == null && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        CreateChatCompletionRequest chatRequest = request.getRequest();
+        List<ChatCompletionRequestMessage> messages = chatRequest.getMessages();
+        LoggingEventBuilder event =
+                logger.atInfo()
+                        .addKeyValue("model", chatRequest.getModel())
+                        .addKeyValue("organization", request.getOrganization())
+                        .addKeyValue("project", request.getProject())
+                        .addKeyValue("keyId", request.getKeyId())
+                        .addKeyValue("stream", request.isStream())
+                        .addKeyValue("status", status(outcome, error, cancelled))
+                        .addKeyValue("latencyMs", TimeUnit.NANOSECONDS.toMillis(nanos))
+                        .addKeyValue("messages", messages == null ? 0 : messages.size())
+                        .addKeyValue("promptTokens", request.getPromptTokens())
+                        .addKeyValue("completionTokens", request.getCompletionTokens());
+        if (request.getTimeToFirstTokenNanos() > 0) {
+            event.addKeyValue(
+                    "timeToFirstTokenMs",
+                    TimeUnit.NANOSECONDS.toMillis(request.getTimeToFirstTokenNanos()));
+        }
+        if (error != null) {
+            event.addKeyValue("error", error.getClass().getSimpleName());
+        }
+        if (logPrompts && messages != null && !messages.isEmpty()) {
+            event.addKeyValue("prompt", prompt(messages.get(messages.size() - 1).getContent()));
+        }
+        event.log("chat.completion");
+    }
+
+    String prompt(@Nullable String content) {
+        if (content == null) {
+            return null;
+        }
+        // Redact before truncating so that a secret cut at the limit is not partially logged
+        String prompt = SECRETS.matcher(content).replaceAll(REDACTED);
+        return prompt.length() > maxPromptLength
+                ? prompt.substring(0, maxPromptLength) + "..."
+                : prompt;
+    }
+
+    private static int status(String outcome, @Nullable Throwable error, boolean cancelled) {
+        if (cancelled) {
+            return CLIENT_CLOSED_REQUEST;
+        }
+        if (error == null) {
+            return MeteredRequest.ACCEPTED.equals(outcome) ? 202 : 200;
+        }
+        if (error instanceof RateLimitExceededException
+                || error instanceof ConcurrencyLimitExceededException) {
+            return 429;
+        }
+        if (error instanceof ModelNotAllowedException) {
+            return 404;
+        }
+        if (error instanceof RequestTooLargeException) {
+            return 413;
+        }
+        return 500;
+    }
+}
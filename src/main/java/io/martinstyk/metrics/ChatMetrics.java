@@ -0,0 +1,208 @@
+package io.martinstyk.metrics;
+
+import com.oracle.bmc.model.BmcException;
+import io.martinstyk.config.MetricsProperties;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.Usage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.security.authentication.Authentication;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import reactor.util.context.ContextView;
+
+@Singleton
+public class ChatMetrics {
+
+    public static final String REQUESTS = "gateway.requests";
+    public static final String ACTIVE_REQUESTS = "gateway.requests.active";
+    public static final String TIME_TO_FIRST_TOKEN = "gateway.stream.time.to.first.token";
+    public static final String INTER_TOKEN_LATENCY = "gateway.stream.inter.token.latency";
+    public static final String TOKENS = "gateway.tokens";
+    public static final String UPSTREAM_REQUESTS = "gateway.upstream.requests";
+    public static final String MAPPING = "gateway.mapping";
+
+    private static final String UNKNOWN = "unknown";
+    private static final Duration MAXIMUM_EXPECTED_LATENCY = Duration.ofMinutes(5);
+
+    private static final Tags OTHER_TAGS =
+            Tags.of("model", TagValues.OTHER)
+                    .and("organization", TagValues.OTHER)
+                    .and("project", TagValues.OTHER);
+
+    private final MeterRegistry meterRegistry;
+    private final AccessLogger accessLogger;
+    private final int maximumTagValues;
+    private final TagValues models;
+    private final TagValues organizations;
+    private final TagValues projects;
+    private final Map<Tags, AtomicInteger> activeRequests = new ConcurrentHashMap<>();
+
+    public ChatMetrics(
+            MeterRegistry meterRegistry,
+            AccessLogger accessLogger,
+            MetricsProperties metricsProperties) {
+        this.meterRegistry = meterRegistry;
+        this.accessLogger = accessLogger;
+        this.maximumTagValues = metricsProperties.getMaximumTagValues();
+        this.models = new TagValues(maximumTagValues);
+        this.organizations = new TagValues(maximumTagValues);
+        this.projects = new TagValues(maximumTagValues);
+    }
+
+    public MeteredRequest start(
+            CreateChatCompletionRequest request, @Nullable Authentication authentication) {
+        // Only values the server bound to the key become tags, as clients can send any headers
+        // and model names. The access log keeps the values the client sent.
+        Tags tags =
+                tags(
+                        allowedModel(request.getModel(), authentication),
+                        attribute(authentication, "boundOrganization"),
+                        attribute(authentication, "boundProject"));
+        AtomicInteger active = activeRequests.get(tags);
+        if (active == null) {
+            Tags gaugeTags = activeRequests.size() < maximumTagValues ? tags : OTHER_TAGS;
+            active =
+                    activeRequests.computeIfAbsent(
+                            gaugeTags,
+                            key -> meterRegistry.gauge(ACTIVE_REQUESTS, key, new AtomicInteger()));
+        }
+        active.incrementAndGet();
+        return new MeteredRequest(
+                this,
+                request,
+                tags,
+                attribute(authentication, "organization"),
+                attribute(authentication, "project"),
+                attribute(authentication, "keyId"),
+                Boolean.TRUE.equals(request.getStream()),
+                System.nanoTime(),
+                active);
+    }
+
+    public MeteredRequest current(ContextView context, String model) {
+        MeteredRequest request = context.getOrDefault(MeteredRequest.class, null);
+        if (request != null) {
+            return request;
+        }
+        return new MeteredRequest(
+                this,
+                null,
+                tags(model, UNKNOWN, UNKNOWN),
+                UNKNOWN,
+                UNKNOWN,
+                UNKNOWN,
+                false,
+                System.nanoTime(),
+                null);
+    }
+
+    public void recordUpstream(
+            MeteredRequest request, String target, @Nullable Throwable error, long nanos) {
+        Timer.builder(UPSTREAM_REQUESTS)
+                .tags(request.getTags())
+                .tag("target", target)
+                .tag("status", error == null ? "200" : status(error))
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAXIMUM_EXPECTED_LATENCY)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUsage(MeteredRequest request, @Nullable Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        int promptTokens = usage.getPromptTokens() == null ? 0 : usage.getPromptTokens();
+        int completionTokens =
+                usage.getCompletionTokens() == null ? 0 : usage.getCompletionTokens();
+        tokens(request, "prompt").increment(promptTokens);
+        tokens(request, "completion").increment(completionTokens);
+        request.setUsage(usage, promptTokens, completionTokens);
+    }
+
+    public Timer mappingTimer(MeteredRequest request, String operation) {
+        return Timer.builder(MAPPING)
+                .tags(request.getTags())
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public TokenTimer tokenTimer(MeteredRequest request) {
+        return new TokenTimer(
+                latencyTimer(TIME_TO_FIRST_TOKEN, request.getTags()),
+                latencyTimer(INTER_TOKEN_LATENCY, request.getTags()),
+                request);
+    }
+
+    void recordRequest(
+            MeteredRequest request,
+            String outcome,
+            String exception,
+            @Nullable Throwable error,
+            boolean cancelled) {
+        long nanos = System.nanoTime() - request.getStartNanos();
+        Tags tags =
+                request.getTags()
+                        .and("stream", String.valueOf(request.isStream()))
+                        .and("outcome", outcome)
+                        .and("exception", exception);
+        latencyTimer(REQUESTS, tags).record(nanos, TimeUnit.NANOSECONDS);
+        accessLogger.log(request, outcome, error, cancelled, nanos);
+    }
+
+    private Counter tokens(MeteredRequest request, String type) {
+        return Counter.builder(TOKENS)
+                .tags(request.getTags())
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private Timer latencyTimer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAXIMUM_EXPECTED_LATENCY)
+                .register(meterRegistry);
+    }
+
+    private Tags tags(@Nullable String model, String organization, String project) {
+        return Tags.of("model", model == null ? UNKNOWN : models.get(model))
+                .and("organization", organizations.get(organization))
+                .and("project", projects.get(project));
+    }
+
+    private static @Nullable String allowedModel(
+            @Nullable String model, @Nullable Authentication authentication) {
+        if (model != null
+                && authentication != null
+                && authentication.getAttributes().get("allowedModels") instanceof Set<?> allowed
+                && !allowed.contains(model)) {
+            return TagValues.OTHER;
+        }
+        return model;
+    }
+
+    private static String attribute(@Nullable Authentication authentication, String name) {
+        if (authentication != null
+                && authentication.getAttributes().get(name) instanceof String value) {
+            return value;
+        }
+        return UNKNOWN;
+    }
+
+    private static String status(Throwable error) {
+        if (error instanceof BmcException exception && exception.getStatusCode() > 0) {
+            return String.valueOf(exception.getStatusCode());
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,136 @@
+package io.martinstyk.metrics;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.Usage;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.core.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import reactor.util.context.Context;
+
+public final class MeteredRequest {
+
+    static final String ACCEPTED = "accepted";
+
+    private final ChatMetrics metrics;
+    private final CreateChatCompletionRequest request;
+    private final Tags tags;
+    private final String organization;
+    private final String project;
+    private final String keyId;
+    private final boolean stream;
+    private final long startNanos;
+    private final AtomicInteger activeRequests;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile int promptTokens;
+    private volatile int completionTokens;
+    private volatile Usage usage;
+    private volatile long timeToFirstTokenNanos;
+
+    MeteredRequest(
+            ChatMetrics metrics,
+            @Nullable CreateChatCompletionRequest request,
+            Tags tags,
+            String organization,
+            String project,
+            String keyId,
+            boolean stream,
+            long startNanos,
+            AtomicInteger activeRequests) {
+        this.metrics = metrics;
+        this.request = request;
+        this.tags = tags;
+        this.organization = organization;
+        this.project = project;
+        this.keyId = keyId;
+        this.stream = stream;
+        this.startNanos = startNanos;
+        this.activeRequests = activeRequests;
+    }
+
+    public Context addTo(Context context) {
+        return context.put(MeteredRequest.class, this);
+    }
+
+    public void success() {
+        finish("success", "None", null, false);
+    }
+
+    /** A request queued for later, whose result the client picks up separately. */
+    public void accepted() {
+        finish(ACCEPTED, "None", null, false);
+    }
+
+    public void failure(Throwable error) {
+        finish("error", error.getClass().getSimpleName(), error, false);
+    }
+
+    public void cancel() {
+        finish("cancelled", "None", null, true);
+    }
+
+    /** The usage reported for this request, or null while none was reported. */
+    public @Nullable Usage getUsage() {
+        return usage;
+    }
+
+    CreateChatCompletionRequest getRequest() {
+        return request;
+    }
+
+    Tags getTags() {
+        return tags;
+    }
+
+    String getOrganization() {
+        return organization;
+    }
+
+    String getProject() {
+        return project;
+    }
+
+    String getKeyId() {
+        return keyId;
+    }
+
+    boolean isStream() {
+        return stream;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    int getPromptTokens() {
+        return promptTokens;
+    }
+
+    int getCompletionTokens() {
+        return completionTokens;
+    }
+
+    long getTimeToFirstTokenNanos() {
+        return timeToFirstTokenNanos;
+    }
+
+    void setUsage(Usage usage, int promptTokens, int completionTokens) {
+        this.usage = usage;
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+    }
+
+    void setTimeToFirstTokenNanos(long timeToFirstTokenNanos) {
+        this.timeToFirstTokenNanos = timeToFirstTokenNanos;
+    }
+
+    private void finish(
+            String outcome, String exception, @Nullable Throwable error, boolean cancelled) {
+        // Requests that did not come through the controller are not counted as active
+        if (activeRequests == null || !finished.compareAndSet(false, true)) {
+            return;
+        }
+        activeRequests.decrementAndGet();
+        metrics.recordRequest(this, outcome, exception, error, cancelled);
+    }
+}
@@ -0,0 +1,29 @@
+package io.martinstyk.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Keeps the first distinct values of a tag and folds the rest into one, bounding the series. */
+final class TagValues {
+
+    static final String OTHER = "other";
+
+    private final int maximum;
+    private final Set<String> values = ConcurrentHashMap.newKeySet();
+
+    TagValues(int maximum) {
+        this.maximum = maximum;
+    }
+
+    String get(String value) {
+        if (values.contains(value)) {
+            return value;
+        }
+        // Racing callers may add a few values over the maximum, which is harmless
+        if (values.size() >= maximum) {
+            return OTHER;
+        }
+        values.add(value);
+        return value;
+    }
+}
@@ -0,0 +1,31 @@
+package io.martinstyk.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+
+/** Times the tokens of one stream, which emits them sequentially. */
+public final class TokenTimer {
+
+    private final Timer timeToFirstToken;
+    private final Timer interTokenLatency;
+    private final MeteredRequest request;
+    private long lastTokenNanos;
+
+    TokenTimer(Timer timeToFirstToken, Timer interTokenLatency, MeteredRequest request) {
+        this.timeToFirstToken = timeToFirstToken;
+        this.interTokenLatency = interTokenLatency;
+        this.request = request;
+    }
+
+    public void onToken() {
+        long now = System.nanoTime();
+        if (lastTokenNanos == 0) {
+            long nanos = now - request.getStartNanos();
+            timeToFirstToken.record(nanos, TimeUnit.NANOSECONDS);
+            request.setTimeToFirstTokenNanos(nanos);
+        } else {
+            interTokenLatency.record(now - lastTokenNanos, TimeUnit.NANOSECONDS);
+        }
+        lastTokenNanos = now;
+    }
+}
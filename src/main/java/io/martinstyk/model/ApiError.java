@@ -0,0 +1,63 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+@JsonInclude(JsonInclude.Include.ALWAYS)
+public class ApiError {
+
+    @JsonProperty("message")
+    private String message;
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("param")
+    private String param;
+
+    @JsonProperty("code")
+    private String code;
+
+    public ApiError() {}
+
+    public ApiError(String message, String type, String param, String code) {
+        this.message = message;
+        this.type = type;
+        this.param = param;
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public void setParam(String param) {
+        this.param = param;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
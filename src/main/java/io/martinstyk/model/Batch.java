@@ -0,0 +1,178 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.Map;
+
+@Serdeable
+@JsonInclude(JsonInclude.Include.ALWAYS)
+public class Batch {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("object")
+    private String object = "batch";
+
+    @JsonProperty("endpoint")
+    private String endpoint;
+
+    @JsonProperty("input_file_id")
+    private String inputFileId;
+
+    @JsonProperty("completion_window")
+    private String completionWindow;
+
+    @JsonProperty("status")
+    private BatchStatus status;
+
+    @JsonProperty("output_file_id")
+    private String outputFileId;
+
+    @JsonProperty("error_file_id")
+    private String errorFileId;
+
+    @JsonProperty("created_at")
+    private Long createdAt;
+
+    @JsonProperty("in_progress_at")
+    private Long inProgressAt;
+
+    @JsonProperty("completed_at")
+    private Long completedAt;
+
+    @JsonProperty("failed_at")
+    private Long failedAt;
+
+    @JsonProperty("cancelled_at")
+    private Long cancelledAt;
+
+    @JsonProperty("request_counts")
+    private BatchRequestCounts requestCounts;
+
+    @JsonProperty("metadata")
+    private Map<String, String> metadata;
+
+    public Batch() {}
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getObject() {
+        return object;
+    }
+
+    public void setObject(String object) {
+        this.object = object;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getInputFileId() {
+        return inputFileId;
+    }
+
+    public void setInputFileId(String inputFileId) {
+        this.inputFileId = inputFileId;
+    }
+
+    public String getCompletionWindow() {
+        return completionWindow;
+    }
+
+    public void setCompletionWindow(String completionWindow) {
+        this.completionWindow = completionWindow;
+    }
+
+    public BatchStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BatchStatus status) {
+        this.status = status;
+    }
+
+    public String getOutputFileId() {
+        return outputFileId;
+    }
+
+    public void setOutputFileId(String outputFileId) {
+        this.outputFileId = outputFileId;
+    }
+
+    public String getErrorFileId() {
+        return errorFileId;
+    }
+
+    public void setErrorFileId(String errorFileId) {
+        this.errorFileId = errorFileId;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getInProgressAt() {
+        return inProgressAt;
+    }
+
+    public void setInProgressAt(Long inProgressAt) {
+        this.inProgressAt = inProgressAt;
+    }
+
+    public Long getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Long completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Long getFailedAt() {
+        return failedAt;
+    }
+
+    public void setFailedAt(Long failedAt) {
+        this.failedAt = failedAt;
+    }
+
+    public Long getCancelledAt() {
+        return cancelledAt;
+    }
+
+    public void setCancelledAt(Long cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+
+    public BatchRequestCounts getRequestCounts() {
+        return requestCounts;
+    }
+
+    public void setRequestCounts(BatchRequestCounts requestCounts) {
+        this.requestCounts = requestCounts;
+    }
+
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(Map<String, String> metadata) {
+        this.metadata = metadata;
+    }
+}
@@ -0,0 +1,10 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public record BatchRequestCounts(
+        @JsonProperty("total") long total,
+        @JsonProperty("completed") long completed,
+        @JsonProperty("failed") long failed) {}
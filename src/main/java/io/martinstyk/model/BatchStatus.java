@@ -0,0 +1,46 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public enum BatchStatus {
+    VALIDATING("validating"),
+    FAILED("failed"),
+    IN_PROGRESS("in_progress"),
+    FINALIZING("finalizing"),
+    COMPLETED("completed"),
+    CANCELLING("cancelling"),
+    CANCELLED("cancelled");
+
+    private final String value;
+
+    BatchStatus(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    @JsonCreator
+    public static BatchStatus fromValue(String value) {
+        for (BatchStatus status : BatchStatus.values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown batch status: " + value);
+    }
+
+    public boolean isTerminal() {
+        return this == FAILED || this == COMPLETED || this == CANCELLED;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
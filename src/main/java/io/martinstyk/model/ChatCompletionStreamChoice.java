@@ -0,0 +1,55 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+@Serdeable
+public class ChatCompletionStreamChoice {
+
+    @NotNull(message = "Index cannot be null")
+    private Integer index;
+
+    @NotNull(message = "Delta cannot be null")
+    @Valid
+    private ChatCompletionStreamDelta delta;
+
+    @JsonProperty("finish_reason")
+    @JsonInclude(JsonInclude.Include.ALWAYS)
+    private FinishReason finishReason;
+
+    public ChatCompletionStreamChoice() {}
+
+    public ChatCompletionStreamChoice(
+            Integer index, ChatCompletionStreamDelta delta, FinishReason finishReason) {
+        this.index = index;
+        this.delta = delta;
+        this.finishReason = finishReason;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public ChatCompletionStreamDelta getDelta() {
+        return delta;
+    }
+
+    public void setDelta(ChatCompletionStreamDelta delta) {
+        this.delta = delta;
+    }
+
+    public FinishReason getFinishReason() {
+        return finishReason;
+    }
+
+    public void setFinishReason(FinishReason finishReason) {
+        this.finishReason = finishReason;
+    }
+}
@@ -0,0 +1,39 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.serde.annotation.Serdeable;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Serdeable
+public class ChatCompletionStreamDelta {
+
+    @JsonProperty("role")
+    private String role;
+
+    @JsonProperty("content")
+    private String content;
+
+    public ChatCompletionStreamDelta() {}
+
+    public ChatCompletionStreamDelta(String role, String content) {
+        this.role = role;
+        this.content = content;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
@@ -0,0 +1,17 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.validation.constraints.NotBlank;
+import java.util.Map;
+
+@Serdeable
+public record CreateBatchRequest(
+        @JsonProperty("input_file_id") @NotBlank(message = "Input file id cannot be blank")
+                String inputFileId,
+        @JsonProperty("endpoint") @NotBlank(message = "Endpoint cannot be blank") String endpoint,
+        @JsonProperty("completion_window")
+                @NotBlank(message = "Completion window cannot be blank")
+                String completionWindow,
+        @JsonProperty("metadata") @Nullable Map<String, String> metadata) {}
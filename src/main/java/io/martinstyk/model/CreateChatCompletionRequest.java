@@ -2,6 +2,7 @@ package io.martinstyk.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.martinstyk.model.message.ChatCompletionRequestMessage;
+import io.martinstyk.model.message.ChatMessagesDeserializer;
 import io.martinstyk.model.tools.Tool;
 import io.micronaut.serde.annotation.Serdeable;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -19,6 +20,7 @@ public class CreateChatCompletionRequest {
     @NotNull(message = "Messages cannot be null")
     @NotEmpty(message = "Messages cannot be empty")
     @Valid
+    @Serdeable.Deserializable(using = ChatMessagesDeserializer.class)
     private List<ChatCompletionRequestMessage> messages;
 
     @NotNull(message = "Model cannot be null")
@@ -84,6 +86,9 @@ public class CreateChatCompletionRequest {
     @Min(1)
     private Integer logprobs;
 
+    @JsonProperty("seed")
+    private Integer seed;
+
     public CreateChatCompletionRequest() {}
 
     public CreateChatCompletionRequest(List<ChatCompletionRequestMessage> messages, String model) {
@@ -218,4 +223,12 @@ public class CreateChatCompletionRequest {
     public void setLogprobs(Integer logprobs) {
         this.logprobs = logprobs;
     }
+
+    public Integer getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Integer seed) {
+        this.seed = seed;
+    }
 }
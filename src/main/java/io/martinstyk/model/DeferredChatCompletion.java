@@ -0,0 +1,55 @@
+package io.martinstyk.model;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+/** Returned instead of a completion when a flex request is still queued. */
+@Serdeable
+public class DeferredChatCompletion {
+
+    private String id;
+
+    private ResponseObject object = ResponseObject.CHAT_COMPLETION_DEFERRED;
+
+    private Long created;
+
+    private String status = "queued";
+
+    public DeferredChatCompletion() {}
+
+    public DeferredChatCompletion(String id, Long created) {
+        this.id = id;
+        this.created = created;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public ResponseObject getObject() {
+        return object;
+    }
+
+    public void setObject(ResponseObject object) {
+        this.object = object;
+    }
+
+    public Long getCreated() {
+        return created;
+    }
+
+    public void setCreated(Long created) {
+        this.created = created;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,25 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public class ErrorResponse {
+
+    @JsonProperty("error")
+    private ApiError error;
+
+    public ErrorResponse() {}
+
+    public ErrorResponse(ApiError error) {
+        this.error = error;
+    }
+
+    public ApiError getError() {
+        return error;
+    }
+
+    public void setError(ApiError error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,20 @@
+package io.martinstyk.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public record FileObject(
+        @JsonProperty("id") String id,
+        @JsonProperty("object") String object,
+        @JsonProperty("bytes") long bytes,
+        @JsonProperty("created_at") long createdAt,
+        @JsonProperty("filename") String filename,
+        @JsonProperty("purpose") String purpose) {
+
+    public static final String OBJECT = "file";
+
+    public FileObject withBytes(long bytes) {
+        return new FileObject(id, object, bytes, createdAt, filename, purpose);
+    }
+}
@@ -7,7 +7,8 @@ import io.micronaut.serde.annotation.Serdeable;
 @Serdeable
 public enum ResponseObject {
     CHAT_COMPLETION("chat.completion"),
-    CHAT_COMPLETION_CHUNK("chat.completion.chunk");
+    CHAT_COMPLETION_CHUNK("chat.completion.chunk"),
+    CHAT_COMPLETION_DEFERRED("chat.completion.deferred");
 
     private final String value;
 
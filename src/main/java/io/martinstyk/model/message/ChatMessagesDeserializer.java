@@ -0,0 +1,69 @@
+package io.martinstyk.model.message;
+
+import io.martinstyk.config.RequestLimitProperties;
+import io.micronaut.core.type.Argument;
+import io.micronaut.serde.Decoder;
+import io.micronaut.serde.Deserializer;
+import io.micronaut.serde.exceptions.SerdeException;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the messages of a chat completion request one at a time and enforces the request limits
+ * while reading, so an oversized conversation is rejected before the rest of it is decoded.
+ */
+@Singleton
+public class ChatMessagesDeserializer implements Deserializer<List<ChatCompletionRequestMessage>> {
+
+    private static final Argument<ChatCompletionRequestMessage> MESSAGE =
+            Argument.of(ChatCompletionRequestMessage.class);
+
+    private final int maxMessages;
+    private final long maxContentLength;
+
+    public ChatMessagesDeserializer(RequestLimitProperties properties) {
+        this.maxMessages = properties.getMaxMessages();
+        this.maxContentLength = properties.getMaxContentLength();
+    }
+
+    @Override
+    public List<ChatCompletionRequestMessage> deserialize(
+            Decoder decoder,
+            DecoderContext context,
+            Argument<? super List<ChatCompletionRequestMessage>> type)
+            throws IOException {
+        Deserializer<? extends ChatCompletionRequestMessage> messageDeserializer =
+                context.findDeserializer(MESSAGE).createSpecific(context, MESSAGE);
+
+        List<ChatCompletionRequestMessage> messages = new ArrayList<>();
+        // The content limit applies to all messages together
+        long contentLength = 0;
+        Decoder array = decoder.decodeArray();
+        while (array.hasNextArrayValue()) {
+            if (messages.size() == maxMessages) {
+                throw array.createDeserializationException(
+                        "Messages cannot contain more than " + maxMessages + " entries", null);
+            }
+            ChatCompletionRequestMessage message =
+                    messageDeserializer.deserializeNullable(array, context, MESSAGE);
+            if (message == null) {
+                throw array.createDeserializationException("Message cannot be null", null);
+            }
+            if (message.getContent() != null) {
+                contentLength += message.getContent().length();
+                if (contentLength > maxContentLength) {
+                    throw array.createDeserializationException(
+                            "Total message content cannot exceed "
+                                    + maxContentLength
+                                    + " characters",
+                            null);
+                }
+            }
+            messages.add(message);
+        }
+        array.finishStructure();
+        return messages;
+    }
+}
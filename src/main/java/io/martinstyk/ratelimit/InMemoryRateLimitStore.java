@@ -0,0 +1,51 @@
+package io.martinstyk.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.martinstyk.config.RateLimitProperties;
+import io.micronaut.context.annotation.Secondary;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Singleton
+@Secondary
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    // A bucket left alone for a full window is back at capacity, so dropping it loses nothing
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(1);
+
+    private final Cache<String, InMemoryBucket> buckets;
+
+    public InMemoryRateLimitStore(RateLimitProperties properties) {
+        this.buckets =
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumKeys())
+                        .expireAfterAccess(IDLE_EXPIRY)
+                        .build();
+    }
+
+    @Override
+    public RateLimitBucket bucket(String key) {
+        return buckets.get(key, InMemoryRateLimitStore::newBucket);
+    }
+
+    private static InMemoryBucket newBucket(String key) {
+        return new InMemoryBucket();
+    }
+
+    private static final class InMemoryBucket implements RateLimitBucket {
+
+        private final AtomicLongArray slots = new AtomicLongArray(2);
+
+        @Override
+        public long get(int slot) {
+            return slots.get(slot);
+        }
+
+        @Override
+        public boolean compareAndSet(int slot, long expected, long updated) {
+            return slots.compareAndSet(slot, expected, updated);
+        }
+    }
+}
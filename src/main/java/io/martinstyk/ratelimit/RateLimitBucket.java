@@ -0,0 +1,11 @@
+package io.martinstyk.ratelimit;
+
+public interface RateLimitBucket {
+
+    int REQUESTS = 0;
+    int TOKENS = 1;
+
+    long get(int slot);
+
+    boolean compareAndSet(int slot, long expected, long updated);
+}
@@ -0,0 +1,31 @@
+package io.martinstyk.ratelimit;
+
+public record RateLimitDecision(
+        boolean allowed,
+        RateLimitTier tier,
+        RateLimitKeys keys,
+        long estimatedTokens,
+        long remainingRequests,
+        long remainingTokens,
+        long resetRequestsNanos,
+        long resetTokensNanos) {
+
+    public static final RateLimitDecision UNLIMITED =
+            new RateLimitDecision(true, null, null, 0, 0, 0, 0, 0);
+
+    public boolean isLimited() {
+        return tier != null;
+    }
+
+    /** How long until a rejected request fits its budgets, or -1 when it never can. */
+    public long retryAfterNanos() {
+        long tokenCostNanos = estimatedTokens * tier.tokenIntervalNanos();
+        if (tokenCostNanos > tier.tokenCapacityNanos()) {
+            return -1;
+        }
+        long requestWaitNanos =
+                resetRequestsNanos + tier.requestIntervalNanos() - tier.requestCapacityNanos();
+        long tokenWaitNanos = resetTokensNanos + tokenCostNanos - tier.tokenCapacityNanos();
+        return Math.max(0, Math.max(requestWaitNanos, tokenWaitNanos));
+    }
+}
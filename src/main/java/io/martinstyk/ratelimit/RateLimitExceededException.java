@@ -0,0 +1,22 @@
+package io.martinstyk.ratelimit;
+
+public class RateLimitExceededException extends RuntimeException {
+
+    private final RateLimitDecision decision;
+
+    public RateLimitExceededException(RateLimitDecision decision) {
+        super(
+                "Rate limit reached for tier "
+                        + decision.tier().name()
+                        + ": limit "
+                        + decision.tier().requestsPerMinute()
+                        + " requests and "
+                        + decision.tier().tokensPerMinute()
+                        + " tokens per minute");
+        this.decision = decision;
+    }
+
+    public RateLimitDecision getDecision() {
+        return decision;
+    }
+}
@@ -0,0 +1,48 @@
+package io.martinstyk.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The store keys of the budgets a request is charged to. The validator resolves them once per
+ * validated key and keeps them in the authentication, so a rate limit check builds no strings.
+ */
+public record RateLimitKeys(List<String> keys) {
+
+    public static final String ATTRIBUTE = "rateLimitKeys";
+
+    public RateLimitKeys {
+        keys = List.copyOf(keys);
+    }
+
+    /**
+     * The key's own budget always applies, so changing the organization or project headers does
+     * not lift it. Organizations and projects bound to the key in the keys file get a shared
+     * budget as well; values from headers are not trusted for that, as any key could claim them.
+     */
+    public static RateLimitKeys of(Map<String, ?> attributes) {
+        List<String> keys = new ArrayList<>(3);
+        keys.add("key/" + attributes.get("keyId"));
+        if (attributes.get("boundOrganization") instanceof String organization) {
+            keys.add("organization/" + organization);
+        }
+        if (attributes.get("boundProject") instanceof String project) {
+            keys.add("project/" + project);
+        }
+        return new RateLimitKeys(keys);
+    }
+
+    /** The keys resolved by the validator, or resolved now for other authentications. */
+    static RateLimitKeys from(Map<String, Object> attributes) {
+        return attributes.get(ATTRIBUTE) instanceof RateLimitKeys keys ? keys : of(attributes);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public String get(int index) {
+        return keys.get(index);
+    }
+}
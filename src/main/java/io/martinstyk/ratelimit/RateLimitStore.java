@@ -0,0 +1,5 @@
+package io.martinstyk.ratelimit;
+
+public interface RateLimitStore {
+    RateLimitBucket bucket(String key);
+}
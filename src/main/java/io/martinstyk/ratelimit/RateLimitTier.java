@@ -0,0 +1,30 @@
+package io.martinstyk.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+public record RateLimitTier(
+        String name,
+        long requestsPerMinute,
+        long tokensPerMinute,
+        long requestIntervalNanos,
+        long tokenIntervalNanos) {
+
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    public static RateLimitTier of(String name, long requestsPerMinute, long tokensPerMinute) {
+        return new RateLimitTier(
+                name,
+                requestsPerMinute,
+                tokensPerMinute,
+                WINDOW_NANOS / requestsPerMinute,
+                WINDOW_NANOS / tokensPerMinute);
+    }
+
+    public long requestCapacityNanos() {
+        return requestsPerMinute * requestIntervalNanos;
+    }
+
+    public long tokenCapacityNanos() {
+        return tokensPerMinute * tokenIntervalNanos;
+    }
+}
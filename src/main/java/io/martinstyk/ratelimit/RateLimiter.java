@@ -0,0 +1,228 @@
+package io.martinstyk.ratelimit;
+
+import io.martinstyk.config.RateLimitProperties;
+import io.martinstyk.config.RateLimitTierProperties;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.Usage;
+import io.martinstyk.model.message.ChatCompletionRequestMessage;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.security.authentication.Authentication;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+@Singleton
+public class RateLimiter {
+
+    private static final long REJECTED = -1;
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final boolean enabled;
+    private final RateLimitStore store;
+    private final RateLimitTier defaultTier;
+    private final Map<String, RateLimitTier> tiers = new HashMap<>();
+    private final LongSupplier clock;
+
+    @Inject
+    public RateLimiter(
+            RateLimitProperties properties,
+            List<RateLimitTierProperties> tierProperties,
+            RateLimitStore store) {
+        // Wall-clock time so that a store shared between replicas sees comparable timestamps
+        this(
+                properties,
+                tierProperties,
+                store,
+                () -> TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+    }
+
+    RateLimiter(
+            RateLimitProperties properties,
+            List<RateLimitTierProperties> tierProperties,
+            RateLimitStore store,
+            LongSupplier clock) {
+        this.enabled = properties.isEnabled();
+        this.store = store;
+        this.clock = clock;
+        for (RateLimitTierProperties tier : tierProperties) {
+            tiers.put(
+                    tier.getName(),
+                    RateLimitTier.of(
+                            tier.getName(),
+                            tier.getRequestsPerMinute(),
+                            tier.getTokensPerMinute()));
+        }
+        this.defaultTier =
+                tiers.getOrDefault(
+                        properties.getDefaultTier(),
+                        RateLimitTier.of(
+                                properties.getDefaultTier(),
+                                properties.getRequestsPerMinute(),
+                                properties.getTokensPerMinute()));
+    }
+
+    public RateLimitDecision tryAcquire(
+            @Nullable Authentication authentication, CreateChatCompletionRequest request) {
+        if (!enabled || authentication == null) {
+            return RateLimitDecision.UNLIMITED;
+        }
+
+        Map<String, Object> attributes = authentication.getAttributes();
+        RateLimitTier tier = tiers.getOrDefault(attributes.get("tier"), defaultTier);
+        RateLimitKeys keys = RateLimitKeys.from(attributes);
+        long estimatedTokens = estimateTokens(request);
+        long now = clock.getAsLong();
+
+        // A request has to fit every budget it is charged to, so a rejection refunds the budgets
+        // charged before it
+        for (int i = 0; i < keys.size(); i++) {
+            long requestTat =
+                    consume(
+                            store.bucket(keys.get(i)),
+                            RateLimitBucket.REQUESTS,
+                            1,
+                            tier.requestIntervalNanos(),
+                            tier.requestCapacityNanos(),
+                            now);
+            if (requestTat == REJECTED) {
+                refund(keys, i, RateLimitBucket.REQUESTS, 1, tier, now);
+                return decision(false, tier, keys, estimatedTokens, now);
+            }
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            long tokenTat =
+                    consume(
+                            store.bucket(keys.get(i)),
+                            RateLimitBucket.TOKENS,
+                            estimatedTokens,
+                            tier.tokenIntervalNanos(),
+                            tier.tokenCapacityNanos(),
+                            now);
+            if (tokenTat == REJECTED) {
+                refund(keys, keys.size(), RateLimitBucket.REQUESTS, 1, tier, now);
+                refund(keys, i, RateLimitBucket.TOKENS, estimatedTokens, tier, now);
+                return decision(false, tier, keys, estimatedTokens, now);
+            }
+        }
+
+        return decision(true, tier, keys, estimatedTokens, now);
+    }
+
+    public void reconcile(RateLimitDecision decision, @Nullable Usage usage) {
+        if (!decision.isLimited() || usage == null || usage.getTotalTokens() == null) {
+            return;
+        }
+        long difference = usage.getTotalTokens() - decision.estimatedTokens();
+        if (difference != 0) {
+            long now = clock.getAsLong();
+            RateLimitKeys keys = decision.keys();
+            for (int i = 0; i < keys.size(); i++) {
+                adjust(
+                        store.bucket(keys.get(i)),
+                        RateLimitBucket.TOKENS,
+                        difference * decision.tier().tokenIntervalNanos(),
+                        now);
+            }
+        }
+    }
+
+    /** Gives the cost back to the first {@code count} budgets of a rejected request. */
+    private void refund(
+            RateLimitKeys keys, int count, int slot, long cost, RateLimitTier tier, long now) {
+        long intervalNanos =
+                slot == RateLimitBucket.REQUESTS
+                        ? tier.requestIntervalNanos()
+                        : tier.tokenIntervalNanos();
+        for (int i = 0; i < count; i++) {
+            adjust(store.bucket(keys.get(i)), slot, -cost * intervalNanos, now);
+        }
+    }
+
+    // GCRA, the token bucket expressed as a single "theoretical arrival time" per slot, which
+    // lets the check be one compare-and-set without a separate refill step
+    private static long consume(
+            RateLimitBucket bucket,
+            int slot,
+            long cost,
+            long intervalNanos,
+            long capacityNanos,
+            long now) {
+        while (true) {
+            long tat = bucket.get(slot);
+            long updated = Math.max(tat, now) + cost * intervalNanos;
+            if (updated - now > capacityNanos) {
+                return REJECTED;
+            }
+            if (bucket.compareAndSet(slot, tat, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    private static void adjust(RateLimitBucket bucket, int slot, long deltaNanos, long now) {
+        while (true) {
+            long tat = bucket.get(slot);
+            long updated = tat + deltaNanos;
+            if (deltaNanos < 0) {
+                updated = Math.max(updated, Math.min(tat, now));
+            }
+            if (updated == tat || bucket.compareAndSet(slot, tat, updated)) {
+                return;
+            }
+        }
+    }
+
+    private RateLimitDecision decision(
+            boolean allowed,
+            RateLimitTier tier,
+            RateLimitKeys keys,
+            long estimatedTokens,
+            long now) {
+        // The budget closest to its limit decides what the caller may still send
+        long requestsBusyNanos = 0;
+        long tokensBusyNanos = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            RateLimitBucket bucket = store.bucket(keys.get(i));
+            requestsBusyNanos =
+                    Math.max(requestsBusyNanos, bucket.get(RateLimitBucket.REQUESTS) - now);
+            tokensBusyNanos = Math.max(tokensBusyNanos, bucket.get(RateLimitBucket.TOKENS) - now);
+        }
+        return new RateLimitDecision(
+                allowed,
+                tier,
+                keys,
+                estimatedTokens,
+                Math.max(0, tier.requestCapacityNanos() - requestsBusyNanos)
+                        / tier.requestIntervalNanos(),
+                Math.max(0, tier.tokenCapacityNanos() - tokensBusyNanos)
+                        / tier.tokenIntervalNanos(),
+                requestsBusyNanos,
+                tokensBusyNanos);
+    }
+
+    private static long estimateTokens(CreateChatCompletionRequest request) {
+        // Charge the completion budget up front like OpenAI does; reconcile() settles the
+        // difference once the actual usage is known
+        long completionTokens =
+                request.getMaxCompletionTokens() == null ? 0 : request.getMaxCompletionTokens();
+        return estimatePromptTokens(request) + completionTokens;
+    }
+
+    public static long estimatePromptTokens(CreateChatCompletionRequest request) {
+        long characters = 0;
+        List<ChatCompletionRequestMessage> messages = request.getMessages();
+        if (messages != null) {
+            for (ChatCompletionRequestMessage message : messages) {
+                if (message.getContent() != null) {
+                    characters += message.getContent().length();
+                }
+            }
+        }
+        return (characters + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
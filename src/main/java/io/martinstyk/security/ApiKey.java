@@ -0,0 +1,14 @@
+package io.martinstyk.security;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.Set;
+
+@Serdeable
+public record ApiKey(
+        @JsonProperty("key_sha256") String keySha256,
+        @JsonProperty("organization") @Nullable String organization,
+        @JsonProperty("project") @Nullable String project,
+        @JsonProperty("tier") @Nullable String tier,
+        @JsonProperty("allowed_models") @Nullable Set<String> allowedModels) {}
@@ -0,0 +1,11 @@
+package io.martinstyk.security;
+
+import io.micronaut.core.annotation.Nullable;
+
+public interface ApiKeyStore {
+
+    @Nullable
+    ApiKey find(String keySha256);
+
+    long getVersion();
+}
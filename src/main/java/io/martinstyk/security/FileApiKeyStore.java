@@ -0,0 +1,91 @@
+package io.martinstyk.security;
+
+import io.martinstyk.config.ApiKeyStoreProperties;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.type.Argument;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Singleton
+@Requires(property = "genai.auth.keys-file")
+public class FileApiKeyStore implements ApiKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileApiKeyStore.class);
+
+    private static final Argument<List<ApiKey>> KEYS_TYPE = Argument.listOf(ApiKey.class);
+    private static final int SHA256_HEX_LENGTH = 64;
+
+    private final Path keysFile;
+    private final JsonMapper jsonMapper;
+
+    // Readers only ever see a complete map; a reload builds a new one and swaps the reference
+    private volatile Map<String, ApiKey> keys;
+    private volatile long version;
+    private FileTime lastModified;
+
+    public FileApiKeyStore(ApiKeyStoreProperties properties, JsonMapper jsonMapper) {
+        this.keysFile = Path.of(properties.getKeysFile());
+        this.jsonMapper = jsonMapper;
+        try {
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load API keys from " + keysFile, e);
+        }
+    }
+
+    @Override
+    public ApiKey find(String keySha256) {
+        return keys.get(keySha256);
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Scheduled(
+            fixedDelay = "${genai.auth.reload-interval:10s}",
+            initialDelay = "${genai.auth.reload-interval:10s}")
+    void reloadIfChanged() {
+        try {
+            if (!Files.getLastModifiedTime(keysFile).equals(lastModified)) {
+                load();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn(
+                    "Failed to reload API keys from {}, keeping the previous keys", keysFile, e);
+        }
+    }
+
+    private synchronized void load() throws IOException {
+        FileTime modified = Files.getLastModifiedTime(keysFile);
+        List<ApiKey> entries = jsonMapper.readValue(Files.readAllBytes(keysFile), KEYS_TYPE);
+
+        Map<String, ApiKey> loaded = new HashMap<>(entries.size() * 2);
+        for (ApiKey entry : entries) {
+            String hash = entry.keySha256();
+            if (hash == null || hash.length() != SHA256_HEX_LENGTH) {
+                throw new IllegalArgumentException(
+                        "Every API key entry needs a 64 character key_sha256");
+            }
+            loaded.put(hash.toLowerCase(Locale.ROOT), entry);
+        }
+
+        keys = Map.copyOf(loaded);
+        lastModified = modified;
+        version++;
+        logger.info("Loaded {} API keys from {}", loaded.size(), keysFile);
+    }
+}
@@ -0,0 +1,8 @@
+package io.martinstyk.security;
+
+public class ModelNotAllowedException extends RuntimeException {
+
+    public ModelNotAllowedException(String model) {
+        super("The model `" + model + "` does not exist or you do not have access to it.");
+    }
+}
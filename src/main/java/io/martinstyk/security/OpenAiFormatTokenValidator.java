@@ -1,73 +1,233 @@
 package io.martinstyk.security;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.martinstyk.config.ApiKeyCacheProperties;
+import io.martinstyk.ratelimit.RateLimitKeys;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.security.authentication.Authentication;
 import io.micronaut.security.token.validator.TokenValidator;
 import jakarta.inject.Singleton;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 
 @Singleton
 public class OpenAiFormatTokenValidator<T> implements TokenValidator<T> {
-    private static final Pattern LEGACY_TOKEN_PATTERN = Pattern.compile("^sk-[a-zA-Z0-9]{48}$");
+    // Prefix of the key hash used as a stable, non-reversible key id for rate limits and logs
+    private static final int KEY_ID_LENGTH = 16;
+
+    private static final String LEGACY_PREFIX = "sk-";
+    private static final int LEGACY_KEY_LENGTH = 48;
+    private static final String PROJECT_PREFIX = "sk-proj-";
+    private static final String SERVICE_ACCOUNT_PREFIX = "sk-svcacct-";
+    private static final int MIN_KEY_LENGTH = 40;
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private static final String ORGANIZATION_HEADER = "OpenAI-Organization";
+    private static final String PROJECT_HEADER = "OpenAI-Project";
+    private static final String DEFAULT_ORGANIZATION = "org-default";
+    private static final String DEFAULT_PROJECT = "proj-default";
 
-    private static final Pattern NEW_TOKEN_PATTERN =
-            Pattern.compile("^sk-(proj|svcacct)-[a-zA-Z0-9_-]{40,200}$");
+    private final Cache<String, ValidatedKey> validatedKeys;
+    private final ApiKeyStore apiKeyStore;
+
+    public OpenAiFormatTokenValidator(
+            ApiKeyCacheProperties properties, @Nullable ApiKeyStore apiKeyStore) {
+        this.validatedKeys =
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumSize())
+                        .expireAfterWrite(properties.getExpireAfterWrite())
+                        .build();
+        this.apiKeyStore = apiKeyStore;
+    }
 
     @Override
     public @NonNull Publisher<Authentication> validateToken(
             @NonNull String token, @Nullable T request) {
-        if (!isTokenValid(token)) {
+        if (token == null) {
             return Mono.empty();
         }
-        String organization = extractOrganization(request);
-        String project = extractProject(request);
 
-        Map<String, Object> attributes =
-                Map.of(
-                        "organization", organization,
-                        "project", project,
-                        "authType", "token");
+        // A reloaded key store bumps its version, which sends cached keys through validation
+        // again so that revoked keys stop working without waiting for the cache to expire
+        long storeVersion = apiKeyStore == null ? 0 : apiKeyStore.getVersion();
+        ValidatedKey validatedKey = validatedKeys.getIfPresent(token);
+        if (validatedKey == null || validatedKey.storeVersion != storeVersion) {
+            validatedKey = validate(token, storeVersion);
+            // Only accepted keys are cached so random tokens cannot flush the cache
+            if (validatedKey == null) {
+                validatedKeys.invalidate(token);
+                return Mono.empty();
+            }
+            validatedKeys.put(token, validatedKey);
+        }
 
-        return Mono.just(Authentication.build("openai-compat", attributes));
+        return validatedKey.authentication(
+                header(request, ORGANIZATION_HEADER, DEFAULT_ORGANIZATION),
+                header(request, PROJECT_HEADER, DEFAULT_PROJECT));
     }
 
-    private String extractOrganization(T request) {
-        if (request instanceof HttpRequest) {
-            return Optional.ofNullable(
-                            ((HttpRequest<?>) request).getHeaders().get("OpenAI-Organization"))
-                    .orElse("org-default");
+    private ValidatedKey validate(String token, long storeVersion) {
+        if (!isTokenValid(token)) {
+            return null;
+        }
+
+        String keySha256 = sha256Hex(token);
+        ApiKey apiKey = null;
+        if (apiKeyStore != null) {
+            apiKey = apiKeyStore.find(keySha256);
+            if (apiKey == null) {
+                return null;
+            }
         }
-        return "org-default";
+        return new ValidatedKey(keySha256.substring(0, KEY_ID_LENGTH), apiKey, storeVersion);
     }
 
-    private String extractProject(T request) {
-        if (request instanceof HttpRequest) {
-            return Optional.ofNullable(
-                            ((HttpRequest<?>) request).getHeaders().get("OpenAI-Project"))
-                    .orElse("proj-default");
+    private String header(T request, String name, String defaultValue) {
+        if (request instanceof HttpRequest<?> httpRequest) {
+            String value = httpRequest.getHeaders().get(name);
+            return value == null ? defaultValue : value;
         }
-        return "proj-default";
+        return defaultValue;
     }
 
-    private boolean isTokenValid(String apiKey) {
-        if (apiKey == null || apiKey.isEmpty()) {
-            return false;
+    private static String sha256Hex(String apiKey) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
+    }
 
-        if (!apiKey.startsWith("sk-")) {
+    static boolean isTokenValid(String apiKey) {
+        if (apiKey == null || !apiKey.startsWith(LEGACY_PREFIX)) {
             return false;
         }
 
-        if (apiKey.length() == 51 && LEGACY_TOKEN_PATTERN.matcher(apiKey).matches()) {
+        if (apiKey.length() == LEGACY_PREFIX.length() + LEGACY_KEY_LENGTH
+                && isAlphanumeric(apiKey, LEGACY_PREFIX.length())) {
             return true;
         }
 
-        return NEW_TOKEN_PATTERN.matcher(apiKey).matches();
+        if (apiKey.startsWith(PROJECT_PREFIX)) {
+            return isKeyBody(apiKey, PROJECT_PREFIX.length());
+        }
+        if (apiKey.startsWith(SERVICE_ACCOUNT_PREFIX)) {
+            return isKeyBody(apiKey, SERVICE_ACCOUNT_PREFIX.length());
+        }
+        return false;
+    }
+
+    private static boolean isAlphanumeric(String value, int from) {
+        for (int i = from; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isAsciiLetterOrDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isKeyBody(String value, int from) {
+        int length = value.length() - from;
+        if (length < MIN_KEY_LENGTH || length > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = from; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '_' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static final class ValidatedKey {
+
+        // Bounds the combinations kept per key when clients send arbitrary header values
+        private static final int MAX_COMBINATIONS = 64;
+
+        private final String keyId;
+        private final ApiKey apiKey;
+        private final long storeVersion;
+        private final Map<String, Map<String, Mono<Authentication>>> authentications =
+                new ConcurrentHashMap<>();
+        private final AtomicInteger combinations = new AtomicInteger();
+
+        private ValidatedKey(String keyId, @Nullable ApiKey apiKey, long storeVersion) {
+            this.keyId = keyId;
+            this.apiKey = apiKey;
+            this.storeVersion = storeVersion;
+        }
+
+        private Mono<Authentication> authentication(String organization, String project) {
+            Map<String, Mono<Authentication>> byProject = authentications.get(organization);
+            if (byProject != null) {
+                Mono<Authentication> authentication = byProject.get(project);
+                if (authentication != null) {
+                    return authentication;
+                }
+            }
+
+            Mono<Authentication> authentication =
+                    Mono.just(
+                            Authentication.build(
+                                    "openai-compat", attributes(organization, project)));
+            if (combinations.get() < MAX_COMBINATIONS) {
+                Map<String, Mono<Authentication>> projects =
+                        authentications.computeIfAbsent(
+                                organization, key -> new ConcurrentHashMap<>());
+                if (projects.putIfAbsent(project, authentication) == null) {
+                    combinations.incrementAndGet();
+                }
+            }
+            return authentication;
+        }
+
+        private Map<String, Object> attributes(String organization, String project) {
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put("authType", "token");
+            attributes.put("keyId", keyId);
+            attributes.put("organization", organization);
+            attributes.put("project", project);
+            if (apiKey != null) {
+                // A registered key is bound to its organization and project. The bound values are
+                // kept apart as well, since only they can be trusted for shared budgets.
+                if (apiKey.organization() != null) {
+                    attributes.put("organization", apiKey.organization());
+                    attributes.put("boundOrganization", apiKey.organization());
+                }
+                if (apiKey.project() != null) {
+                    attributes.put("project", apiKey.project());
+                    attributes.put("boundProject", apiKey.project());
+                }
+                if (apiKey.tier() != null) {
+                    attributes.put("tier", apiKey.tier());
+                }
+                if (apiKey.allowedModels() != null && !apiKey.allowedModels().isEmpty()) {
+                    attributes.put("allowedModels", Set.copyOf(apiKey.allowedModels()));
+                }
+            }
+            // Resolved once here, so rate limit checks do not build the budget keys per request
+            attributes.put(RateLimitKeys.ATTRIBUTE, RateLimitKeys.of(attributes));
+            return Map.copyOf(attributes);
+        }
     }
 }
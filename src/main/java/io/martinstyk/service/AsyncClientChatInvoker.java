@@ -0,0 +1,45 @@
+package io.martinstyk.service;
+
+import com.oracle.bmc.generativeaiinference.GenerativeAiInferenceAsyncClient;
+import com.oracle.bmc.generativeaiinference.requests.ChatRequest;
+import com.oracle.bmc.generativeaiinference.responses.ChatResponse;
+import com.oracle.bmc.responses.AsyncHandler;
+import java.util.concurrent.Future;
+import reactor.core.publisher.Mono;
+
+public class AsyncClientChatInvoker implements ChatInvoker {
+
+    private final GenerativeAiInferenceAsyncClient client;
+
+    public AsyncClientChatInvoker(GenerativeAiInferenceAsyncClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Mono<ChatResponse> chat(ChatRequest chatRequest, String model) {
+        return Mono.create(
+                sink -> {
+                    Future<ChatResponse> future =
+                            client.chat(
+                                    chatRequest,
+                                    new AsyncHandler<>() {
+                                        @Override
+                                        public void onSuccess(
+                                                ChatRequest request, ChatResponse response) {
+                                            sink.success(response);
+                                        }
+
+                                        @Override
+                                        public void onError(ChatRequest request, Throwable error) {
+                                            sink.error(error);
+                                        }
+                                    });
+                    sink.onCancel(() -> future.cancel(true));
+                });
+    }
+
+    @Override
+    public String getEndpoint() {
+        return client.getEndpoint();
+    }
+}
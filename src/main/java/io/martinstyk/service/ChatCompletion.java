@@ -4,9 +4,10 @@ import io.martinstyk.model.CreateChatCompletionRequest;
 import io.martinstyk.model.CreateChatCompletionResponse;
 import io.micronaut.http.sse.Event;
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
 
 public interface ChatCompletion {
-    CreateChatCompletionResponse processChatCompletion(CreateChatCompletionRequest request);
+    Mono<CreateChatCompletionResponse> processChatCompletion(CreateChatCompletionRequest request);
 
     Publisher<Event<String>> processStreamingChatCompletion(CreateChatCompletionRequest request);
 }
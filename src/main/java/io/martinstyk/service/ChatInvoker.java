@@ -0,0 +1,11 @@
+package io.martinstyk.service;
+
+import com.oracle.bmc.generativeaiinference.requests.ChatRequest;
+import com.oracle.bmc.generativeaiinference.responses.ChatResponse;
+import reactor.core.publisher.Mono;
+
+public interface ChatInvoker {
+    Mono<ChatResponse> chat(ChatRequest chatRequest, String model);
+
+    String getEndpoint();
+}
@@ -1,5 +1,6 @@
 package io.martinstyk.service;
 
+import io.martinstyk.metrics.ChatMetrics;
 import io.martinstyk.model.ChatCompletionChoice;
 import io.martinstyk.model.ChatCompletionResponseMessage;
 import io.martinstyk.model.CreateChatCompletionRequest;
@@ -7,6 +8,8 @@ import io.martinstyk.model.CreateChatCompletionResponse;
 import io.martinstyk.model.FinishReason;
 import io.martinstyk.model.ResponseObject;
 import io.martinstyk.model.Usage;
+import io.martinstyk.streaming.ChatCompletionChunkWriter;
+import io.martinstyk.streaming.ChatCompletionEventEncoder;
 import io.micronaut.context.annotation.Primary;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.context.env.Environment;
@@ -20,6 +23,7 @@ import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Singleton
 @Primary
@@ -28,9 +32,19 @@ public class InMemoryChatCompletion implements ChatCompletion {
 
     private static final Logger logger = LoggerFactory.getLogger(InMemoryChatCompletion.class);
 
+    private final ChatCompletionEventEncoder eventEncoder;
+    private final ChatMetrics chatMetrics;
+
+    public InMemoryChatCompletion(
+            ChatCompletionEventEncoder eventEncoder, ChatMetrics chatMetrics) {
+        this.eventEncoder = eventEncoder;
+        this.chatMetrics = chatMetrics;
+    }
+
     @Override
-    public CreateChatCompletionResponse processChatCompletion(CreateChatCompletionRequest request) {
-        logger.info("Processing mock chat completion request for model: {}", request.getModel());
+    public Mono<CreateChatCompletionResponse> processChatCompletion(
+            CreateChatCompletionRequest request) {
+        logger.debug("Processing mock chat completion request for model: {}", request.getModel());
 
         ChatCompletionResponseMessage message = new ChatCompletionResponseMessage();
         message.setRole("assistant");
@@ -47,28 +61,51 @@ public class InMemoryChatCompletion implements ChatCompletion {
         response.setCreated(Instant.now().getEpochSecond());
         response.setModel(request.getModel());
         response.setChoices(List.of(choice));
+        response.setUsage(usage());
 
-        Usage usage = new Usage();
-        usage.setPromptTokens(10);
-        usage.setCompletionTokens(5);
-        usage.setTotalTokens(15);
-        response.setUsage(usage);
-
-        return response;
+        return Mono.just(response);
     }
 
     @Override
     public Publisher<Event<String>> processStreamingChatCompletion(
             CreateChatCompletionRequest request) {
-        logger.info(
+        logger.debug(
                 "Processing mock streaming chat completion request for model: {}",
                 request.getModel());
+        ChatCompletionChunkWriter chunkWriter =
+                eventEncoder.newChunkWriter(
+                        "chatcmpl-" + UUID.randomUUID().toString().substring(0, 8),
+                        Instant.now().getEpochSecond(),
+                        request.getModel());
         String content = "This is a mock response from the gateway";
         String[] words = content.split(" ");
+
         Flux<Event<String>> wordFlux =
-                Flux.fromArray(words).delayElements(Duration.ofMillis(500)).map(Event::of);
+                Flux.range(0, words.length)
+                        .delayElements(Duration.ofMillis(500))
+                        .map(i -> chunkWriter.content(0, i == 0 ? words[i] : " " + words[i]));
+        Flux<Event<String>> finishFlux =
+                Flux.defer(() -> Flux.just(chunkWriter.finish(0, FinishReason.STOP)));
+        // The usage is recorded like OCI streams report it, so rate limits see it as well
+        Flux<Event<String>> usageFlux =
+                Flux.deferContextual(
+                        context -> {
+                            Usage usage = usage();
+                            chatMetrics.recordUsage(
+                                    chatMetrics.current(context, request.getModel()), usage);
+                            return Flux.just(chunkWriter.usage(usage));
+                        });
+
+        Flux<Event<String>> doneFlux = Flux.just(eventEncoder.done());
+        return Flux.concat(wordFlux, finishFlux, usageFlux, doneFlux)
+                .startWith(chunkWriter.role(0, "assistant"));
+    }
 
-        Flux<Event<String>> doneFlux = Flux.just(Event.of("[DONE]"));
-        return Flux.concat(wordFlux, doneFlux);
+    private static Usage usage() {
+        Usage usage = new Usage();
+        usage.setPromptTokens(10);
+        usage.setCompletionTokens(5);
+        usage.setTotalTokens(15);
+        return usage;
     }
 }
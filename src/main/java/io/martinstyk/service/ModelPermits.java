@@ -0,0 +1,32 @@
+package io.martinstyk.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Permits for the blocking OCI calls of each model. One instance is shared by the invokers of all
+ * upstream targets, so the limit per model holds for the gateway as a whole however many targets
+ * serve the model.
+ */
+public class ModelPermits {
+
+    private final int maxConcurrencyPerModel;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public ModelPermits(int maxConcurrencyPerModel) {
+        this.maxConcurrencyPerModel = maxConcurrencyPerModel;
+    }
+
+    Semaphore forModel(String model) {
+        return permits.computeIfAbsent(model, key -> new Semaphore(maxConcurrencyPerModel, true));
+    }
+
+    public Map<String, Integer> getAvailablePermits() {
+        Map<String, Integer> availablePermits = new HashMap<>();
+        permits.forEach(
+                (model, semaphore) -> availablePermits.put(model, semaphore.availablePermits()));
+        return availablePermits;
+    }
+}
@@ -1,64 +1,602 @@
 package io.martinstyk.service;
 
-import com.oracle.bmc.generativeaiinference.GenerativeAiInferenceClient;
 import com.oracle.bmc.generativeaiinference.model.ChatDetails;
 import com.oracle.bmc.generativeaiinference.model.GenericChatRequest;
+import com.oracle.bmc.generativeaiinference.model.OnDemandServingMode;
+import com.oracle.bmc.generativeaiinference.model.ServingMode;
 import com.oracle.bmc.generativeaiinference.requests.ChatRequest;
+import com.oracle.bmc.generativeaiinference.responses.ChatResponse;
+import io.martinstyk.cache.RequestFingerprint;
+import io.martinstyk.config.FanOutProperties;
+import io.martinstyk.limit.ConcurrencyLimiter;
+import io.martinstyk.limit.Permit;
 import io.martinstyk.mapper.ChatCompletionMapper;
+import io.martinstyk.metrics.ChatMetrics;
+import io.martinstyk.metrics.MeteredRequest;
+import io.martinstyk.metrics.TokenTimer;
+import io.martinstyk.model.ChatCompletionChoice;
 import io.martinstyk.model.CreateChatCompletionRequest;
 import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.model.Usage;
+import io.martinstyk.streaming.ChatCompletionChunkWriter;
+import io.martinstyk.streaming.ChatCompletionEventEncoder;
+import io.martinstyk.streaming.OciEventStreamReader;
+import io.martinstyk.streaming.OciStreamEvent;
+import io.martinstyk.tracing.ChatTracing;
+import io.martinstyk.upstream.HedgingPolicy;
+import io.martinstyk.upstream.UpstreamPool;
+import io.martinstyk.upstream.UpstreamTarget;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.http.sse.Event;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 public class OciChatCompletion implements ChatCompletion {
 
     private static final Logger logger = LoggerFactory.getLogger(OciChatCompletion.class);
 
-    private final GenerativeAiInferenceClient client;
-    private final ChatDetails chatDetails;
+    private static final String CHAT_SPAN = "gateway.chat";
+    private static final String QUEUE_SPAN = "gateway.queue";
+    private static final String UPSTREAM_SPAN = "oci.chat";
+    private static final String MAP_REQUEST_SPAN = "gateway.map_request";
+
+    private final UpstreamPool upstreamPool;
+    private final ConcurrencyLimiter concurrencyLimiter;
     private final ChatCompletionMapper chatCompletionMapper;
+    private final ModelResolver modelResolver;
+    private final OciEventStreamReader eventStreamReader;
+    private final ChatCompletionEventEncoder eventEncoder;
+    private final ChatMetrics chatMetrics;
+    private final ChatTracing chatTracing;
+    private final boolean fanOutEnabled;
+    private final Set<String> fanOutModels;
+    private final int fanOutConcurrency;
+    private final HedgingPolicy hedgingPolicy;
 
     public OciChatCompletion(
-            GenerativeAiInferenceClient generativeAiInferenceClient,
-            ChatDetails chatDetails,
-            ChatCompletionMapper chatCompletionMapper) {
-        this.client = generativeAiInferenceClient;
-        this.chatDetails = chatDetails;
+            UpstreamPool upstreamPool,
+            ConcurrencyLimiter concurrencyLimiter,
+            ChatCompletionMapper chatCompletionMapper,
+            ModelResolver modelResolver,
+            OciEventStreamReader eventStreamReader,
+            ChatCompletionEventEncoder eventEncoder,
+            ChatMetrics chatMetrics,
+            ChatTracing chatTracing,
+            FanOutProperties fanOutProperties,
+            @Nullable HedgingPolicy hedgingPolicy) {
+        this.upstreamPool = upstreamPool;
+        this.concurrencyLimiter = concurrencyLimiter;
         this.chatCompletionMapper = chatCompletionMapper;
+        this.modelResolver = modelResolver;
+        this.eventStreamReader = eventStreamReader;
+        this.eventEncoder = eventEncoder;
+        this.chatMetrics = chatMetrics;
+        this.chatTracing = chatTracing;
+        this.fanOutEnabled = fanOutProperties.isEnabled();
+        this.fanOutModels = Set.copyOf(fanOutProperties.getModels());
+        this.fanOutConcurrency = fanOutProperties.getMaxConcurrency();
+        this.hedgingPolicy = hedgingPolicy;
     }
 
     @Override
-    public CreateChatCompletionResponse processChatCompletion(
+    public Mono<CreateChatCompletionResponse> processChatCompletion(
             CreateChatCompletionRequest openAiRequest) {
-        logger.info(
+        logger.debug(
                 "Processing OCI GenAI chat completion request for model: {}",
                 openAiRequest.getModel());
 
+        return chatTracing.traceMono(
+                CHAT_SPAN,
+                SpanKind.INTERNAL,
+                chatAttributes(openAiRequest, false),
+                traceContext ->
+                        Mono.deferContextual(
+                                context ->
+                                        completion(
+                                                openAiRequest,
+                                                chatMetrics.current(
+                                                        context, openAiRequest.getModel()),
+                                                traceContext)));
+    }
+
+    @Override
+    public Publisher<Event<String>> processStreamingChatCompletion(
+            CreateChatCompletionRequest request) {
+        logger.debug(
+                "Processing OCI GenAI streaming chat completion request for model: {}",
+                request.getModel());
+
+        // The span covers the whole stream, so it ends with the last event sent to the client
+        return chatTracing.traceFlux(
+                CHAT_SPAN,
+                SpanKind.INTERNAL,
+                chatAttributes(request, true),
+                traceContext ->
+                        Flux.deferContextual(
+                                context -> {
+                                    MeteredRequest metered =
+                                            chatMetrics.current(context, request.getModel());
+                                    int generations = fanOutGenerations(request);
+                                    return generations > 1
+                                            ? fanOutStream(
+                                                    request, metered, traceContext, generations)
+                                            : stream(request, metered, traceContext);
+                                }));
+    }
+
+    private Mono<CreateChatCompletionResponse> completion(
+            CreateChatCompletionRequest openAiRequest,
+            MeteredRequest metered,
+            Context traceContext) {
+        int generations = fanOutGenerations(openAiRequest);
+        Mono<CreateChatCompletionResponse> completion =
+                generations > 1
+                        ? fanOut(openAiRequest, metered, generations)
+                        : complete(openAiRequest, metered, null);
+        return completion.doOnNext(
+                response -> {
+                    chatMetrics.recordUsage(metered, response.getUsage());
+                    chatTracing.recordUsage(traceContext, response.getUsage());
+                });
+    }
+
+    private Mono<CreateChatCompletionResponse> complete(
+            CreateChatCompletionRequest openAiRequest,
+            MeteredRequest metered,
+            @Nullable Integer generation) {
+        // Only deterministic requests are hedged, so either call gives the client the same answer
+        Mono<ChatResponse> response =
+                hedgingPolicy != null
+                                && generation == null
+                                && RequestFingerprint.isDeterministic(openAiRequest)
+                        ? hedged(openAiRequest, metered)
+                        : call(openAiRequest, metered, generation, null, null);
+        return response.map(chatResponse -> toResponse(chatResponse, openAiRequest, metered));
+    }
+
+    private Mono<ChatResponse> call(
+            CreateChatCompletionRequest openAiRequest,
+            MeteredRequest metered,
+            @Nullable Integer generation,
+            @Nullable UpstreamTarget excluded,
+            @Nullable Sinks.One<UpstreamTarget> started) {
+        return Mono.usingWhen(
+                acquirePermit(openAiRequest),
+                permit ->
+                        upstreamPool.call(
+                                openAiRequest,
+                                excluded,
+                                target -> {
+                                    if (started != null) {
+                                        started.tryEmitValue(target);
+                                    }
+                                    return chat(
+                                            target,
+                                            permit,
+                                            openAiRequest,
+                                            false,
+                                            metered,
+                                            generation);
+                                }),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    /**
+     * Sends a second call to another target when the first one has not answered within the recent
+     * latency percentile of the model. The first response wins and the other call is cancelled;
+     * the request only fails once both calls have failed, with the error of the first one.
+     */
+    private Mono<ChatResponse> hedged(
+            CreateChatCompletionRequest openAiRequest, MeteredRequest metered) {
+        String model = modelResolver.resolveModel(openAiRequest.getModel());
+        hedgingPolicy.onCall();
+        Duration delay = hedgingPolicy.getDelay(model);
+        if (delay == null) {
+            return call(openAiRequest, metered, null, null, null);
+        }
+
+        // The delay starts once the first call is sent, so waiting for a permit does not count
+        Sinks.One<UpstreamTarget> started = Sinks.one();
+        Sinks.One<Throwable> failed = Sinks.one();
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        Mono<ChatResponse> primary =
+                call(openAiRequest, metered, null, null, started)
+                        .doOnError(
+                                error -> {
+                                    primaryError.set(error);
+                                    failed.tryEmitValue(error);
+                                });
+        Mono<ChatResponse> hedge =
+                started.asMono()
+                        .delayUntil(target -> Mono.delay(delay))
+                        // A first call failing before the hedge is sent returns its error now
+                        .takeUntilOther(failed.asMono())
+                        .flatMap(target -> hedge(openAiRequest, metered, model, target));
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(error -> primaryError.get() != null ? primaryError.get() : error);
+    }
+
+    private Mono<ChatResponse> hedge(
+            CreateChatCompletionRequest openAiRequest,
+            MeteredRequest metered,
+            String model,
+            UpstreamTarget excluded) {
+        // A hedge to the same endpoint would only double its load
+        if (!upstreamPool.hasAlternative(excluded) || !hedgingPolicy.tryHedge(model)) {
+            return Mono.empty();
+        }
+        return call(openAiRequest, metered, null, excluded, null)
+                .doOnNext(response -> hedgingPolicy.onHedgeWon(model));
+    }
+
+    /**
+     * Runs each of the requested generations as its own upstream call, for models that cannot
+     * return several generations from one call, and merges them in generation order.
+     */
+    private Mono<CreateChatCompletionResponse> fanOut(
+            CreateChatCompletionRequest openAiRequest, MeteredRequest metered, int generations) {
+        return Flux.range(0, generations)
+                .flatMapSequential(
+                        generation -> complete(openAiRequest, metered, generation),
+                        fanOutConcurrency)
+                .collectList()
+                .map(OciChatCompletion::merge);
+    }
+
+    /** Interleaves the chunks of the generations as they arrive, each with its own index. */
+    private Flux<Event<String>> fanOutStream(
+            CreateChatCompletionRequest request,
+            MeteredRequest metered,
+            Context traceContext,
+            int generations) {
+        // The merged events are emitted one at a time, so a single chunk writer and token timer
+        // serve all generations even though they run in parallel
+        StreamState state =
+                new StreamState(
+                        eventEncoder.newChunkWriter(
+                                "chatcmpl-" + UUID.randomUUID(),
+                                Instant.now().getEpochSecond(),
+                                request.getModel()),
+                        metered,
+                        chatMetrics.tokenTimer(metered),
+                        chatMetrics.mappingTimer(metered, "chunk"),
+                        traceContext);
+        Usage usage = new Usage(0, 0, 0);
+        return Flux.range(0, generations)
+                .flatMap(
+                        generation -> generationEvents(request, metered, generation),
+                        fanOutConcurrency)
+                .map(event -> toFanOutChunk(state, event, usage))
+                .concatWith(Mono.fromSupplier(() -> usageChunk(state, usage)))
+                .concatWithValues(eventEncoder.done());
+    }
+
+    private Flux<GenerationEvent> generationEvents(
+            CreateChatCompletionRequest request, MeteredRequest metered, int generation) {
+        return Flux.usingWhen(
+                acquirePermit(request),
+                permit ->
+                        upstreamPool.stream(
+                                request,
+                                target ->
+                                        generationChunks(
+                                                target, permit, request, metered, generation)),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    private Flux<GenerationEvent> generationChunks(
+            UpstreamTarget target,
+            Permit permit,
+            CreateChatCompletionRequest request,
+            MeteredRequest metered,
+            int generation) {
+        // An event without an OCI event starts the generation with its role chunk
+        GenerationEvent started = new GenerationEvent(generation, null);
+        return chat(target, permit, request, true, metered, generation)
+                .flatMapMany(
+                        response ->
+                                eventStreamReader
+                                        .read(response.getEventStream())
+                                        .map(event -> new GenerationEvent(generation, event))
+                                        .startWith(started));
+    }
+
+    private Event<String> toFanOutChunk(StreamState state, GenerationEvent event, Usage usage) {
+        if (event.event() == null) {
+            return state.chunkWriter().role(event.generation(), "assistant");
+        }
+        OciStreamEvent ociEvent = event.event();
+        ociEvent.setIndex(event.generation());
+        // Usage is reported once for all generations at the end of the stream
+        if (ociEvent.getUsage() != null) {
+            add(usage, chatCompletionMapper.mapUsage(ociEvent.getUsage()));
+            ociEvent.setUsage(null);
+        }
+        return toChunk(state, ociEvent);
+    }
+
+    private Event<String> usageChunk(StreamState state, Usage usage) {
+        if (usage.getTotalTokens() == 0) {
+            return null;
+        }
+        chatMetrics.recordUsage(state.metered(), usage);
+        chatTracing.recordUsage(state.traceContext(), usage);
+        return state.chunkWriter().usage(usage);
+    }
+
+    private int fanOutGenerations(CreateChatCompletionRequest request) {
+        Integer n = request.getN();
+        if (!fanOutEnabled || n == null || n <= 1) {
+            return 1;
+        }
+        if (!fanOutModels.isEmpty()
+                && !fanOutModels.contains(modelResolver.resolveModel(request.getModel()))) {
+            return 1;
+        }
+        return n;
+    }
+
+    static CreateChatCompletionResponse merge(List<CreateChatCompletionResponse> responses) {
+        CreateChatCompletionResponse merged = responses.get(0);
+        List<ChatCompletionChoice> choices = new ArrayList<>(responses.size());
+        Usage usage = new Usage(0, 0, 0);
+        for (CreateChatCompletionResponse response : responses) {
+            for (ChatCompletionChoice choice : response.getChoices()) {
+                choice.setIndex(choices.size());
+                choices.add(choice);
+            }
+            add(usage, response.getUsage());
+        }
+        merged.setChoices(choices);
+        merged.setUsage(usage);
+        return merged;
+    }
+
+    private static void add(Usage total, @Nullable Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        total.setPromptTokens(total.getPromptTokens() + valueOf(usage.getPromptTokens()));
+        total.setCompletionTokens(
+                total.getCompletionTokens() + valueOf(usage.getCompletionTokens()));
+        total.setTotalTokens(total.getTotalTokens() + valueOf(usage.getTotalTokens()));
+    }
+
+    private static int valueOf(@Nullable Integer tokens) {
+        return tokens == null ? 0 : tokens;
+    }
+
+    private Flux<Event<String>> stream(
+            CreateChatCompletionRequest request, MeteredRequest metered, Context traceContext) {
+        StreamState state =
+                new StreamState(
+                        eventEncoder.newChunkWriter(
+                                "chatcmpl-" + UUID.randomUUID(),
+                                Instant.now().getEpochSecond(),
+                                request.getModel()),
+                        metered,
+                        chatMetrics.tokenTimer(metered),
+                        chatMetrics.mappingTimer(metered, "chunk"),
+                        traceContext);
+        return Flux.usingWhen(
+                        acquirePermit(request),
+                        permit ->
+                                upstreamPool.stream(
+                                        request,
+                                        target -> streamChunks(target, permit, request, state)),
+                        permit -> Mono.fromRunnable(permit::release))
+                .concatWithValues(eventEncoder.done());
+    }
+
+    private Mono<Permit> acquirePermit(CreateChatCompletionRequest openAiRequest) {
+        // Time spent waiting for a concurrency permit shows up as its own span
+        return chatTracing.traceMono(
+                QUEUE_SPAN,
+                SpanKind.INTERNAL,
+                Attributes.empty(),
+                traceContext ->
+                        concurrencyLimiter.acquire(
+                                modelResolver.resolveModel(openAiRequest.getModel()),
+                                openAiRequest.getServiceTier()));
+    }
+
+    private Flux<Event<String>> streamChunks(
+            UpstreamTarget target,
+            Permit permit,
+            CreateChatCompletionRequest request,
+            StreamState state) {
+        // The role chunk is sent only once OCI accepted the call, so upstream and limiter
+        // errors still surface as a regular HTTP error response
+        return chat(target, permit, request, true, state.metered(), null)
+                .flatMapMany(
+                        response ->
+                                eventStreamReader
+                                        .read(response.getEventStream())
+                                        .map(event -> toChunk(state, event))
+                                        .startWith(state.chunkWriter().role(0, "assistant")));
+    }
+
+    private Event<String> toChunk(StreamState state, OciStreamEvent event) {
+        if (event.getMessage() != null) {
+            state.tokenTimer().onToken();
+        }
+        if (event.getUsage() != null) {
+            Usage usage = chatCompletionMapper.mapUsage(event.getUsage());
+            chatMetrics.recordUsage(state.metered(), usage);
+            chatTracing.recordUsage(state.traceContext(), usage);
+        }
+        return state.chunkMapping()
+                .record(
+                        () ->
+                                chatCompletionMapper.toChatCompletionChunk(
+                                        state.chunkWriter(), event));
+    }
+
+    private Mono<ChatResponse> chat(
+            UpstreamTarget target,
+            Permit permit,
+            CreateChatCompletionRequest openAiRequest,
+            boolean stream,
+            MeteredRequest metered,
+            @Nullable Integer generation) {
+        return chatTracing.traceMono(
+                UPSTREAM_SPAN,
+                SpanKind.CLIENT,
+                Attributes.of(
+                        ChatTracing.MODEL,
+                        openAiRequest.getModel(),
+                        ChatTracing.TARGET,
+                        target.getName()),
+                traceContext -> {
+                    ChatRequest chatRequest =
+                            chatTracing.trace(
+                                    traceContext,
+                                    MAP_REQUEST_SPAN,
+                                    () ->
+                                            mapRequest(
+                                                    target,
+                                                    openAiRequest,
+                                                    stream,
+                                                    metered,
+                                                    generation));
+                    long start = System.nanoTime();
+                    return chatTracing
+                            .withContext(
+                                    traceContext,
+                                    target.chat(
+                                            chatRequest,
+                                            modelResolver.resolveModel(openAiRequest.getModel())))
+                            .doOnSuccess(
+                                    response -> {
+                                        long nanos = System.nanoTime() - start;
+                                        permit.onResponse();
+                                        chatMetrics.recordUpstream(
+                                                metered, target.getName(), null, nanos);
+                                        if (hedgingPolicy != null && !stream) {
+                                            hedgingPolicy.recordLatency(
+                                                    modelResolver.resolveModel(
+                                                            openAiRequest.getModel()),
+                                                    nanos);
+                                        }
+                                    })
+                            .doOnError(
+                                    error -> {
+                                        permit.onError(error);
+                                        chatMetrics.recordUpstream(
+                                                metered,
+                                                target.getName(),
+                                                error,
+                                                System.nanoTime() - start);
+                                    })
+                            .doOnCancel(
+                                    () -> {
+                                        // A cancelled call took at least this long, leaving it
+                                        // out would pull the percentile down
+                                        if (hedgingPolicy != null && !stream) {
+                                            hedgingPolicy.recordLatency(
+                                                    modelResolver.resolveModel(
+                                                            openAiRequest.getModel()),
+                                                    System.nanoTime() - start);
+                                        }
+                                    });
+                });
+    }
+
+    private ChatRequest mapRequest(
+            UpstreamTarget target,
+            CreateChatCompletionRequest openAiRequest,
+            boolean stream,
+            MeteredRequest metered,
+            @Nullable Integer generation) {
+        return chatMetrics
+                .mappingTimer(metered, "request")
+                .record(
+                        () ->
+                                toChatRequest(
+                                        target.getChatDetails(),
+                                        openAiRequest,
+                                        stream,
+                                        generation));
+    }
+
+    private CreateChatCompletionResponse toResponse(
+            ChatResponse response,
+            CreateChatCompletionRequest openAiRequest,
+            MeteredRequest metered) {
+        return chatMetrics
+                        .mappingTimer(metered, "response")
+                        .record(
+                                () ->
+                                        chatCompletionMapper.toCreateChatCompletionResponse(
+                                                response.getChatResult(),
+                                                openAiRequest.getModel()));
+    }
+
+    private static Attributes chatAttributes(CreateChatCompletionRequest request, boolean stream) {
+        return Attributes.of(ChatTracing.MODEL, request.getModel(), ChatTracing.STREAM, stream);
+    }
+
+    private ChatRequest toChatRequest(
+            ChatDetails chatDetails,
+            CreateChatCompletionRequest openAiRequest,
+            boolean stream,
+            @Nullable Integer generation) {
         GenericChatRequest genericChatRequest =
                 chatCompletionMapper.toGenericChatRequest(openAiRequest);
+        if (generation != null) {
+            // One generation per call, and a fixed seed is offset so that the calls still differ
+            GenericChatRequest.Builder builder =
+                    GenericChatRequest.builder()
+                            .copy(genericChatRequest)
+                            .isStream(stream)
+                            .numGenerations(1);
+            if (genericChatRequest.getSeed() != null) {
+                builder.seed(genericChatRequest.getSeed() + generation);
+            }
+            genericChatRequest = builder.build();
+        } else if (stream != Boolean.TRUE.equals(genericChatRequest.getIsStream())) {
+            genericChatRequest =
+                    GenericChatRequest.builder().copy(genericChatRequest).isStream(stream).build();
+        }
 
         ChatDetails.Builder chatDetailsBuilder = ChatDetails.builder();
         chatDetailsBuilder.copy(chatDetails);
+        chatDetailsBuilder.servingMode(resolveServingMode(chatDetails, openAiRequest.getModel()));
         chatDetailsBuilder.chatRequest(genericChatRequest);
 
         ChatRequest.Builder chatRequestBuilder = ChatRequest.builder();
         chatRequestBuilder.chatDetails(chatDetailsBuilder.build());
+        return chatRequestBuilder.build();
+    }
 
-        client.chat(chatRequestBuilder.build());
-
-        throw new UnsupportedOperationException("Chat completion processing not yet implemented");
+    private ServingMode resolveServingMode(ChatDetails chatDetails, String model) {
+        if (chatDetails.getServingMode() instanceof OnDemandServingMode) {
+            return OnDemandServingMode.builder().modelId(modelResolver.resolveModel(model)).build();
+        }
+        return chatDetails.getServingMode();
     }
 
-    @Override
-    public Publisher<Event<String>> processStreamingChatCompletion(
-            CreateChatCompletionRequest request) {
-        logger.info(
-                "Processing OCI GenAI streaming chat completion request for model: {}",
-                request.getModel());
+    private record GenerationEvent(int generation, @Nullable OciStreamEvent event) {}
 
-        throw new UnsupportedOperationException(
-                "Streaming chat completion processing not yet implemented");
-    }
+    private record StreamState(
+            ChatCompletionChunkWriter chunkWriter,
+            MeteredRequest metered,
+            TokenTimer tokenTimer,
+            Timer chunkMapping,
+            Context traceContext) {}
 }
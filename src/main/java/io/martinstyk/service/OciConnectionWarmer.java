@@ -0,0 +1,65 @@
+package io.martinstyk.service;
+
+import io.martinstyk.config.TransportProperties;
+import io.martinstyk.upstream.UpstreamPool;
+import io.martinstyk.upstream.UpstreamTarget;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.runtime.server.event.ServerStartupEvent;
+import jakarta.inject.Singleton;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Singleton
+@Requires(property = "genai.transport.warm-up", value = "true")
+public class OciConnectionWarmer implements ApplicationEventListener<ServerStartupEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OciConnectionWarmer.class);
+
+    private final HttpClient httpClient;
+    private final UpstreamPool upstreamPool;
+    private final TransportProperties transportProperties;
+
+    public OciConnectionWarmer(
+            @Client(id = "oci") HttpClient httpClient,
+            UpstreamPool upstreamPool,
+            TransportProperties transportProperties) {
+        this.httpClient = httpClient;
+        this.upstreamPool = upstreamPool;
+        this.transportProperties = transportProperties;
+    }
+
+    @Override
+    public void onApplicationEvent(ServerStartupEvent event) {
+        // Targets in the same region share an endpoint and so its connection pool
+        Set<String> endpoints = new LinkedHashSet<>();
+        for (UpstreamTarget target : upstreamPool.getTargets()) {
+            endpoints.add(target.getEndpoint());
+        }
+        int connections = transportProperties.getWarmUpConnections();
+        for (String endpoint : endpoints) {
+            warmUp(endpoint, connections);
+        }
+    }
+
+    private void warmUp(String endpoint, int connections) {
+        // Any response, including an error status, means the TLS handshake is done and the
+        // connection is back in the pool
+        Flux.range(0, connections)
+                .flatMap(
+                        i ->
+                                Mono.from(httpClient.exchange(HttpRequest.HEAD(endpoint)))
+                                        .then()
+                                        .onErrorResume(error -> Mono.empty()))
+                .doOnComplete(
+                        () -> logger.info("Warmed up {} connections to {}", connections, endpoint))
+                .subscribe();
+    }
+}
@@ -0,0 +1,108 @@
+package io.martinstyk.service;
+
+import com.oracle.bmc.generativeaiinference.GenerativeAiInference;
+import com.oracle.bmc.generativeaiinference.requests.ChatRequest;
+import com.oracle.bmc.generativeaiinference.responses.ChatResponse;
+import io.opentelemetry.context.Context;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+public class VirtualThreadChatInvoker implements ChatInvoker, AutoCloseable {
+
+    private final GenerativeAiInference client;
+    private final ModelPermits modelPermits;
+    private final ExecutorService executorService;
+    private final Scheduler scheduler;
+
+    public VirtualThreadChatInvoker(GenerativeAiInference client, ModelPermits modelPermits) {
+        this.client = client;
+        this.modelPermits = modelPermits;
+        this.executorService =
+                Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("oci-chat-", 0).factory());
+        // Calls run with the trace context of the subscriber so the OCI request carries it
+        this.scheduler = Schedulers.fromExecutorService(Context.taskWrapping(executorService));
+    }
+
+    @Override
+    public Mono<ChatResponse> chat(ChatRequest chatRequest, String model) {
+        return Mono.fromCallable(() -> chatWithPermit(chatRequest, model))
+                .subscribeOn(scheduler)
+                // A response dropped by a cancellation still has to give its permit back
+                .doOnDiscard(ChatResponse.class, VirtualThreadChatInvoker::closeEventStream);
+    }
+
+    @Override
+    public String getEndpoint() {
+        return client.getEndpoint();
+    }
+
+    private ChatResponse chatWithPermit(ChatRequest chatRequest, String model)
+            throws InterruptedException {
+        Semaphore permits = modelPermits.forModel(model);
+        permits.acquire();
+        ChatResponse response;
+        try {
+            response = client.chat(chatRequest);
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        if (response.getEventStream() == null) {
+            permits.release();
+            return response;
+        }
+        // A streamed response keeps reading from its connection, so the permit is held until
+        // the event stream is closed
+        return ChatResponse.builder()
+                .copy(response)
+                .eventStream(new PermitReleasingInputStream(response.getEventStream(), permits))
+                .build();
+    }
+
+    private static void closeEventStream(ChatResponse response) {
+        if (response.getEventStream() != null) {
+            try {
+                response.getEventStream().close();
+            } catch (IOException e) {
+                // The stream is abandoned either way
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.dispose();
+        executorService.shutdownNow();
+    }
+
+    private static final class PermitReleasingInputStream extends FilterInputStream {
+
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingInputStream(InputStream in, Semaphore permits) {
+            super(in);
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
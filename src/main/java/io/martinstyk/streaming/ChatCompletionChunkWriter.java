@@ -0,0 +1,114 @@
+package io.martinstyk.streaming;
+
+import io.martinstyk.model.FinishReason;
+import io.martinstyk.model.ResponseObject;
+import io.martinstyk.model.Usage;
+import io.micronaut.http.sse.Event;
+
+public class ChatCompletionChunkWriter {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String prefix;
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    public ChatCompletionChunkWriter(String id, long created, String model) {
+        StringBuilder prefixBuilder = new StringBuilder(128);
+        prefixBuilder.append("{\"id\":");
+        appendString(prefixBuilder, id);
+        prefixBuilder.append(",\"object\":\"");
+        prefixBuilder.append(ResponseObject.CHAT_COMPLETION_CHUNK.getValue());
+        prefixBuilder.append("\",\"created\":").append(created);
+        prefixBuilder.append(",\"model\":");
+        appendString(prefixBuilder, model);
+        prefixBuilder.append(",\"choices\":[");
+        this.prefix = prefixBuilder.toString();
+    }
+
+    public Event<String> role(int index, String role) {
+        return write(index, role, "", null, null);
+    }
+
+    public Event<String> content(int index, String content) {
+        return write(index, null, content, null, null);
+    }
+
+    public Event<String> finish(int index, FinishReason finishReason) {
+        return write(index, null, null, finishReason, null);
+    }
+
+    public Event<String> usage(Usage usage) {
+        buffer.setLength(0);
+        buffer.append(prefix).append(']');
+        appendUsage(usage);
+        buffer.append('}');
+        return Event.of(buffer.toString());
+    }
+
+    public Event<String> write(
+            int index, String role, String content, FinishReason finishReason, Usage usage) {
+        buffer.setLength(0);
+        buffer.append(prefix);
+        buffer.append("{\"index\":").append(index).append(",\"delta\":{");
+        boolean hasRole = role != null;
+        if (hasRole) {
+            buffer.append("\"role\":");
+            appendString(buffer, role);
+        }
+        if (content != null) {
+            buffer.append(hasRole ? ",\"content\":" : "\"content\":");
+            appendString(buffer, content);
+        }
+        buffer.append("},\"finish_reason\":");
+        if (finishReason != null) {
+            buffer.append('"').append(finishReason.getValue()).append('"');
+        } else {
+            buffer.append("null");
+        }
+        buffer.append("}]");
+        if (usage != null) {
+            appendUsage(usage);
+        }
+        buffer.append('}');
+        return Event.of(buffer.toString());
+    }
+
+    private void appendUsage(Usage usage) {
+        buffer.append(",\"usage\":{\"prompt_tokens\":").append(usage.getPromptTokens());
+        buffer.append(",\"completion_tokens\":").append(usage.getCompletionTokens());
+        buffer.append(",\"total_tokens\":").append(usage.getTotalTokens()).append('}');
+    }
+
+    static void appendString(StringBuilder target, String value) {
+        target.append('"');
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            target.append(value, start, i);
+            appendEscaped(target, c);
+            start = i + 1;
+        }
+        target.append(value, start, length);
+        target.append('"');
+    }
+
+    private static void appendEscaped(StringBuilder target, char c) {
+        switch (c) {
+            case '"' -> target.append("\\\"");
+            case '\\' -> target.append("\\\\");
+            case '\n' -> target.append("\\n");
+            case '\r' -> target.append("\\r");
+            case '\t' -> target.append("\\t");
+            case '\b' -> target.append("\\b");
+            case '\f' -> target.append("\\f");
+            default -> {
+                target.append("\\u00");
+                target.append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            }
+        }
+    }
+}
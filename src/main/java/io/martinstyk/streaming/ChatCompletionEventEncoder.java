@@ -0,0 +1,18 @@
+package io.martinstyk.streaming;
+
+import io.micronaut.http.sse.Event;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class ChatCompletionEventEncoder {
+
+    public static final String DONE_MARKER = "[DONE]";
+
+    public ChatCompletionChunkWriter newChunkWriter(String id, long created, String model) {
+        return new ChatCompletionChunkWriter(id, created, model);
+    }
+
+    public Event<String> done() {
+        return Event.of(DONE_MARKER);
+    }
+}
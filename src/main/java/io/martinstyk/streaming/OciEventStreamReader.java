@@ -0,0 +1,79 @@
+package io.martinstyk.streaming;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.micronaut.core.type.Argument;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.ExecutorService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Singleton
+public class OciEventStreamReader {
+
+    private static final String DATA_FIELD = "data:";
+    private static final Argument<OciStreamEvent> EVENT_TYPE = Argument.of(OciStreamEvent.class);
+
+    private final JsonMapper jsonMapper;
+    private final Scheduler scheduler;
+
+    public OciEventStreamReader(
+            JsonMapper jsonMapper, @Named(TaskExecutors.BLOCKING) ExecutorService executorService) {
+        this.jsonMapper = jsonMapper;
+        this.scheduler = Schedulers.fromExecutorService(executorService);
+    }
+
+    public Flux<OciStreamEvent> read(InputStream eventStream) {
+        return Flux.using(
+                        () -> new BufferedReader(new InputStreamReader(eventStream, UTF_8)),
+                        this::events,
+                        this::closeQuietly)
+                .subscribeOn(scheduler);
+    }
+
+    private Flux<OciStreamEvent> events(BufferedReader reader) {
+        return Flux.generate(sink -> readNextEvent(reader, sink));
+    }
+
+    private void readNextEvent(BufferedReader reader, SynchronousSink<OciStreamEvent> sink) {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith(DATA_FIELD)) {
+                    continue;
+                }
+
+                String data = line.substring(DATA_FIELD.length()).trim();
+                if (data.isEmpty()) {
+                    continue;
+                }
+                if (ChatCompletionEventEncoder.DONE_MARKER.equals(data)) {
+                    break;
+                }
+
+                sink.next(jsonMapper.readValue(data, EVENT_TYPE));
+                return;
+            }
+            sink.complete();
+        } catch (IOException e) {
+            sink.error(e);
+        }
+    }
+
+    private void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // the upstream connection is already gone, nothing left to release
+        }
+    }
+}
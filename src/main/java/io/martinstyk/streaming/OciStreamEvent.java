@@ -0,0 +1,144 @@
+package io.martinstyk.streaming;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Serdeable
+public class OciStreamEvent {
+
+    @JsonProperty("index")
+    private Integer index;
+
+    @JsonProperty("message")
+    private Message message;
+
+    @JsonProperty("finishReason")
+    private String finishReason;
+
+    @JsonProperty("usage")
+    private Usage usage;
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    public void setMessage(Message message) {
+        this.message = message;
+    }
+
+    public String getFinishReason() {
+        return finishReason;
+    }
+
+    public void setFinishReason(String finishReason) {
+        this.finishReason = finishReason;
+    }
+
+    public Usage getUsage() {
+        return usage;
+    }
+
+    public void setUsage(Usage usage) {
+        this.usage = usage;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Serdeable
+    public static class Message {
+        @JsonProperty("role")
+        private String role;
+
+        @JsonProperty("content")
+        private List<Content> content;
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public List<Content> getContent() {
+            return content;
+        }
+
+        public void setContent(List<Content> content) {
+            this.content = content;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Serdeable
+    public static class Content {
+        @JsonProperty("type")
+        private String type;
+
+        @JsonProperty("text")
+        private String text;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @Serdeable
+    public static class Usage {
+        @JsonProperty("promptTokens")
+        private Integer promptTokens;
+
+        @JsonProperty("completionTokens")
+        private Integer completionTokens;
+
+        @JsonProperty("totalTokens")
+        private Integer totalTokens;
+
+        public Integer getPromptTokens() {
+            return promptTokens;
+        }
+
+        public void setPromptTokens(Integer promptTokens) {
+            this.promptTokens = promptTokens;
+        }
+
+        public Integer getCompletionTokens() {
+            return completionTokens;
+        }
+
+        public void setCompletionTokens(Integer completionTokens) {
+            this.completionTokens = completionTokens;
+        }
+
+        public Integer getTotalTokens() {
+            return totalTokens;
+        }
+
+        public void setTotalTokens(Integer totalTokens) {
+            this.totalTokens = totalTokens;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package io.martinstyk.tracing;
+
+import io.martinstyk.model.Usage;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import jakarta.inject.Singleton;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+@Singleton
+public class ChatTracing {
+
+    public static final AttributeKey<String> MODEL = AttributeKey.stringKey("gen_ai.request.model");
+    public static final AttributeKey<Boolean> STREAM = AttributeKey.booleanKey("gateway.stream");
+    public static final AttributeKey<String> TARGET =
+            AttributeKey.stringKey("gateway.upstream.target");
+    public static final AttributeKey<Long> INPUT_TOKENS =
+            AttributeKey.longKey("gen_ai.usage.input_tokens");
+    public static final AttributeKey<Long> OUTPUT_TOKENS =
+            AttributeKey.longKey("gen_ai.usage.output_tokens");
+
+    private static final String INSTRUMENTATION_SCOPE = "io.martinstyk.openai-oci-gateway";
+
+    private final Tracer tracer;
+
+    public ChatTracing(@Nullable OpenTelemetry openTelemetry) {
+        this.tracer =
+                (openTelemetry == null ? OpenTelemetry.noop() : openTelemetry)
+                        .getTracer(INSTRUMENTATION_SCOPE);
+    }
+
+    /**
+     * Tags the caller's span and returns a function that stores it in the Reactor context, where
+     * spans started later in the pipeline find their parent.
+     */
+    public Function<reactor.util.context.Context, reactor.util.context.Context> captureCurrent(
+            String model, boolean stream) {
+        Context current = Context.current();
+        Span.fromContext(current).setAttribute(MODEL, model).setAttribute(STREAM, stream);
+        return context -> context.put(Context.class, current);
+    }
+
+    public <T> Mono<T> traceMono(
+            String name, SpanKind kind, Attributes attributes, Function<Context, Mono<T>> body) {
+        return Mono.deferContextual(
+                reactorContext -> {
+                    Context parent = parent(reactorContext);
+                    Span span = startSpan(name, kind, attributes, parent);
+                    Context traceContext = parent.with(span);
+                    return body.apply(traceContext)
+                            .doOnError(error -> recordError(span, error))
+                            .doFinally(signal -> end(span, signal))
+                            .contextWrite(context -> context.put(Context.class, traceContext));
+                });
+    }
+
+    public <T> Flux<T> traceFlux(
+            String name, SpanKind kind, Attributes attributes, Function<Context, Flux<T>> body) {
+        return Flux.deferContextual(
+                reactorContext -> {
+                    Context parent = parent(reactorContext);
+                    Span span = startSpan(name, kind, attributes, parent);
+                    Context traceContext = parent.with(span);
+                    return body.apply(traceContext)
+                            .doOnError(error -> recordError(span, error))
+                            .doFinally(signal -> end(span, signal))
+                            .contextWrite(context -> context.put(Context.class, traceContext));
+                });
+    }
+
+    public <T> T trace(Context parent, String name, Supplier<T> body) {
+        Span span = startSpan(name, SpanKind.INTERNAL, Attributes.empty(), parent);
+        try {
+            return body.get();
+        } catch (RuntimeException e) {
+            recordError(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Subscribes with the given trace context made current, so that work started during the
+     * subscription, such as the OCI HTTP request, carries it.
+     */
+    public <T> Mono<T> withContext(Context traceContext, Mono<T> mono) {
+        return Mono.from(
+                subscriber -> {
+                    try (Scope ignored = traceContext.makeCurrent()) {
+                        mono.subscribe(subscriber);
+                    }
+                });
+    }
+
+    public void recordUsage(Context traceContext, @Nullable Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        Span span = Span.fromContext(traceContext);
+        if (usage.getPromptTokens() != null) {
+            span.setAttribute(INPUT_TOKENS, usage.getPromptTokens().longValue());
+        }
+        if (usage.getCompletionTokens() != null) {
+            span.setAttribute(OUTPUT_TOKENS, usage.getCompletionTokens().longValue());
+        }
+    }
+
+    private Span startSpan(String name, SpanKind kind, Attributes attributes, Context parent) {
+        return tracer.spanBuilder(name)
+                .setParent(parent)
+                .setSpanKind(kind)
+                .setAllAttributes(attributes)
+                .startSpan();
+    }
+
+    private static Context parent(ContextView reactorContext) {
+        return reactorContext.getOrDefault(Context.class, Context.current());
+    }
+
+    private static void recordError(Span span, Throwable error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR, error.getMessage());
+    }
+
+    private static void end(Span span, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            span.setAttribute("gateway.cancelled", true);
+        }
+        span.end();
+    }
+}
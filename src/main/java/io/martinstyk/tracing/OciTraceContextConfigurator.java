@@ -0,0 +1,35 @@
+package io.martinstyk.tracing;
+
+import com.oracle.bmc.http.ClientConfigurator;
+import com.oracle.bmc.http.client.HttpClientBuilder;
+import com.oracle.bmc.http.client.HttpRequest;
+import io.micronaut.core.annotation.Nullable;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import jakarta.inject.Singleton;
+
+/** Adds the W3C trace context of the current span to every request sent by an OCI client. */
+@Singleton
+public class OciTraceContextConfigurator implements ClientConfigurator {
+
+    private static final int PRIORITY = 100;
+    private static final TextMapSetter<HttpRequest> HEADER_SETTER =
+            (request, name, value) -> request.header(name, value);
+
+    private final TextMapPropagator propagator;
+
+    public OciTraceContextConfigurator(@Nullable OpenTelemetry openTelemetry) {
+        this.propagator =
+                (openTelemetry == null ? OpenTelemetry.noop() : openTelemetry)
+                        .getPropagators()
+                        .getTextMapPropagator();
+    }
+
+    @Override
+    public void customizeClient(HttpClientBuilder builder) {
+        builder.registerRequestInterceptor(
+                PRIORITY, request -> propagator.inject(Context.current(), request, HEADER_SETTER));
+    }
+}
@@ -0,0 +1,34 @@
+package io.martinstyk.upstream;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class EwmaLatencyStrategy implements LoadBalancingStrategy {
+
+    @Override
+    public UpstreamTarget select(
+            List<UpstreamTarget> candidates, CreateChatCompletionRequest request) {
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+
+        // Power of two choices: comparing two random targets avoids herding onto the single
+        // fastest one while every caller sees the same latency estimate
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        UpstreamTarget a = candidates.get(first);
+        UpstreamTarget b = candidates.get(second);
+        return cost(a) <= cost(b) ? a : b;
+    }
+
+    private static double cost(UpstreamTarget target) {
+        return target.getEwmaLatencyNanos() * (target.getOutstandingRequests() + 1);
+    }
+}
@@ -0,0 +1,110 @@
+package io.martinstyk.upstream;
+
+import io.martinstyk.config.HedgingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when a slow call gets a second, hedged call. A call is hedged once it takes longer than
+ * the recent latency percentile of its model, and only while the budget allows it. Every eligible
+ * call adds a fraction of a hedge to the budget, so hedges stay a fixed share of the traffic even
+ * when an upstream stalls for everyone.
+ */
+public class HedgingPolicy {
+
+    public static final String HEDGES = "gateway.upstream.hedges";
+
+    // Recent latencies kept per model, and how often the percentile is recomputed from them
+    private static final int WINDOW_SIZE = 512;
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    // The budget is kept in thousandths of a hedge and capped, which bounds a burst of hedges
+    private static final long HEDGE_COST = 1000;
+    private static final long MAX_BALANCE = 10 * HEDGE_COST;
+
+    private final MeterRegistry meterRegistry;
+    private final double percentile;
+    private final long deposit;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong balance = new AtomicLong();
+
+    public HedgingPolicy(HedgingProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.percentile = properties.getPercentile();
+        this.deposit = Math.round(properties.getBudget() * HEDGE_COST);
+        this.minDelayNanos = properties.getMinDelay().toNanos();
+        this.minSamples = Math.min(properties.getMinSamples(), WINDOW_SIZE);
+    }
+
+    public void recordLatency(String model, long nanos) {
+        latencies.computeIfAbsent(model, key -> new LatencyWindow()).record(nanos);
+    }
+
+    /** How long to wait for a call before hedging it, or null while too little is known. */
+    public @Nullable Duration getDelay(String model) {
+        LatencyWindow window = latencies.get(model);
+        if (window == null || window.percentileNanos == 0) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(window.percentileNanos, minDelayNanos));
+    }
+
+    /** Adds the share of a hedge that every eligible call earns. */
+    public void onCall() {
+        balance.getAndUpdate(current -> Math.min(current + deposit, MAX_BALANCE));
+    }
+
+    /** Takes one hedge from the budget, returning false when it is spent. */
+    public boolean tryHedge(String model) {
+        long current;
+        do {
+            current = balance.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - HEDGE_COST));
+        meterRegistry.counter(HEDGES, "model", model, "outcome", "sent").increment();
+        return true;
+    }
+
+    public void onHedgeWon(String model) {
+        meterRegistry.counter(HEDGES, "model", model, "outcome", "won").increment();
+    }
+
+    long getBalance() {
+        return balance.get();
+    }
+
+    private final class LatencyWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private long count;
+        private volatile long percentileNanos;
+
+        void record(long nanos) {
+            long[] snapshot = null;
+            int size;
+            synchronized (this) {
+                samples[(int) (count % WINDOW_SIZE)] = nanos;
+                count++;
+                size = (int) Math.min(count, WINDOW_SIZE);
+                if (size >= minSamples && count % RECOMPUTE_INTERVAL == 0) {
+                    snapshot = Arrays.copyOf(samples, size);
+                }
+            }
+            // Sorting a copy keeps the lock short for the calls recording at the same time
+            if (snapshot != null) {
+                Arrays.sort(snapshot);
+                int index = (int) Math.ceil(percentile * size) - 1;
+                percentileNanos = snapshot[Math.max(index, 0)];
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.martinstyk.upstream;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class LeastOutstandingStrategy implements LoadBalancingStrategy {
+
+    @Override
+    public UpstreamTarget select(
+            List<UpstreamTarget> candidates, CreateChatCompletionRequest request) {
+        int size = candidates.size();
+        // Start at a random offset so ties do not always land on the first target
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        UpstreamTarget selected = null;
+        int leastOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            UpstreamTarget candidate = candidates.get((offset + i) % size);
+            int outstanding = candidate.getOutstandingRequests();
+            if (outstanding < leastOutstanding) {
+                selected = candidate;
+                leastOutstanding = outstanding;
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,8 @@
+package io.martinstyk.upstream;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import java.util.List;
+
+public interface LoadBalancingStrategy {
+    UpstreamTarget select(List<UpstreamTarget> candidates, CreateChatCompletionRequest request);
+}
@@ -0,0 +1,108 @@
+package io.martinstyk.upstream;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.message.ChatCompletionRequestDeveloperMessage;
+import io.martinstyk.model.message.ChatCompletionRequestMessage;
+import io.martinstyk.model.message.ChatCompletionRequestSystemMessage;
+import java.util.List;
+
+public class PrefixAffinityStrategy implements LoadBalancingStrategy {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final double loadFactor;
+    private final LoadBalancingStrategy fallback;
+
+    public PrefixAffinityStrategy(double loadFactor, LoadBalancingStrategy fallback) {
+        this.loadFactor = loadFactor;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public UpstreamTarget select(
+            List<UpstreamTarget> candidates, CreateChatCompletionRequest request) {
+        int size = candidates.size();
+        long prefixHash = prefixHash(request);
+        if (size == 1 || prefixHash == 0) {
+            return fallback.select(candidates, request);
+        }
+
+        // Bounded loads: no target takes more than loadFactor times its weighted share of the
+        // requests in flight, so a hot prefix spills over to its next preferred target
+        int totalOutstanding = 0;
+        int totalWeight = 0;
+        for (UpstreamTarget candidate : candidates) {
+            totalOutstanding += candidate.getOutstandingRequests();
+            totalWeight += candidate.getWeight();
+        }
+        double capacityPerWeight = loadFactor * (totalOutstanding + 1) / totalWeight;
+
+        // Weighted rendezvous hashing: every target scores the prefix and the highest score
+        // wins, so adding or ejecting a target only moves the prefixes that scored it highest
+        UpstreamTarget selected = null;
+        double selectedScore = Double.NEGATIVE_INFINITY;
+        for (UpstreamTarget candidate : candidates) {
+            if (candidate.getOutstandingRequests() + 1
+                    > Math.ceil(capacityPerWeight * candidate.getWeight())) {
+                continue;
+            }
+            double score = score(prefixHash, candidate);
+            if (score > selectedScore) {
+                selected = candidate;
+                selectedScore = score;
+            }
+        }
+        return selected == null ? fallback.select(candidates, request) : selected;
+    }
+
+    /**
+     * Hashes the model and the leading system and developer messages, or returns 0 when the
+     * request has no such prefix.
+     */
+    static long prefixHash(CreateChatCompletionRequest request) {
+        List<ChatCompletionRequestMessage> messages = request.getMessages();
+        if (messages == null || messages.isEmpty() || !isPrefixMessage(messages.get(0))) {
+            return 0;
+        }
+
+        long hash = hash(FNV_OFFSET_BASIS, request.getModel());
+        for (ChatCompletionRequestMessage message : messages) {
+            if (!isPrefixMessage(message)) {
+                break;
+            }
+            hash = hash(hash, message.getRole());
+            hash = hash(hash, message.getContent());
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static boolean isPrefixMessage(ChatCompletionRequestMessage message) {
+        return message instanceof ChatCompletionRequestSystemMessage
+                || message instanceof ChatCompletionRequestDeveloperMessage;
+    }
+
+    private static long hash(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        // Separator so that ("ab", "c") and ("a", "bc") hash differently
+        return (hash ^ 0xffff) * FNV_PRIME;
+    }
+
+    private static double score(long prefixHash, UpstreamTarget target) {
+        long mixed = mix(prefixHash ^ mix(target.getName().hashCode()));
+        // Uniform in (0, 1) from the top 53 bits
+        double uniform = ((mixed >>> 11) + 0.5) / (1L << 53);
+        return -target.getWeight() / Math.log(uniform);
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,85 @@
+package io.martinstyk.upstream;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.micronaut.core.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class UpstreamPool {
+
+    private final List<UpstreamTarget> targets;
+    private final LoadBalancingStrategy strategy;
+
+    public UpstreamPool(List<UpstreamTarget> targets, LoadBalancingStrategy strategy) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("At least one upstream target is required");
+        }
+        this.targets = List.copyOf(targets);
+        this.strategy = strategy;
+    }
+
+    public <T> Mono<T> call(
+            CreateChatCompletionRequest request, Function<UpstreamTarget, Mono<T>> call) {
+        return call(request, null, call);
+    }
+
+    /** Calls a target other than the excluded one, unless no other target is available. */
+    public <T> Mono<T> call(
+            CreateChatCompletionRequest request,
+            @Nullable UpstreamTarget excluded,
+            Function<UpstreamTarget, Mono<T>> call) {
+        return Mono.using(() -> acquire(request, excluded), call, UpstreamTarget::release);
+    }
+
+    public <T> Flux<T> stream(
+            CreateChatCompletionRequest request,
+            Function<UpstreamTarget, Publisher<T>> stream) {
+        return Flux.using(() -> acquire(request, null), stream, UpstreamTarget::release);
+    }
+
+    public List<UpstreamTarget> getTargets() {
+        return targets;
+    }
+
+    /** Whether a target other than the given one is available to take a call. */
+    public boolean hasAlternative(UpstreamTarget excluded) {
+        long now = System.nanoTime();
+        for (UpstreamTarget target : targets) {
+            if (target != excluded && target.isAvailable(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    UpstreamTarget select(CreateChatCompletionRequest request) {
+        return select(request, null);
+    }
+
+    UpstreamTarget select(CreateChatCompletionRequest request, @Nullable UpstreamTarget excluded) {
+        if (targets.size() == 1) {
+            return targets.get(0);
+        }
+
+        long now = System.nanoTime();
+        List<UpstreamTarget> available = new ArrayList<>(targets.size());
+        for (UpstreamTarget target : targets) {
+            if (target != excluded && target.isAvailable(now)) {
+                available.add(target);
+            }
+        }
+        // Fail open: with every target ejected it is better to try one than to reject outright
+        return strategy.select(available.isEmpty() ? targets : available, request);
+    }
+
+    private UpstreamTarget acquire(
+            CreateChatCompletionRequest request, @Nullable UpstreamTarget excluded) {
+        UpstreamTarget target = select(request, excluded);
+        target.acquire();
+        return target;
+    }
+}
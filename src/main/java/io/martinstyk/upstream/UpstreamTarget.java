@@ -0,0 +1,140 @@
+package io.martinstyk.upstream;
+
+import com.oracle.bmc.generativeaiinference.model.ChatDetails;
+import com.oracle.bmc.generativeaiinference.requests.ChatRequest;
+import com.oracle.bmc.generativeaiinference.responses.ChatResponse;
+import com.oracle.bmc.model.BmcException;
+import io.martinstyk.config.LoadBalancingProperties;
+import io.martinstyk.service.ChatInvoker;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import reactor.core.publisher.Mono;
+
+public class UpstreamTarget {
+
+    private final String name;
+    private final ChatInvoker chatInvoker;
+    private final ChatDetails chatDetails;
+    private final int weight;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+    private final long ewmaDecayNanos;
+
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+    private volatile double ewmaLatencyNanos;
+    private long lastSampleNanos;
+
+    public UpstreamTarget(
+            String name,
+            ChatInvoker chatInvoker,
+            ChatDetails chatDetails,
+            int weight,
+            LoadBalancingProperties loadBalancingProperties) {
+        this.name = name;
+        this.chatInvoker = chatInvoker;
+        this.chatDetails = chatDetails;
+        this.weight = weight;
+        this.failureThreshold = loadBalancingProperties.getFailureThreshold();
+        this.ejectionNanos = loadBalancingProperties.getEjectionTime().toNanos();
+        this.ewmaDecayNanos = loadBalancingProperties.getEwmaDecay().toNanos();
+    }
+
+    public Mono<ChatResponse> chat(ChatRequest chatRequest, String model) {
+        return Mono.defer(
+                () -> {
+                    long start = System.nanoTime();
+                    return chatInvoker
+                            .chat(chatRequest, model)
+                            .doOnSuccess(response -> onSuccess(start))
+                            .doOnError(this::onError);
+                });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEndpoint() {
+        return chatInvoker.getEndpoint();
+    }
+
+    public ChatDetails getChatDetails() {
+        return chatDetails;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public double getEwmaLatencyNanos() {
+        return ewmaLatencyNanos;
+    }
+
+    public Duration getEwmaLatency() {
+        return Duration.ofNanos((long) ewmaLatencyNanos);
+    }
+
+    public boolean isAvailable() {
+        return isAvailable(System.nanoTime());
+    }
+
+    boolean isAvailable(long nowNanos) {
+        return !ejected || nowNanos - ejectedUntilNanos >= 0;
+    }
+
+    void acquire() {
+        outstandingRequests.incrementAndGet();
+    }
+
+    void release() {
+        outstandingRequests.decrementAndGet();
+    }
+
+    private void onSuccess(long startNanos) {
+        long now = System.nanoTime();
+        consecutiveFailures.set(0);
+        ejected = false;
+        recordLatency(now - startNanos, now);
+    }
+
+    private void onError(Throwable error) {
+        if (!isUpstreamFailure(error)) {
+            return;
+        }
+        // Once over the threshold every further failure, including the first call after the
+        // ejection expires, pushes the target out again
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            ejectedUntilNanos = System.nanoTime() + ejectionNanos;
+            ejected = true;
+        }
+    }
+
+    private synchronized void recordLatency(long latencyNanos, long nowNanos) {
+        if (lastSampleNanos == 0) {
+            ewmaLatencyNanos = latencyNanos;
+        } else {
+            double decay = Math.exp(-(double) (nowNanos - lastSampleNanos) / ewmaDecayNanos);
+            ewmaLatencyNanos = ewmaLatencyNanos * decay + latencyNanos * (1 - decay);
+        }
+        lastSampleNanos = nowNanos;
+    }
+
+    private static boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof BmcException bmcException) {
+            int statusCode = bmcException.getStatusCode();
+            return statusCode <= 0 || statusCode == 429 || statusCode >= 500;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package io.martinstyk.upstream;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class WeightedRoundRobinStrategy implements LoadBalancingStrategy {
+
+    private final Map<UpstreamTarget, Integer> currentWeights = new IdentityHashMap<>();
+
+    @Override
+    public synchronized UpstreamTarget select(
+            List<UpstreamTarget> candidates, CreateChatCompletionRequest request) {
+        // Smooth weighted round robin: heavier targets are picked more often but their picks
+        // are interleaved with the others instead of sent in bursts
+        UpstreamTarget selected = null;
+        int selectedWeight = 0;
+        int totalWeight = 0;
+        for (UpstreamTarget candidate : candidates) {
+            int currentWeight =
+                    currentWeights.merge(candidate, candidate.getWeight(), Integer::sum);
+            totalWeight += candidate.getWeight();
+            if (selected == null || currentWeight > selectedWeight) {
+                selected = candidate;
+                selectedWeight = currentWeight;
+            }
+        }
+        currentWeights.put(selected, selectedWeight - totalWeight);
+        return selected;
+    }
+}
@@ -0,0 +1,46 @@
+package io.martinstyk.batch;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchOutputTest {
+
+    @TempDir Path directory;
+
+    @Test
+    void testReopenedOutputDropsTornLine() throws Exception {
+        Path file = directory.resolve("output.jsonl");
+        Files.writeString(
+                file, "{\"id\":\"batch_req_0\"}\n{\"id\":\"batch_req_1\"}\n{\"id\":\"bat");
+
+        try (BatchOutput output = new BatchOutput(file)) {
+            output.write("{\"id\":\"batch_req_2\"}".getBytes(UTF_8));
+            assertEquals(Files.size(file), output.checkpoint());
+        }
+
+        assertEquals(
+                "{\"id\":\"batch_req_0\"}\n{\"id\":\"batch_req_1\"}\n{\"id\":\"batch_req_2\"}\n",
+                Files.readString(file));
+    }
+
+    @Test
+    void testOutputWithoutCompleteLineIsEmptied() throws Exception {
+        Path file = directory.resolve("output.jsonl");
+        Files.writeString(file, "{\"id\":");
+
+        new BatchOutput(file).close();
+
+        assertEquals(0, Files.size(file));
+    }
+
+    @Test
+    void testLineNumberIsReadFromId() {
+        assertEquals(42, BatchOutputLine.failure(42, "a", "server_error", "failed").line());
+        assertEquals(-1, new BatchOutputLine("other", null, null, null).line());
+    }
+}
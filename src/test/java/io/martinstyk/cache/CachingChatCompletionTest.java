@@ -0,0 +1,88 @@
+package io.martinstyk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import io.martinstyk.config.ResponseCacheProperties;
+import io.martinstyk.model.ChatCompletionChoice;
+import io.martinstyk.model.ChatCompletionResponseMessage;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.model.FinishReason;
+import io.martinstyk.model.Usage;
+import io.martinstyk.model.message.ChatCompletionRequestUserMessage;
+import io.martinstyk.service.ChatCompletion;
+import io.micronaut.http.sse.Event;
+import io.micronaut.json.JsonMapper;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class CachingChatCompletionTest {
+
+    @Test
+    void testHitsAreCopiesWithTheirOwnId() {
+        CountingChatCompletion delegate = new CountingChatCompletion();
+        CachingChatCompletion caching =
+                new CachingChatCompletion(
+                        delegate,
+                        new ChatCompletionResponseCache(
+                                new ResponseCacheProperties(), JsonMapper.createDefault()));
+
+        CreateChatCompletionResponse miss = caching.processChatCompletion(request()).block();
+        CreateChatCompletionResponse first = caching.processChatCompletion(request()).block();
+        first.getChoices().getFirst().getMessage().setContent("changed");
+        CreateChatCompletionResponse second = caching.processChatCompletion(request()).block();
+
+        assertEquals(1, delegate.calls.get());
+        assertNotSame(first, second);
+        assertNotEquals(miss.getId(), first.getId());
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals("Hi there", second.getChoices().getFirst().getMessage().getContent());
+        assertEquals(15, second.getUsage().getTotalTokens());
+    }
+
+    private static CreateChatCompletionRequest request() {
+        ChatCompletionRequestUserMessage message = new ChatCompletionRequestUserMessage();
+        message.setContent("Hello!");
+        CreateChatCompletionRequest request =
+                new CreateChatCompletionRequest(List.of(message), "gpt-5");
+        request.setTemperature(0.0);
+        return request;
+    }
+
+    private static final class CountingChatCompletion implements ChatCompletion {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Mono<CreateChatCompletionResponse> processChatCompletion(
+                CreateChatCompletionRequest request) {
+            ChatCompletionResponseMessage message = new ChatCompletionResponseMessage();
+            message.setRole("assistant");
+            message.setContent("Hi there");
+            ChatCompletionChoice choice = new ChatCompletionChoice();
+            choice.setIndex(0);
+            choice.setMessage(message);
+            choice.setFinishReason(FinishReason.STOP);
+            CreateChatCompletionResponse response =
+                    new CreateChatCompletionResponse(
+                            "chatcmpl-" + calls.incrementAndGet(),
+                            1L,
+                            request.getModel(),
+                            List.of(choice));
+            response.setUsage(new Usage(10, 5, 15));
+            return Mono.just(response);
+        }
+
+        @Override
+        public Publisher<Event<String>> processStreamingChatCompletion(
+                CreateChatCompletionRequest request) {
+            return Flux.empty();
+        }
+    }
+}
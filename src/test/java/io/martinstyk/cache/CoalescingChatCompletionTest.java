@@ -0,0 +1,67 @@
+package io.martinstyk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.model.message.ChatCompletionRequestUserMessage;
+import io.martinstyk.service.ChatCompletion;
+import io.micronaut.http.sse.Event;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class CoalescingChatCompletionTest {
+
+    @Test
+    void testSharedCallIsCancelledWhenTheLastClientLeaves() {
+        PendingChatCompletion delegate = new PendingChatCompletion();
+        CoalescingChatCompletion coalescing = new CoalescingChatCompletion(delegate);
+
+        Disposable first = coalescing.processChatCompletion(request()).subscribe();
+        Disposable second = coalescing.processChatCompletion(request()).subscribe();
+        assertEquals(1, delegate.calls.get());
+
+        first.dispose();
+        assertFalse(delegate.cancelled.get());
+
+        second.dispose();
+        assertTrue(delegate.cancelled.get());
+    }
+
+    private static CreateChatCompletionRequest request() {
+        ChatCompletionRequestUserMessage message = new ChatCompletionRequestUserMessage();
+        message.setContent("Hello!");
+        CreateChatCompletionRequest request =
+                new CreateChatCompletionRequest(List.of(message), "gpt-5");
+        request.setTemperature(0.0);
+        return request;
+    }
+
+    private static final class PendingChatCompletion implements ChatCompletion {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        @Override
+        public Mono<CreateChatCompletionResponse> processChatCompletion(
+                CreateChatCompletionRequest request) {
+            calls.incrementAndGet();
+            return Mono.<CreateChatCompletionResponse>never()
+                    .doOnCancel(() -> cancelled.set(true));
+        }
+
+        @Override
+        public Publisher<Event<String>> processStreamingChatCompletion(
+                CreateChatCompletionRequest request) {
+            return Flux.empty();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.martinstyk.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.StreamOptions;
+import io.martinstyk.model.message.ChatCompletionRequestMessage;
+import io.martinstyk.model.message.ChatCompletionRequestSystemMessage;
+import io.martinstyk.model.message.ChatCompletionRequestUserMessage;
+import io.martinstyk.model.tools.FunctionTool;
+import io.martinstyk.model.tools.Tool;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RequestFingerprintTest {
+
+    @Test
+    void testIdenticalRequestsShareFingerprint() {
+        assertEquals(
+                RequestFingerprint.of(request("gpt-5", "Hello!")),
+                RequestFingerprint.of(request("gpt-5", "Hello!")));
+    }
+
+    @Test
+    void testDifferentContentChangesFingerprint() {
+        assertNotEquals(
+                RequestFingerprint.of(request("gpt-5", "Hello!")),
+                RequestFingerprint.of(request("gpt-5", "Hello?")));
+    }
+
+    @Test
+    void testDifferentModelChangesFingerprint() {
+        assertNotEquals(
+                RequestFingerprint.of(request("gpt-5", "Hello!")),
+                RequestFingerprint.of(request("gpt-4", "Hello!")));
+    }
+
+    @Test
+    void testMessageBoundariesAreUnambiguous() {
+        CreateChatCompletionRequest split = request("gpt-5", "ab");
+        split.setMessages(List.of(user("a"), user("b")));
+        CreateChatCompletionRequest joined = request("gpt-5", "ab");
+        joined.setMessages(List.of(user("ab")));
+
+        assertNotEquals(RequestFingerprint.of(split), RequestFingerprint.of(joined));
+    }
+
+    @Test
+    void testStopSequenceBoundariesAreUnambiguous() {
+        CreateChatCompletionRequest joined = request("gpt-5", "Hello!");
+        joined.setStop(List.of("a, b"));
+        CreateChatCompletionRequest split = request("gpt-5", "Hello!");
+        split.setStop(List.of("a", "b"));
+
+        assertNotEquals(RequestFingerprint.of(joined), RequestFingerprint.of(split));
+    }
+
+    @Test
+    void testToolParametersAreHashedInKeyOrder() {
+        Map<String, Object> ordered = new LinkedHashMap<>();
+        ordered.put("type", "object");
+        ordered.put("required", List.of("city"));
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("required", List.of("city"));
+        reversed.put("type", "object");
+        CreateChatCompletionRequest first = request("gpt-5", "Hello!");
+        first.setTools(List.of(tool(ordered)));
+        CreateChatCompletionRequest second = request("gpt-5", "Hello!");
+        second.setTools(List.of(tool(reversed)));
+
+        assertEquals(RequestFingerprint.of(first), RequestFingerprint.of(second));
+    }
+
+    @Test
+    void testSamplingParametersChangeFingerprint() {
+        CreateChatCompletionRequest seeded = request("gpt-5", "Hello!");
+        seeded.setSeed(42);
+
+        assertNotEquals(
+                RequestFingerprint.of(request("gpt-5", "Hello!")), RequestFingerprint.of(seeded));
+    }
+
+    @Test
+    void testStreamOptionsChangeFingerprint() {
+        CreateChatCompletionRequest obfuscated = request("gpt-5", "Hello!");
+        obfuscated.setStreamOptions(new StreamOptions(true));
+        CreateChatCompletionRequest plain = request("gpt-5", "Hello!");
+        plain.setStreamOptions(new StreamOptions(false));
+
+        assertNotEquals(RequestFingerprint.of(obfuscated), RequestFingerprint.of(plain));
+    }
+
+    @Test
+    void testNegativeZeroTemperatureIsNormalized() {
+        CreateChatCompletionRequest negativeZero = request("gpt-5", "Hello!");
+        negativeZero.setTemperature(-0.0);
+
+        assertEquals(
+                RequestFingerprint.of(request("gpt-5", "Hello!")),
+                RequestFingerprint.of(negativeZero));
+    }
+
+    @Test
+    void testDeterministicRequests() {
+        assertTrue(RequestFingerprint.isDeterministic(request("gpt-5", "Hello!")));
+
+        CreateChatCompletionRequest seeded = request("gpt-5", "Hello!");
+        seeded.setTemperature(0.7);
+        seeded.setSeed(7);
+        assertTrue(RequestFingerprint.isDeterministic(seeded));
+    }
+
+    @Test
+    void testStreamingChangesFingerprint() {
+        CreateChatCompletionRequest streaming = request("gpt-5", "Hello!");
+        streaming.setStream(true);
+
+        assertTrue(RequestFingerprint.isDeterministic(streaming));
+        assertNotEquals(
+                RequestFingerprint.of(request("gpt-5", "Hello!")),
+                RequestFingerprint.of(streaming));
+    }
+
+    @Test
+    void testNonDeterministicRequests() {
+        CreateChatCompletionRequest sampled = request("gpt-5", "Hello!");
+        sampled.setTemperature(0.7);
+        assertFalse(RequestFingerprint.isDeterministic(sampled));
+
+        CreateChatCompletionRequest multiple = request("gpt-5", "Hello!");
+        multiple.setN(2);
+        assertFalse(RequestFingerprint.isDeterministic(multiple));
+    }
+
+    private static CreateChatCompletionRequest request(String model, String content) {
+        ChatCompletionRequestMessage system = new ChatCompletionRequestSystemMessage();
+        system.setContent("You are a helpful assistant.");
+
+        CreateChatCompletionRequest request =
+                new CreateChatCompletionRequest(List.of(system, user(content)), model);
+        request.setTemperature(0.0);
+        return request;
+    }
+
+    private static ChatCompletionRequestMessage user(String content) {
+        ChatCompletionRequestMessage message = new ChatCompletionRequestUserMessage();
+        message.setContent(content);
+        return message;
+    }
+
+    private static Tool tool(Map<String, Object> parameters) {
+        return new FunctionTool("get_weather", parameters, true, "Current weather");
+    }
+}
@@ -0,0 +1,56 @@
+package io.martinstyk.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.exceptions.BeanInstantiationException;
+import io.micronaut.http.client.HttpClientConfiguration;
+import io.micronaut.http.client.ServiceHttpClientConfiguration;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest(startApplication = false)
+@Property(name = "genai.transport.keep-alive", value = "false")
+@Property(name = "genai.transport.max-connections-per-route", value = "8")
+@Property(name = "genai.transport.idle-timeout", value = "5s")
+@Property(name = "genai.transport.alpn-modes", value = "http/1.1")
+class OciClientTransportCustomizerTest {
+
+    private final ApplicationContext context;
+
+    OciClientTransportCustomizerTest(ApplicationContext context) {
+        this.context = context;
+    }
+
+    @Test
+    void testTransportPropertiesConfigureTheOciService() {
+        ServiceHttpClientConfiguration configuration =
+                context.getBean(
+                        ServiceHttpClientConfiguration.class,
+                        Qualifiers.byName(OciClientTransportCustomizer.OCI_SERVICE));
+
+        HttpClientConfiguration.ConnectionPoolConfiguration pool =
+                configuration.getConnectionPoolConfiguration();
+        assertFalse(pool.isEnabled());
+        assertEquals(8, pool.getMaxConcurrentHttp1Connections());
+        assertEquals(Duration.ofSeconds(5), configuration.getConnectionPoolIdleTimeout().get());
+        assertEquals(List.of("http/1.1"), configuration.getAlpnModes());
+    }
+
+    @Test
+    void testUnknownAlpnModeIsRejected() {
+        try (ApplicationContext invalid =
+                ApplicationContext.run(Map.of("genai.transport.alpn-modes", "h3"), "test")) {
+            assertThrows(
+                    BeanInstantiationException.class,
+                    () -> invalid.getBean(TransportProperties.class));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.martinstyk.controller;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.openai.client.OpenAIClient;
+import com.openai.client.okhttp.OpenAIOkHttpClient;
+import com.openai.core.http.HttpResponse;
+import com.openai.errors.NotFoundException;
+import com.openai.models.batches.Batch;
+import com.openai.models.batches.BatchCreateParams;
+import com.openai.models.files.FileCreateParams;
+import com.openai.models.files.FileObject;
+import com.openai.models.files.FilePurpose;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.runtime.server.EmbeddedServer;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@MicronautTest
+@Property(name = "genai.batch.enabled", value = "true")
+@Property(name = "genai.batch.directory", value = "build/test-batches")
+@Property(name = "genai.batch.checkpoint-interval", value = "10ms")
+class BatchesControllerTest {
+    private static final String VALID_TOKEN = "sk-123456789012345678901234567890123456789012345678";
+    private static final String OTHER_TOKEN = "sk-abcdefghijabcdefghijabcdefghijabcdefghijabcdefgh";
+
+    private final EmbeddedServer server;
+    private OpenAIClient client;
+
+    @TempDir Path directory;
+
+    BatchesControllerTest(EmbeddedServer server) {
+        this.server = server;
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = client(VALID_TOKEN);
+    }
+
+    @Test
+    void testBatchWritesResultsAndErrors() throws Exception {
+        Path input = directory.resolve("input.jsonl");
+        Files.write(
+                input,
+                List.of(
+                        line("request-1", "/v1/chat/completions"),
+                        "",
+                        line("request-2", "/v1/completions"),
+                        line("request-3", "/v1/chat/completions"),
+                        line("request-4", "/v1/chat/completions", "a".repeat(900))));
+        FileObject file =
+                client.files()
+                        .create(
+                                FileCreateParams.builder()
+                                        .file(input)
+                                        .purpose(FilePurpose.BATCH)
+                                        .build());
+
+        Batch batch =
+                client.batches()
+                        .create(
+                                BatchCreateParams.builder()
+                                        .inputFileId(file.id())
+                                        .endpoint(BatchCreateParams.Endpoint.V1_CHAT_COMPLETIONS)
+                                        .completionWindow(BatchCreateParams.CompletionWindow._24H)
+                                        .build());
+        for (int i = 0; i < 100 && !batch.status().equals(Batch.Status.COMPLETED); i++) {
+            Thread.sleep(100);
+            batch = client.batches().retrieve(batch.id());
+        }
+
+        assertEquals(Batch.Status.COMPLETED, batch.status());
+        assertEquals(4, batch.requestCounts().orElseThrow().total());
+        assertEquals(2, batch.requestCounts().orElseThrow().completed());
+        assertEquals(2, batch.requestCounts().orElseThrow().failed());
+
+        String output = content(batch.outputFileId().orElseThrow());
+        assertTrue(output.contains("\"custom_id\":\"request-1\""));
+        assertTrue(output.contains("\"custom_id\":\"request-3\""));
+        String errors = content(batch.errorFileId().orElseThrow());
+        assertTrue(errors.contains("\"custom_id\":\"request-2\""));
+        assertTrue(errors.contains("\"code\":\"invalid_request\""));
+        assertTrue(errors.contains("\"code\":\"request_too_large\""));
+    }
+
+    @Test
+    void testFilesAreOnlyVisibleToTheirOwner() throws Exception {
+        Path input = directory.resolve("input.jsonl");
+        Files.write(input, List.of(line("request-1", "/v1/chat/completions")));
+        FileObject file =
+                client.files()
+                        .create(
+                                FileCreateParams.builder()
+                                        .file(input)
+                                        .purpose(FilePurpose.BATCH)
+                                        .build());
+
+        assertEquals(file.id(), client.files().retrieve(file.id()).id());
+        OpenAIClient other = client(OTHER_TOKEN);
+        assertThrows(NotFoundException.class, () -> other.files().retrieve(file.id()));
+    }
+
+    private String content(String fileId) throws Exception {
+        try (HttpResponse response = client.files().content(fileId)) {
+            return new String(response.body().readAllBytes(), UTF_8);
+        }
+    }
+
+    private OpenAIClient client(String apiKey) {
+        return OpenAIOkHttpClient.builder()
+                .baseUrl("http://localhost:" + server.getPort() + "/v1")
+                .apiKey(apiKey)
+                .responseValidation(false)
+                .build();
+    }
+
+    private static String line(String customId, String url) {
+        return line(customId, url, "Hello");
+    }
+
+    private static String line(String customId, String url, String content) {
+        return """
+                {"custom_id": "%s", "method": "POST", "url": "%s", "body": \
+                {"model": "gpt-4", "messages": [{"role": "user", "content": "%s"}]}}\
+                """
+                .formatted(customId, url, content);
+    }
+}
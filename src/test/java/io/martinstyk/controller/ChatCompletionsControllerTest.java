@@ -1,5 +1,6 @@
 package io.martinstyk.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -9,6 +10,7 @@ import com.openai.client.OpenAIClient;
 import com.openai.client.okhttp.OpenAIOkHttpClient;
 import com.openai.core.http.StreamResponse;
 import com.openai.errors.BadRequestException;
+import com.openai.errors.OpenAIServiceException;
 import com.openai.models.ChatModel;
 import com.openai.models.chat.completions.ChatCompletion;
 import com.openai.models.chat.completions.ChatCompletionChunk;
@@ -19,7 +21,6 @@ import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -141,6 +142,49 @@ class ChatCompletionsControllerTest {
                 });
     }
 
+    @Test
+    void testCreateChatCompletionTooManyMessages() {
+        ChatCompletionCreateParams.Builder builder =
+                ChatCompletionCreateParams.builder().model(ChatModel.GPT_4);
+        for (int i = 0; i <= 16; i++) {
+            builder.addUserMessage(DEFAULT_CONTENT);
+        }
+        ChatCompletionCreateParams params = builder.build();
+
+        ChatCompletionService completions = client.chat().completions();
+
+        assertThrows(BadRequestException.class, () -> completions.create(params));
+    }
+
+    @Test
+    void testCreateChatCompletionContentTooLong() {
+        ChatCompletionCreateParams params =
+                ChatCompletionCreateParams.builder()
+                        .model(ChatModel.GPT_4)
+                        .addSystemMessage("a".repeat(600))
+                        .addUserMessage("b".repeat(600))
+                        .build();
+
+        ChatCompletionService completions = client.chat().completions();
+
+        assertThrows(BadRequestException.class, () -> completions.create(params));
+    }
+
+    @Test
+    void testCreateChatCompletionTooManyPromptTokens() {
+        ChatCompletionCreateParams params =
+                ChatCompletionCreateParams.builder()
+                        .model(ChatModel.GPT_4)
+                        .addUserMessage("a".repeat(900))
+                        .build();
+
+        ChatCompletionService completions = client.chat().completions();
+
+        OpenAIServiceException exception =
+                assertThrows(OpenAIServiceException.class, () -> completions.create(params));
+        assertEquals(413, exception.statusCode());
+    }
+
     @Test
     void testCreateChatCompletionSuccess() {
         ChatCompletionCreateParams params =
@@ -184,7 +228,6 @@ class ChatCompletionsControllerTest {
         assertTrue(completion.usage().get().completionTokens() <= 100);
     }
 
-    @Disabled("Streaming is not working properly yet")
     @Test
     void testCreateChatCompletionStreaming() {
         /*
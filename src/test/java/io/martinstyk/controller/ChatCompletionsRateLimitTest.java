@@ -0,0 +1,64 @@
+package io.martinstyk.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.openai.client.OpenAIClient;
+import com.openai.client.okhttp.OpenAIOkHttpClient;
+import com.openai.core.http.StreamResponse;
+import com.openai.errors.RateLimitException;
+import com.openai.models.ChatModel;
+import com.openai.models.chat.completions.ChatCompletionChunk;
+import com.openai.models.chat.completions.ChatCompletionCreateParams;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.runtime.server.EmbeddedServer;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest
+@Property(name = "genai.rate-limit.enabled", value = "true")
+@Property(name = "genai.rate-limit.tokens-per-minute", value = "12")
+class ChatCompletionsRateLimitTest {
+    private static final String VALID_TOKEN = "sk-123456789012345678901234567890123456789012345678";
+
+    private final EmbeddedServer server;
+    private OpenAIClient client;
+
+    ChatCompletionsRateLimitTest(EmbeddedServer server) {
+        this.server = server;
+    }
+
+    @BeforeEach
+    void setUp() {
+        client =
+                OpenAIOkHttpClient.builder()
+                        .baseUrl("http://localhost:" + server.getPort() + "/v1")
+                        .apiKey(VALID_TOKEN)
+                        .maxRetries(0)
+                        .responseValidation(false)
+                        .build();
+    }
+
+    @Test
+    void testStreamIsChargedItsReportedUsage() {
+        // Up front only the prompt of one token is charged, the stream then reports 15 tokens
+        ChatCompletionCreateParams params =
+                ChatCompletionCreateParams.builder()
+                        .model(ChatModel.GPT_4)
+                        .addUserMessage("Hi")
+                        .build();
+        try (StreamResponse<ChatCompletionChunk> stream =
+                client.chat().completions().createStreaming(params)) {
+            List<ChatCompletionChunk> chunks = stream.stream().toList();
+            assertFalse(chunks.isEmpty());
+        }
+
+        RateLimitException exception =
+                assertThrows(
+                        RateLimitException.class, () -> client.chat().completions().create(params));
+        assertEquals(429, exception.statusCode());
+    }
+}
@@ -0,0 +1,232 @@
+package io.martinstyk.flex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.martinstyk.config.ConcurrencyLimitProperties;
+import io.martinstyk.config.FlexQueueProperties;
+import io.martinstyk.config.RateLimitProperties;
+import io.martinstyk.limit.ConcurrencyLimitExceededException;
+import io.martinstyk.limit.ConcurrencyLimiter;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.model.Usage;
+import io.martinstyk.model.message.ChatCompletionRequestUserMessage;
+import io.martinstyk.ratelimit.InMemoryRateLimitStore;
+import io.martinstyk.ratelimit.RateLimitDecision;
+import io.martinstyk.ratelimit.RateLimiter;
+import io.martinstyk.service.ChatCompletion;
+import io.micronaut.context.exceptions.ConfigurationException;
+import io.micronaut.http.sse.Event;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.security.authentication.Authentication;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class FlexQueueTest {
+
+    @TempDir Path directory;
+
+    @Test
+    void testDrainedRequestCompletesItsJob() throws Exception {
+        CountingChatCompletion chatCompletion = new CountingChatCompletion();
+        FlexQueue queue = queue(chatCompletion);
+
+        FlexJob job = queue.submit(request(), "key-a", RateLimitDecision.UNLIMITED);
+        assertFalse(job.isCompleted());
+        assertEquals(1, queue.getPending());
+
+        queue.drain();
+
+        assertTrue(job.isCompleted());
+        assertEquals("chatcmpl-1", job.result().block().getId());
+        assertEquals(0, queue.getPending());
+        assertEquals(0, queue.getInFlight());
+        queue.close();
+    }
+
+    @Test
+    void testShedRequestIsRequeued() throws Exception {
+        CountingChatCompletion chatCompletion = new CountingChatCompletion();
+        chatCompletion.shed.set(1);
+        FlexQueue queue = queue(chatCompletion);
+
+        FlexJob job = queue.submit(request(), "key-a", RateLimitDecision.UNLIMITED);
+        queue.drain();
+
+        assertFalse(job.isCompleted());
+        assertEquals(1, queue.getPending());
+        assertEquals(0, queue.getInFlight());
+
+        queue.drain();
+
+        assertTrue(job.isCompleted());
+        assertNotNull(job.result().block());
+        queue.close();
+    }
+
+    @Test
+    void testQueueRequiresTheConcurrencyLimiter() {
+        FlexQueueProperties properties = new FlexQueueProperties();
+        properties.setDirectory(directory.toString());
+        assertThrows(
+                ConfigurationException.class,
+                () ->
+                        new FlexQueue(
+                                properties,
+                                new CountingChatCompletion(),
+                                new ConcurrencyLimiter(new ConcurrencyLimitProperties()),
+                                rateLimiter(),
+                                JsonMapper.createDefault()));
+    }
+
+    @Test
+    void testQueuedRequestsAndResultsSurviveRestart() throws Exception {
+        CountingChatCompletion chatCompletion = new CountingChatCompletion();
+        FlexQueue queue = queue(chatCompletion);
+        FlexJob completed = queue.submit(request(), "key-a", RateLimitDecision.UNLIMITED);
+        queue.drain();
+        FlexJob queued = queue.submit(request(), "key-a", RateLimitDecision.UNLIMITED);
+        queue.close();
+
+        FlexQueue restarted = queue(chatCompletion);
+
+        assertEquals(1, restarted.getPending());
+        assertNotNull(restarted.find(completed.getId()).getResponse());
+        assertFalse(restarted.find(queued.getId()).isCompleted());
+        assertNull(restarted.find("chatcmpl-flex-unknown"));
+
+        restarted.drain();
+
+        assertEquals(2, chatCompletion.calls.get());
+        assertTrue(restarted.find(queued.getId()).isCompleted());
+        restarted.close();
+    }
+
+    @Test
+    void testRequestsSubmittedDuringCompactionSurviveRestart() throws Exception {
+        CountingChatCompletion chatCompletion = new CountingChatCompletion();
+        FlexQueue queue = queue(chatCompletion);
+        int submitters = 4;
+        int requests = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(submitters + 1);
+        AtomicBoolean submitting = new AtomicBoolean(true);
+        Future<?> compaction =
+                executor.submit(
+                        () -> {
+                            while (submitting.get()) {
+                                queue.compact();
+                            }
+                        });
+        List<Future<?>> submissions = new ArrayList<>();
+        for (int i = 0; i < submitters; i++) {
+            submissions.add(
+                    executor.submit(
+                            () -> {
+                                for (int j = 0; j < requests; j++) {
+                                    queue.submit(request(), "key-a", RateLimitDecision.UNLIMITED);
+                                }
+                                return null;
+                            }));
+        }
+        for (Future<?> submission : submissions) {
+            submission.get();
+        }
+        submitting.set(false);
+        compaction.get();
+        executor.shutdown();
+        queue.close();
+
+        FlexQueue restarted = queue(chatCompletion);
+
+        assertEquals(submitters * requests, restarted.getPending());
+        restarted.close();
+    }
+
+    @Test
+    void testCompletedJobSettlesItsRateLimit() throws Exception {
+        RateLimiter rateLimiter = rateLimiter();
+        FlexQueue queue = queue(new CountingChatCompletion(), rateLimiter);
+        Authentication key = Authentication.build("key-a", Map.of("keyId", "key-a"));
+
+        // Only the prompt of 5 tokens is charged up front, the job then reports 50 tokens
+        RateLimitDecision rateLimit = rateLimiter.tryAcquire(key, request());
+        assertEquals(95, rateLimit.remainingTokens());
+        queue.submit(request(), "key-a", rateLimit);
+        queue.drain();
+
+        assertEquals(45, rateLimiter.tryAcquire(key, request()).remainingTokens());
+        queue.close();
+    }
+
+    private FlexQueue queue(ChatCompletion chatCompletion) {
+        return queue(chatCompletion, rateLimiter());
+    }
+
+    private FlexQueue queue(ChatCompletion chatCompletion, RateLimiter rateLimiter) {
+        FlexQueueProperties properties = new FlexQueueProperties();
+        properties.setDirectory(directory.toString());
+        ConcurrencyLimitProperties concurrencyLimit = new ConcurrencyLimitProperties();
+        concurrencyLimit.setEnabled(true);
+        return new FlexQueue(
+                properties,
+                chatCompletion,
+                new ConcurrencyLimiter(concurrencyLimit),
+                rateLimiter,
+                JsonMapper.createDefault());
+    }
+
+    private static RateLimiter rateLimiter() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        properties.setTokensPerMinute(100);
+        return new RateLimiter(properties, List.of(), new InMemoryRateLimitStore(properties));
+    }
+
+    private static CreateChatCompletionRequest request() {
+        ChatCompletionRequestUserMessage message = new ChatCompletionRequestUserMessage();
+        message.setContent("Summarize the report");
+        return new CreateChatCompletionRequest(List.of(message), "gpt-5");
+    }
+
+    private static final class CountingChatCompletion implements ChatCompletion {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger shed = new AtomicInteger();
+
+        @Override
+        public Mono<CreateChatCompletionResponse> processChatCompletion(
+                CreateChatCompletionRequest request) {
+            if (shed.getAndDecrement() > 0) {
+                return Mono.error(new ConcurrencyLimitExceededException(request.getModel()));
+            }
+            String id = "chatcmpl-" + calls.incrementAndGet();
+            CreateChatCompletionResponse response =
+                    new CreateChatCompletionResponse(id, 0L, request.getModel(), List.of());
+            response.setUsage(new Usage(10, 40, 50));
+            return Mono.just(response);
+        }
+
+        @Override
+        public Publisher<Event<String>> processStreamingChatCompletion(
+                CreateChatCompletionRequest request) {
+            return Flux.empty();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.martinstyk.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.oracle.bmc.model.BmcException;
+import io.martinstyk.config.ConcurrencyLimitProperties;
+import io.martinstyk.model.ServiceTier;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    void testRejectsWhenLimitAndQueueAreFull() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("model", properties(2, 1));
+
+        limit.acquire(ServiceTier.DEFAULT).block();
+        limit.acquire(ServiceTier.DEFAULT).block();
+        limit.acquire(ServiceTier.DEFAULT).subscribe();
+
+        assertEquals(2, limit.getInFlight());
+        assertEquals(1, limit.getQueued());
+        assertThrows(
+                ConcurrencyLimitExceededException.class,
+                () -> limit.acquire(ServiceTier.DEFAULT).block());
+    }
+
+    @Test
+    void testQueuedRequestGetsReleasedPermit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("model", properties(1, 1));
+        Permit first = limit.acquire(ServiceTier.DEFAULT).block();
+        AtomicReference<Permit> queued = new AtomicReference<>();
+
+        limit.acquire(ServiceTier.DEFAULT).subscribe(queued::set);
+        assertEquals(1, limit.getQueued());
+
+        first.release();
+        first.release();
+
+        assertTrue(queued.get() != null);
+        assertEquals(1, limit.getInFlight());
+        assertEquals(0, limit.getQueued());
+    }
+
+    @Test
+    void testPriorityIsServedBeforeFlexAndSharesWithDefault() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("model", properties(1, 10));
+        Permit first = limit.acquire(ServiceTier.DEFAULT).block();
+        List<ServiceTier> order = new ArrayList<>();
+        Deque<Permit> granted = new ArrayDeque<>();
+
+        enqueue(limit, ServiceTier.FLEX, order, granted);
+        for (int i = 0; i < 4; i++) {
+            enqueue(limit, ServiceTier.DEFAULT, order, granted);
+            enqueue(limit, ServiceTier.PRIORITY, order, granted);
+        }
+        first.release();
+        while (!granted.isEmpty()) {
+            granted.poll().release();
+        }
+
+        assertEquals(
+                List.of(
+                        ServiceTier.PRIORITY,
+                        ServiceTier.PRIORITY,
+                        ServiceTier.PRIORITY,
+                        ServiceTier.DEFAULT,
+                        ServiceTier.PRIORITY,
+                        ServiceTier.DEFAULT,
+                        ServiceTier.DEFAULT,
+                        ServiceTier.DEFAULT,
+                        ServiceTier.FLEX),
+                order);
+    }
+
+    @Test
+    void testQueuedRequestTimesOut() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("model", properties(1, 1));
+        limit.acquire(ServiceTier.DEFAULT).block();
+
+        StepVerifier.create(limit.acquire(ServiceTier.DEFAULT))
+                .expectError(ConcurrencyLimitExceededException.class)
+                .verify(Duration.ofSeconds(1));
+
+        assertEquals(0, limit.getQueued());
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    void testThrottlingShrinksLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("model", properties(10, 0));
+        Permit permit = limit.acquire(ServiceTier.DEFAULT).block();
+
+        permit.onError(new BmcException(429, "TooManyRequests", "throttled", "request-id"));
+
+        assertEquals(9, limit.getLimit());
+    }
+
+    @Test
+    void testFastResponsesGrowBusyLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("model", properties(2, 0));
+        Permit first = limit.acquire(ServiceTier.DEFAULT).block();
+        limit.acquire(ServiceTier.DEFAULT).block();
+
+        first.onResponse();
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    private static void enqueue(
+            AdaptiveConcurrencyLimit limit,
+            ServiceTier serviceTier,
+            List<ServiceTier> order,
+            Deque<Permit> granted) {
+        limit.acquire(serviceTier)
+                .subscribe(
+                        permit -> {
+                            order.add(serviceTier);
+                            granted.add(permit);
+                        });
+    }
+
+    private static ConcurrencyLimitProperties properties(int initialLimit, int maxQueueSize) {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setEnabled(true);
+        properties.setInitialLimit(initialLimit);
+        properties.setMaxQueueSize(maxQueueSize);
+        properties.setMaxQueueTime(Duration.ofMillis(50));
+        return properties;
+    }
+}
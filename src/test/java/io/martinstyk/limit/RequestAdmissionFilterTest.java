@@ -0,0 +1,103 @@
+package io.martinstyk.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.openai.client.OpenAIClient;
+import com.openai.client.okhttp.OpenAIOkHttpClient;
+import com.openai.errors.OpenAIServiceException;
+import com.openai.models.ChatModel;
+import com.openai.models.chat.completions.ChatCompletionCreateParams;
+import io.martinstyk.config.RequestLimitProperties;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.runtime.server.EmbeddedServer;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@MicronautTest
+@Property(name = "genai.request-limits.max-body-size", value = "2KB")
+@Property(name = "genai.request-limits.max-in-flight-bytes", value = "16KB")
+class RequestAdmissionFilterTest {
+    private static final String VALID_TOKEN = "sk-123456789012345678901234567890123456789012345678";
+    private static final long MAX_IN_FLIGHT_BYTES = 16 * 1024;
+
+    private final EmbeddedServer server;
+    private final RequestAdmissionFilter filter;
+    private OpenAIClient client;
+
+    RequestAdmissionFilterTest(EmbeddedServer server, RequestAdmissionFilter filter) {
+        this.server = server;
+        this.filter = filter;
+    }
+
+    @BeforeEach
+    void setUp() {
+        client =
+                OpenAIOkHttpClient.builder()
+                        .baseUrl("http://localhost:" + server.getPort() + "/v1")
+                        .apiKey(VALID_TOKEN)
+                        .maxRetries(0)
+                        .responseValidation(false)
+                        .build();
+    }
+
+    @Test
+    void testRejectsBodiesOverTheInFlightBudget() {
+        RequestLimitProperties properties = new RequestLimitProperties();
+        properties.setMaxInFlightBytes(1000);
+        RequestAdmissionFilter filter = new RequestAdmissionFilter(properties);
+
+        assertTrue(filter.tryReserve(600));
+        assertFalse(filter.tryReserve(600));
+        assertEquals(600, filter.getInFlightBytes());
+
+        filter.release(600);
+
+        assertTrue(filter.tryReserve(600));
+        assertEquals(600, filter.getInFlightBytes());
+    }
+
+    @Test
+    void testLargeBodyIsRejectedBeforeItIsRead() {
+        ChatCompletionCreateParams params = params("a".repeat(3000));
+
+        OpenAIServiceException exception =
+                assertThrows(
+                        OpenAIServiceException.class,
+                        () -> client.chat().completions().create(params));
+        assertEquals(413, exception.statusCode());
+    }
+
+    @Test
+    void testRequestOverTheInFlightBudgetIsRejected() {
+        ChatCompletionCreateParams params = params("Hello!");
+        assertTrue(filter.tryReserve(MAX_IN_FLIGHT_BYTES));
+        try {
+            OpenAIServiceException exception =
+                    assertThrows(
+                            OpenAIServiceException.class,
+                            () -> client.chat().completions().create(params));
+            assertEquals(429, exception.statusCode());
+        } finally {
+            filter.release(MAX_IN_FLIGHT_BYTES);
+        }
+    }
+
+    @Test
+    void testAdmittedRequestGivesItsBytesBack() {
+        assertNotNull(client.chat().completions().create(params("Hello!")));
+
+        assertEquals(0, filter.getInFlightBytes());
+    }
+
+    private static ChatCompletionCreateParams params(String content) {
+        return ChatCompletionCreateParams.builder()
+                .model(ChatModel.GPT_4)
+                .addUserMessage(content)
+                .build();
+    }
+}
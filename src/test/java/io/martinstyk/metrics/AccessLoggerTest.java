@@ -0,0 +1,23 @@
+package io.martinstyk.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.martinstyk.config.AccessLogProperties;
+import org.junit.jupiter.api.Test;
+
+class AccessLoggerTest {
+
+    @Test
+    void testPromptIsTruncatedAndRedacted() {
+        AccessLogProperties properties = new AccessLogProperties();
+        properties.setLogPrompts(true);
+        properties.setMaxPromptLength(40);
+        AccessLogger accessLogger = new AccessLogger(properties);
+
+        String prompt =
+                accessLogger.prompt(
+                        "Mail jane.doe@example.com with sk-abcdefghijklmnop and then continue");
+
+        assertEquals("Mail [redacted] with [redacted] and then...", prompt);
+    }
+}
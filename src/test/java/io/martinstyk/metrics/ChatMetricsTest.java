@@ -0,0 +1,129 @@
+package io.martinstyk.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.martinstyk.config.AccessLogProperties;
+import io.martinstyk.config.MetricsProperties;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.Usage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.security.authentication.Authentication;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.util.context.Context;
+
+class ChatMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChatMetrics chatMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MetricsProperties metricsProperties = new MetricsProperties();
+        metricsProperties.setMaximumTagValues(2);
+        chatMetrics =
+                new ChatMetrics(
+                        meterRegistry,
+                        new AccessLogger(new AccessLogProperties()),
+                        metricsProperties);
+    }
+
+    @Test
+    void testRequestIsRecordedOnceAndLeavesActiveRequests() {
+        Authentication authentication =
+                Authentication.build(
+                        "openai-compat",
+                        Map.of(
+                                "organization", "org-a",
+                                "boundOrganization", "org-a",
+                                "project", "proj-a"));
+
+        MeteredRequest request = chatMetrics.start(request(false), authentication);
+        assertEquals(1, activeRequests());
+
+        request.success();
+        request.failure(new IllegalStateException());
+
+        assertEquals(0, activeRequests());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(ChatMetrics.REQUESTS)
+                        .tag("organization", "org-a")
+                        .tag("outcome", "success")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    void testTagsOnlyUseBoundValuesAndAreCapped() {
+        Authentication authentication =
+                Authentication.build(
+                        "openai-compat", Map.of("organization", "org-header", "project", "p"));
+
+        chatMetrics.start(request("gpt-5"), authentication).success();
+        chatMetrics.start(request("gpt-4"), authentication).success();
+        chatMetrics.start(request("made-up-model"), authentication).success();
+
+        assertEquals(
+                3,
+                meterRegistry
+                        .get(ChatMetrics.REQUESTS)
+                        .tag("organization", "unknown")
+                        .tag("project", "unknown")
+                        .timers()
+                        .stream()
+                        .mapToLong(Timer::count)
+                        .sum());
+        assertEquals(
+                1,
+                meterRegistry.get(ChatMetrics.REQUESTS).tag("model", "other").timer().count());
+    }
+
+    @Test
+    void testTokenTimerSeparatesFirstTokenFromLaterTokens() {
+        MeteredRequest request = chatMetrics.start(request(true), null);
+        TokenTimer tokenTimer = chatMetrics.tokenTimer(request);
+
+        tokenTimer.onToken();
+        tokenTimer.onToken();
+        tokenTimer.onToken();
+
+        assertEquals(1, meterRegistry.get(ChatMetrics.TIME_TO_FIRST_TOKEN).timer().count());
+        assertEquals(2, meterRegistry.get(ChatMetrics.INTER_TOKEN_LATENCY).timer().count());
+    }
+
+    @Test
+    void testUsageIsCountedForTheRequestInTheContext() {
+        MeteredRequest request = chatMetrics.start(request(false), null);
+        MeteredRequest current = chatMetrics.current(request.addTo(Context.empty()), "gpt-5");
+
+        chatMetrics.recordUsage(current, new Usage(10, 5, 15));
+
+        assertEquals(
+                10, meterRegistry.get(ChatMetrics.TOKENS).tag("type", "prompt").counter().count());
+        assertEquals(
+                5,
+                meterRegistry.get(ChatMetrics.TOKENS).tag("type", "completion").counter().count());
+    }
+
+    private static CreateChatCompletionRequest request(String model) {
+        CreateChatCompletionRequest request = request(false);
+        request.setModel(model);
+        return request;
+    }
+
+    private static CreateChatCompletionRequest request(boolean stream) {
+        CreateChatCompletionRequest request = new CreateChatCompletionRequest();
+        request.setModel("gpt-5");
+        request.setStream(stream);
+        return request;
+    }
+
+    private double activeRequests() {
+        return meterRegistry.get(ChatMetrics.ACTIVE_REQUESTS).gauge().value();
+    }
+}
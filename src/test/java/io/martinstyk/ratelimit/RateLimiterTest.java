@@ -0,0 +1,190 @@
+package io.martinstyk.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.martinstyk.config.RateLimitProperties;
+import io.martinstyk.config.RateLimitTierProperties;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.Usage;
+import io.martinstyk.model.message.ChatCompletionRequestMessage;
+import io.martinstyk.model.message.ChatCompletionRequestUserMessage;
+import io.micronaut.security.authentication.Authentication;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+    private static final Authentication KEY_A = authentication("key-a", null);
+    private static final Authentication KEY_B = authentication("key-b", null);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toNanos(20_000));
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        properties.setRequestsPerMinute(2);
+        properties.setTokensPerMinute(100);
+
+        RateLimitTierProperties premium = new RateLimitTierProperties("premium");
+        premium.setRequestsPerMinute(600);
+        premium.setTokensPerMinute(10_000);
+
+        rateLimiter =
+                new RateLimiter(
+                        properties,
+                        List.of(premium),
+                        new InMemoryRateLimitStore(properties),
+                        clock::get);
+    }
+
+    @Test
+    void testRequestsPerMinute() {
+        assertTrue(rateLimiter.tryAcquire(KEY_A, request("Hi", null)).allowed());
+        RateLimitDecision second = rateLimiter.tryAcquire(KEY_A, request("Hi", null));
+        assertTrue(second.allowed());
+        assertEquals(0, second.remainingRequests());
+
+        RateLimitDecision rejected = rateLimiter.tryAcquire(KEY_A, request("Hi", null));
+        assertFalse(rejected.allowed());
+        assertEquals(TimeUnit.MINUTES.toNanos(1), rejected.resetRequestsNanos());
+
+        assertTrue(rateLimiter.tryAcquire(KEY_B, request("Hi", null)).allowed());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(rateLimiter.tryAcquire(KEY_A, request("Hi", null)).allowed());
+    }
+
+    @Test
+    void testTokensPerMinuteChargesCompletionBudget() {
+        RateLimitDecision first = rateLimiter.tryAcquire(KEY_A, request("12345678", 80));
+        assertTrue(first.allowed());
+        assertEquals(18, first.remainingTokens());
+
+        RateLimitDecision rejected = rateLimiter.tryAcquire(KEY_A, request("12345678", 80));
+        assertFalse(rejected.allowed());
+        assertEquals(1, rejected.remainingRequests());
+    }
+
+    @Test
+    void testReconcileRefundsUnusedTokens() {
+        RateLimitDecision first = rateLimiter.tryAcquire(KEY_A, request("12345678", 80));
+        rateLimiter.reconcile(first, new Usage(2, 8, 10));
+
+        RateLimitDecision second = rateLimiter.tryAcquire(KEY_A, request("12345678", 80));
+        assertTrue(second.allowed());
+        assertEquals(8, second.remainingTokens());
+    }
+
+    @Test
+    void testRetryAfterOfRejectedRequest() {
+        rateLimiter.tryAcquire(KEY_A, request("Hi", null));
+        rateLimiter.tryAcquire(KEY_A, request("Hi", null));
+
+        RateLimitDecision rejected = rateLimiter.tryAcquire(KEY_A, request("Hi", null));
+        assertEquals(TimeUnit.SECONDS.toNanos(30), rejected.retryAfterNanos());
+
+        RateLimitDecision tooLarge = rateLimiter.tryAcquire(KEY_B, request("12345678", 200));
+        assertFalse(tooLarge.allowed());
+        assertEquals(-1, tooLarge.retryAfterNanos());
+    }
+
+    @Test
+    void testChangingProjectDoesNotLiftKeyBudget() {
+        assertTrue(rateLimiter.tryAcquire(KEY_A, request("Hi", null)).allowed());
+        assertTrue(rateLimiter.tryAcquire(KEY_A, request("Hi", null)).allowed());
+
+        Authentication otherProject =
+                Authentication.build(
+                        "openai-compat",
+                        Map.of("keyId", "key-a", "organization", "org", "project", "proj-new"));
+        assertFalse(rateLimiter.tryAcquire(otherProject, request("Hi", null)).allowed());
+    }
+
+    @Test
+    void testKeysBoundToOrganizationShareItsBudget() {
+        Authentication first = boundAuthentication("key-c", "org-bound");
+        Authentication second = boundAuthentication("key-d", "org-bound");
+        assertTrue(rateLimiter.tryAcquire(first, request("Hi", null)).allowed());
+        assertTrue(rateLimiter.tryAcquire(second, request("Hi", null)).allowed());
+
+        RateLimitDecision rejected = rateLimiter.tryAcquire(first, request("Hi", null));
+        assertFalse(rejected.allowed());
+        Authentication otherOrganization = boundAuthentication("key-e", "org-other");
+        assertTrue(rateLimiter.tryAcquire(otherOrganization, request("Hi", null)).allowed());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(rateLimiter.tryAcquire(first, request("Hi", null)).allowed());
+    }
+
+    @Test
+    void testKeysResolvedByTheValidatorAreUsedAsTheyAre() {
+        RateLimitKeys keys = new RateLimitKeys(List.of("key/key-a"));
+        Authentication resolved =
+                Authentication.build(
+                        "openai-compat", Map.of("keyId", "key-f", RateLimitKeys.ATTRIBUTE, keys));
+        assertTrue(rateLimiter.tryAcquire(KEY_A, request("Hi", null)).allowed());
+
+        RateLimitDecision decision = rateLimiter.tryAcquire(resolved, request("Hi", null));
+        assertTrue(decision.allowed());
+        assertSame(keys, decision.keys());
+        assertFalse(rateLimiter.tryAcquire(KEY_A, request("Hi", null)).allowed());
+    }
+
+    @Test
+    void testTierFromAuthentication() {
+        Authentication premium = authentication("key-c", "premium");
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire(premium, request("Hi", null)).allowed());
+        }
+    }
+
+    @Test
+    void testDisabledRateLimiter() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimiter disabled =
+                new RateLimiter(properties, List.of(), new InMemoryRateLimitStore(properties));
+
+        assertSame(RateLimitDecision.UNLIMITED, disabled.tryAcquire(KEY_A, request("Hi", null)));
+    }
+
+    private static CreateChatCompletionRequest request(String content, Integer maxTokens) {
+        CreateChatCompletionRequest request = new CreateChatCompletionRequest();
+        request.setModel("gpt-5");
+        ChatCompletionRequestMessage message = new ChatCompletionRequestUserMessage();
+        message.setContent(content);
+        request.setMessages(List.of(message));
+        request.setMaxCompletionTokens(maxTokens);
+        return request;
+    }
+
+    private static Authentication authentication(String keyId, String tier) {
+        Map<String, Object> attributes =
+                tier == null
+                        ? Map.of("keyId", keyId, "organization", "org", "project", "proj")
+                        : Map.of(
+                                "keyId", keyId,
+                                "organization", "org",
+                                "project", "proj",
+                                "tier", tier);
+        return Authentication.build("openai-compat", attributes);
+    }
+
+    private static Authentication boundAuthentication(String keyId, String organization) {
+        return Authentication.build(
+                "openai-compat",
+                Map.of(
+                        "keyId", keyId,
+                        "organization", organization,
+                        "boundOrganization", organization,
+                        "project", "proj"));
+    }
+}
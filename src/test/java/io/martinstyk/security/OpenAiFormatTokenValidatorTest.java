@@ -1,8 +1,22 @@
 package io.martinstyk.security;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.martinstyk.config.ApiKeyCacheProperties;
+import io.martinstyk.ratelimit.RateLimitKeys;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.security.authentication.Authentication;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -16,7 +30,7 @@ class OpenAiFormatTokenValidatorTest {
 
     @BeforeEach
     void setUp() {
-        validator = new OpenAiFormatTokenValidator<>();
+        validator = new OpenAiFormatTokenValidator<>(new ApiKeyCacheProperties(), null);
     }
 
     @ParameterizedTest
@@ -183,4 +197,96 @@ class OpenAiFormatTokenValidatorTest {
                         })
                 .verifyComplete();
     }
+
+    @Test
+    void testValidatedKeysAreCachedPerHeaderCombination() {
+        String token = "sk-proj-1234567890123456789012345678901234567890";
+        HttpRequest<?> request = HttpRequest.GET("/test").header("OpenAI-Project", "proj-a");
+
+        HttpRequest<?> otherRequest = HttpRequest.GET("/test").header("OpenAI-Project", "proj-b");
+
+        Authentication first = Mono.from(validator.validateToken(token, request)).block();
+        Authentication second = Mono.from(validator.validateToken(token, request)).block();
+        Authentication other = Mono.from(validator.validateToken(token, otherRequest)).block();
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(first.getAttributes().get("keyId"), other.getAttributes().get("keyId"));
+        assertEquals("proj-b", other.getAttributes().get("project"));
+    }
+
+    @Test
+    void testStoreRejectsUnknownKeysAndBindsRegisteredOnes() {
+        String registered = "sk-proj-1234567890123456789012345678901234567890";
+        String unknown = "sk-proj-0987654321098765432109876543210987654321";
+        StubApiKeyStore store = new StubApiKeyStore();
+        store.keys.put(
+                sha256Hex(registered),
+                new ApiKey(
+                        sha256Hex(registered), "org-bound", null, "scale", Set.of("gpt-5")));
+        validator = new OpenAiFormatTokenValidator<>(new ApiKeyCacheProperties(), store);
+        HttpRequest<?> request = HttpRequest.GET("/test").header("OpenAI-Organization", "org-x");
+
+        Authentication authentication =
+                Mono.from(validator.validateToken(registered, request)).block();
+
+        assertEquals("org-bound", authentication.getAttributes().get("organization"));
+        assertEquals("proj-default", authentication.getAttributes().get("project"));
+        assertEquals("org-bound", authentication.getAttributes().get("boundOrganization"));
+        assertNull(authentication.getAttributes().get("boundProject"));
+        assertEquals("scale", authentication.getAttributes().get("tier"));
+        assertEquals(Set.of("gpt-5"), authentication.getAttributes().get("allowedModels"));
+        assertEquals(
+                List.of(
+                        "key/" + authentication.getAttributes().get("keyId"),
+                        "organization/org-bound"),
+                ((RateLimitKeys) authentication.getAttributes().get(RateLimitKeys.ATTRIBUTE))
+                        .keys());
+        StepVerifier.create(validator.validateToken(unknown, request)).verifyComplete();
+    }
+
+    @Test
+    void testReloadedStoreRevokesCachedKeys() {
+        String token = "sk-proj-1234567890123456789012345678901234567890";
+        StubApiKeyStore store = new StubApiKeyStore();
+        store.keys.put(sha256Hex(token), new ApiKey(sha256Hex(token), null, null, null, null));
+        validator = new OpenAiFormatTokenValidator<>(new ApiKeyCacheProperties(), store);
+        HttpRequest<?> request = HttpRequest.GET("/test");
+
+        StepVerifier.create(validator.validateToken(token, request))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        store.keys.clear();
+        store.version++;
+
+        StepVerifier.create(validator.validateToken(token, request)).verifyComplete();
+    }
+
+    private static String sha256Hex(String token) {
+        try {
+            return HexFormat.of()
+                    .formatHex(
+                            MessageDigest.getInstance("SHA-256")
+                                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class StubApiKeyStore implements ApiKeyStore {
+
+        private final Map<String, ApiKey> keys = new HashMap<>();
+        private long version = 1;
+
+        @Override
+        public ApiKey find(String keySha256) {
+            return keys.get(keySha256);
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
 }
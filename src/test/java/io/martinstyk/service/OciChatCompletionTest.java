@@ -0,0 +1,47 @@
+package io.martinstyk.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.martinstyk.model.ChatCompletionChoice;
+import io.martinstyk.model.ChatCompletionResponseMessage;
+import io.martinstyk.model.CreateChatCompletionResponse;
+import io.martinstyk.model.FinishReason;
+import io.martinstyk.model.Usage;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OciChatCompletionTest {
+
+    @Test
+    void testMergeIndexesChoicesAndSumsUsage() {
+        CreateChatCompletionResponse merged =
+                OciChatCompletion.merge(
+                        List.of(
+                                response("chatcmpl-1", "first", new Usage(10, 3, 13)),
+                                response("chatcmpl-2", "second", new Usage(10, 5, 15)),
+                                response("chatcmpl-3", "third", null)));
+
+        assertEquals("chatcmpl-1", merged.getId());
+        assertEquals(3, merged.getChoices().size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, merged.getChoices().get(i).getIndex());
+        }
+        assertEquals("second", merged.getChoices().get(1).getMessage().getContent());
+        assertEquals(20, merged.getUsage().getPromptTokens());
+        assertEquals(8, merged.getUsage().getCompletionTokens());
+        assertEquals(28, merged.getUsage().getTotalTokens());
+    }
+
+    private static CreateChatCompletionResponse response(String id, String content, Usage usage) {
+        CreateChatCompletionResponse response = new CreateChatCompletionResponse();
+        response.setId(id);
+        response.setChoices(
+                List.of(
+                        new ChatCompletionChoice(
+                                0,
+                                new ChatCompletionResponseMessage("assistant", content),
+                                FinishReason.STOP)));
+        response.setUsage(usage);
+        return response;
+    }
+}
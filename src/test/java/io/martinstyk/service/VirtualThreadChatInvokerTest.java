@@ -0,0 +1,110 @@
+package io.martinstyk.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.oracle.bmc.generativeaiinference.GenerativeAiInference;
+import com.oracle.bmc.generativeaiinference.requests.ChatRequest;
+import com.oracle.bmc.generativeaiinference.responses.ChatResponse;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+class VirtualThreadChatInvokerTest {
+
+    private static final String MODEL = "gpt-5";
+
+    @Test
+    void testStreamHoldsItsPermitUntilClosed() throws Exception {
+        ModelPermits permits = new ModelPermits(1);
+        try (VirtualThreadChatInvoker invoker =
+                new VirtualThreadChatInvoker(client(new CountDownLatch(0)), permits)) {
+            ChatResponse response = invoker.chat(ChatRequest.builder().build(), MODEL).block();
+            assertEquals(0, available(permits));
+
+            response.getEventStream().close();
+            assertEquals(1, available(permits));
+
+            // Closing again must not hand out a second permit
+            response.getEventStream().close();
+            assertEquals(1, available(permits));
+        }
+    }
+
+    @Test
+    void testDiscardedResponseReleasesItsPermit() throws Exception {
+        ModelPermits permits = new ModelPermits(1);
+        CountDownLatch respond = new CountDownLatch(1);
+        try (VirtualThreadChatInvoker invoker =
+                new VirtualThreadChatInvoker(client(respond), permits)) {
+            Disposable call = invoker.chat(ChatRequest.builder().build(), MODEL).subscribe();
+            while (available(permits) != 0) {
+                Thread.sleep(1);
+            }
+
+            // The response arrives after the caller is gone and is dropped
+            call.dispose();
+            respond.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (available(permits) != 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, available(permits));
+        }
+    }
+
+    @Test
+    void testInvokersShareThePermitsOfAModel() throws Exception {
+        ModelPermits permits = new ModelPermits(1);
+        try (VirtualThreadChatInvoker first =
+                        new VirtualThreadChatInvoker(client(new CountDownLatch(0)), permits);
+                VirtualThreadChatInvoker second =
+                        new VirtualThreadChatInvoker(client(new CountDownLatch(0)), permits)) {
+            ChatResponse response = first.chat(ChatRequest.builder().build(), MODEL).block();
+
+            Disposable waiting = second.chat(ChatRequest.builder().build(), MODEL).subscribe();
+            Thread.sleep(50);
+            assertEquals(0, available(permits));
+            assertTrue(permits.forModel(MODEL).hasQueuedThreads());
+
+            response.getEventStream().close();
+            waiting.dispose();
+        }
+    }
+
+    private static int available(ModelPermits permits) {
+        return permits.getAvailablePermits().getOrDefault(MODEL, 1);
+    }
+
+    /** A client whose streamed responses arrive once the latch opens, ignoring interrupts. */
+    private static GenerativeAiInference client(CountDownLatch respond) {
+        return (GenerativeAiInference)
+                Proxy.newProxyInstance(
+                        GenerativeAiInference.class.getClassLoader(),
+                        new Class<?>[] {GenerativeAiInference.class},
+                        (proxy, method, args) -> {
+                            if (!method.getName().equals("chat")) {
+                                throw new UnsupportedOperationException(method.getName());
+                            }
+                            boolean interrupted = false;
+                            while (true) {
+                                try {
+                                    respond.await();
+                                    break;
+                                } catch (InterruptedException e) {
+                                    interrupted = true;
+                                }
+                            }
+                            if (interrupted) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return ChatResponse.builder()
+                                    .eventStream(new ByteArrayInputStream(new byte[0]))
+                                    .build();
+                        });
+    }
+}
@@ -0,0 +1,96 @@
+package io.martinstyk.streaming;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.martinstyk.model.FinishReason;
+import io.martinstyk.model.Usage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ChatCompletionChunkWriterTest {
+    private static final String PREFIX =
+            "{\"id\":\"chatcmpl-123\",\"object\":\"chat.completion.chunk\",\"created\":1700000000,"
+                    + "\"model\":\"gpt-5\",\"choices\":[";
+
+    private ChatCompletionChunkWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new ChatCompletionChunkWriter("chatcmpl-123", 1700000000L, "gpt-5");
+    }
+
+    @Test
+    void testRoleChunk() {
+        assertEquals(
+                PREFIX
+                        + "{\"index\":0,\"delta\":{\"role\":\"assistant\",\"content\":\"\"},"
+                        + "\"finish_reason\":null}]}",
+                writer.role(0, "assistant").getData());
+    }
+
+    @Test
+    void testContentChunk() {
+        assertEquals(
+                PREFIX + "{\"index\":1,\"delta\":{\"content\":\"Hi\"},\"finish_reason\":null}]}",
+                writer.content(1, "Hi").getData());
+    }
+
+    @Test
+    void testFinishChunk() {
+        assertEquals(
+                PREFIX + "{\"index\":0,\"delta\":{},\"finish_reason\":\"length\"}]}",
+                writer.finish(0, FinishReason.LENGTH).getData());
+    }
+
+    @Test
+    void testChunkWithUsage() {
+        assertEquals(
+                PREFIX
+                        + "{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}],"
+                        + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":5,"
+                        + "\"total_tokens\":15}}",
+                writer.write(0, null, null, FinishReason.STOP, new Usage(10, 5, 15)).getData());
+    }
+
+    @Test
+    void testUsageChunk() {
+        assertEquals(
+                PREFIX
+                        + "],\"usage\":{\"prompt_tokens\":20,\"completion_tokens\":8,"
+                        + "\"total_tokens\":28}}",
+                writer.usage(new Usage(20, 8, 28)).getData());
+    }
+
+    @Test
+    void testWriterIsReusableAcrossChunks() {
+        writer.content(0, "a much longer first token that grows the shared buffer");
+
+        assertEquals(
+                PREFIX + "{\"index\":0,\"delta\":{\"content\":\"b\"},\"finish_reason\":null}]}",
+                writer.content(0, "b").getData());
+    }
+
+    @ParameterizedTest
+    @CsvSource(
+            delimiter = '|',
+            value = {
+                "plain text|\"plain text\"",
+                "say \"hi\"|\"say \\\"hi\\\"\"",
+                "back\\slash|\"back\\\\slash\"",
+                "ünïcödé ✓|\"ünïcödé ✓\""
+            })
+    void testStringEscaping(String input, String expected) {
+        StringBuilder target = new StringBuilder();
+        ChatCompletionChunkWriter.appendString(target, input);
+        assertEquals(expected, target.toString());
+    }
+
+    @Test
+    void testControlCharacterEscaping() {
+        StringBuilder target = new StringBuilder();
+        ChatCompletionChunkWriter.appendString(target, "line\nbreak\r\ttab\u0001");
+        assertEquals("\"line\\nbreak\\r\\ttab\\u0001\"", target.toString());
+    }
+}
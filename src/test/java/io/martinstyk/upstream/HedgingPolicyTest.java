@@ -0,0 +1,79 @@
+package io.martinstyk.upstream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.martinstyk.config.HedgingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class HedgingPolicyTest {
+
+    private static final String MODEL = "openai.gpt-4";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testDelayIsThePercentileOfRecentLatencies() {
+        HedgingPolicy policy = policy(Duration.ofMillis(1));
+        for (int i = 1; i <= 63; i++) {
+            policy.recordLatency(MODEL, Duration.ofMillis(i).toNanos());
+        }
+        assertNull(policy.getDelay(MODEL));
+
+        // The percentile is recomputed every 64 samples once enough of them were recorded
+        for (int i = 64; i <= 128; i++) {
+            policy.recordLatency(MODEL, Duration.ofMillis(i).toNanos());
+        }
+
+        assertEquals(Duration.ofMillis(122), policy.getDelay(MODEL));
+        assertNull(policy.getDelay("openai.other"));
+    }
+
+    @Test
+    void testDelayIsNeverBelowMinDelay() {
+        HedgingPolicy policy = policy(Duration.ofSeconds(1));
+        for (int i = 0; i < 128; i++) {
+            policy.recordLatency(MODEL, Duration.ofMillis(10).toNanos());
+        }
+
+        assertEquals(Duration.ofSeconds(1), policy.getDelay(MODEL));
+    }
+
+    @Test
+    void testHedgesAreCappedByTheBudget() {
+        HedgingPolicy policy = policy(Duration.ofMillis(1));
+        assertFalse(policy.tryHedge(MODEL));
+
+        // A budget of 2% earns one hedge every 50 calls
+        for (int i = 0; i < 100; i++) {
+            policy.onCall();
+        }
+        assertTrue(policy.tryHedge(MODEL));
+        assertTrue(policy.tryHedge(MODEL));
+        assertFalse(policy.tryHedge(MODEL));
+
+        // Unused budget is capped so that a stall cannot release a burst of hedges
+        for (int i = 0; i < 10_000; i++) {
+            policy.onCall();
+        }
+        assertEquals(10_000, policy.getBalance());
+        assertEquals(
+                2,
+                meterRegistry
+                        .get(HedgingPolicy.HEDGES)
+                        .tag("outcome", "sent")
+                        .counter()
+                        .count());
+    }
+
+    private HedgingPolicy policy(Duration minDelay) {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setMinDelay(minDelay);
+        properties.setMinSamples(100);
+        return new HedgingPolicy(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,192 @@
+package io.martinstyk.upstream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.oracle.bmc.generativeaiinference.model.ChatDetails;
+import com.oracle.bmc.generativeaiinference.requests.ChatRequest;
+import com.oracle.bmc.generativeaiinference.responses.ChatResponse;
+import io.martinstyk.config.LoadBalancingProperties;
+import io.martinstyk.model.CreateChatCompletionRequest;
+import io.martinstyk.model.message.ChatCompletionRequestMessage;
+import io.martinstyk.model.message.ChatCompletionRequestSystemMessage;
+import io.martinstyk.model.message.ChatCompletionRequestUserMessage;
+import io.martinstyk.service.ChatInvoker;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class UpstreamPoolTest {
+
+    private static final CreateChatCompletionRequest REQUEST = new CreateChatCompletionRequest();
+
+    @Test
+    void testWeightedRoundRobinInterleavesByWeight() {
+        UpstreamTarget a = target("a", 5, succeeding());
+        UpstreamTarget b = target("b", 1, succeeding());
+        UpstreamTarget c = target("c", 1, succeeding());
+        UpstreamPool pool = new UpstreamPool(List.of(a, b, c), new WeightedRoundRobinStrategy());
+
+        List<String> picks = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            picks.add(pool.select(REQUEST).getName());
+        }
+
+        assertEquals(List.of("a", "a", "b", "a", "c", "a", "a"), picks);
+    }
+
+    @Test
+    void testLeastOutstandingPicksIdleTarget() {
+        UpstreamTarget busy = target("busy", 1, succeeding());
+        UpstreamTarget idle = target("idle", 1, succeeding());
+        busy.acquire();
+        busy.acquire();
+        UpstreamPool pool = new UpstreamPool(List.of(busy, idle), new LeastOutstandingStrategy());
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(idle, pool.select(REQUEST));
+        }
+    }
+
+    @Test
+    void testPrefixAffinitySendsSharedPrefixToSameTarget() {
+        List<UpstreamTarget> targets =
+                List.of(
+                        target("a", 1, succeeding()),
+                        target("b", 1, succeeding()),
+                        target("c", 1, succeeding()));
+        UpstreamPool pool =
+                new UpstreamPool(
+                        targets, new PrefixAffinityStrategy(1.25, new LeastOutstandingStrategy()));
+
+        UpstreamTarget selected = pool.select(prefixedRequest("You are a helpful agent", "Hi"));
+        for (int i = 0; i < 10; i++) {
+            assertSame(
+                    selected,
+                    pool.select(prefixedRequest("You are a helpful agent", "Question " + i)));
+        }
+    }
+
+    @Test
+    void testPrefixAffinitySpillsOverWhenTargetIsOverloaded() {
+        UpstreamTarget a = target("a", 1, succeeding());
+        UpstreamTarget b = target("b", 1, succeeding());
+        UpstreamPool pool =
+                new UpstreamPool(
+                        List.of(a, b),
+                        new PrefixAffinityStrategy(1.25, new LeastOutstandingStrategy()));
+        CreateChatCompletionRequest request = prefixedRequest("Shared instructions", "Hi");
+
+        UpstreamTarget preferred = pool.select(request);
+        UpstreamTarget other = preferred == a ? b : a;
+        for (int i = 0; i < 4; i++) {
+            preferred.acquire();
+        }
+
+        assertSame(other, pool.select(request));
+    }
+
+    @Test
+    void testOutstandingRequestsReleasedOnCompletion() {
+        UpstreamTarget target = target("a", 1, succeeding());
+        UpstreamPool pool = new UpstreamPool(List.of(target), new LeastOutstandingStrategy());
+
+        pool.call(
+                        REQUEST,
+                        selected -> {
+                            assertEquals(1, selected.getOutstandingRequests());
+                            return selected.chat(ChatRequest.builder().build(), "model");
+                        })
+                .block();
+
+        assertEquals(0, target.getOutstandingRequests());
+    }
+
+    @Test
+    void testFailingTargetIsEjected() {
+        UpstreamTarget healthy = target("healthy", 1, succeeding());
+        UpstreamTarget failing = target("failing", 1, failing());
+        UpstreamPool pool =
+                new UpstreamPool(List.of(healthy, failing), new WeightedRoundRobinStrategy());
+
+        for (int i = 0; i < 3; i++) {
+            failing
+                    .chat(ChatRequest.builder().build(), "model")
+                    .onErrorResume(error -> Mono.empty())
+                    .block();
+        }
+
+        assertFalse(failing.isAvailable());
+        assertTrue(healthy.isAvailable());
+        for (int i = 0; i < 10; i++) {
+            assertSame(healthy, pool.select(REQUEST));
+        }
+    }
+
+    @Test
+    void testNoAlternativeToSingleOrOnlyAvailableTarget() {
+        UpstreamTarget single = target("single", 1, succeeding());
+        assertFalse(
+                new UpstreamPool(List.of(single), new WeightedRoundRobinStrategy())
+                        .hasAlternative(single));
+
+        UpstreamTarget healthy = target("healthy", 1, succeeding());
+        UpstreamTarget failing = target("failing", 1, failing());
+        UpstreamPool pool =
+                new UpstreamPool(List.of(healthy, failing), new WeightedRoundRobinStrategy());
+        assertTrue(pool.hasAlternative(healthy));
+
+        for (int i = 0; i < 3; i++) {
+            failing
+                    .chat(ChatRequest.builder().build(), "model")
+                    .onErrorResume(error -> Mono.empty())
+                    .block();
+        }
+
+        assertFalse(pool.hasAlternative(healthy));
+        assertTrue(pool.hasAlternative(failing));
+    }
+
+    private static CreateChatCompletionRequest prefixedRequest(String system, String user) {
+        ChatCompletionRequestMessage systemMessage = new ChatCompletionRequestSystemMessage();
+        systemMessage.setContent(system);
+        ChatCompletionRequestMessage userMessage = new ChatCompletionRequestUserMessage();
+        userMessage.setContent(user);
+        CreateChatCompletionRequest request = new CreateChatCompletionRequest();
+        request.setModel("model");
+        request.setMessages(List.of(systemMessage, userMessage));
+        return request;
+    }
+
+    private static UpstreamTarget target(String name, int weight, ChatInvoker chatInvoker) {
+        return new UpstreamTarget(
+                name,
+                chatInvoker,
+                ChatDetails.builder().compartmentId("compartment").build(),
+                weight,
+                new LoadBalancingProperties());
+    }
+
+    private static ChatInvoker succeeding() {
+        return new StubChatInvoker(Mono.just(ChatResponse.builder().build()));
+    }
+
+    private static ChatInvoker failing() {
+        return new StubChatInvoker(Mono.error(new IllegalStateException("unavailable")));
+    }
+
+    private record StubChatInvoker(Mono<ChatResponse> response) implements ChatInvoker {
+        @Override
+        public Mono<ChatResponse> chat(ChatRequest chatRequest, String model) {
+            return response;
+        }
+
+        @Override
+        public String getEndpoint() {
+            return "https://inference.example.com";
+        }
+    }
+}